@@ -0,0 +1,80 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bj_horn.Card;
+import bj_horn.HandAndBet;
+
+/**
+ * Hand valuation in both engines and the bj_horn split and double down paths
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HandBenchmark
+{
+    private blackjack.Hand consoleHand;
+    private bj_horn.Hand hornHand;
+
+    private Card eight, six;
+
+    @Setup
+    public void setup()
+    {
+        blackjack.Shoe shoe = new blackjack.Shoe(6);
+        shoe.shuffle();
+        consoleHand = new blackjack.Hand(shoe);
+        consoleHand.changeCards();
+        consoleHand.addCard();
+
+        eight = new Card("S", 8);
+        six = new Card("H", 6);
+        hornHand = new bj_horn.Hand(new Card("D", 1), six);
+        hornHand.addCard(eight);
+    }
+
+    @Benchmark
+    public int consoleSumCards()
+    {
+        return consoleHand.sumCards();
+    }
+
+    @Benchmark
+    public int hornGetValue()
+    {
+        return hornHand.getValue();
+    }
+
+    @Benchmark
+    public HandAndBet hornSplit()
+    {
+        HandAndBet hand = new HandAndBet(10);
+        hand.hit(eight);
+        hand.hit(eight);
+        return hand.split();
+    }
+
+    @Benchmark
+    public HandAndBet hornDoubleDown()
+    {
+        HandAndBet hand = new HandAndBet(10);
+        hand.hit(six);
+        hand.hit(eight);
+        hand.doubleDown(10, eight);
+        return hand;
+    }
+}
@@ -0,0 +1,142 @@
+package benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import bj_horn.Blackjack;
+import bj_horn.PlayerStrategy;
+import bj_horn.history.HandHistoryWriter;
+import bj_horn.metrics.GameMetrics;
+import bj_horn.strategy.BasicStrategy;
+
+/**
+ * Full rounds through the public API of each engine
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RoundBenchmark
+{
+    private blackjack.BlackJack console;
+    private Blackjack horn;
+    private Blackjack recorded;
+    private Blackjack measured;
+    private HandHistoryWriter writer;
+    private File historyDirectory;
+    private PlayerStrategy strategy;
+
+    private PrintStream out;
+
+    @Setup
+    public void setup() throws IOException
+    {
+        // BlackJack.compareCards reports each result with System.out.println
+        out = System.out;
+        System.setOut(new PrintStream(new OutputStream()
+        {
+            public void write(int b)
+            {
+            }
+        }));
+
+        console = new blackjack.BlackJack(0);
+        horn = new Blackjack(0);
+        strategy = new BasicStrategy();
+
+        historyDirectory = File.createTempFile("history", "");
+        historyDirectory.delete();
+        writer = new HandHistoryWriter(historyDirectory);
+        recorded = new Blackjack(0);
+        recorded.setRoundListener(writer);
+
+        measured = new Blackjack(0);
+        measured.setMetrics(new GameMetrics());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException
+    {
+        System.setOut(out);
+
+        writer.close();
+        for(File segment : historyDirectory.listFiles())
+            segment.delete();
+        historyDirectory.delete();
+    }
+
+    @Benchmark
+    public double consoleRound()
+    {
+        // BlackJack does not expose the player's total, so the player takes one card when allowed
+        console.bet(1);
+        if(console.canHit())
+            console.playerAction("H");
+        console.updateDealerCards();
+        console.compareCards();
+        return console.getBankroll();
+    }
+
+    @Benchmark
+    public double hornRound()
+    {
+        return playRound(horn);
+    }
+
+    @Benchmark
+    public double hornRoundWithHistory()
+    {
+        return playRound(recorded);
+    }
+
+    @Benchmark
+    public double hornRoundWithMetrics()
+    {
+        return playRound(measured);
+    }
+
+    private double playRound(Blackjack horn)
+    {
+        horn.placeInitialBetAndDealCards(1);
+        while(horn.getCurrentHand() >= 0)
+        {
+            switch(strategy.chooseAction(horn))
+            {
+                case HIT:
+                    horn.hit();
+                    break;
+
+                case DOUBLE_DOWN:
+                    horn.doubleDown(horn.getTotalBet(horn.getCurrentHand()));
+                    break;
+
+                case SPLIT:
+                    horn.split();
+                    break;
+
+                default:
+                    horn.stand();
+            }
+        }
+        horn.playDealersHand();
+        horn.resolveBetsAndReset();
+        return horn.getPlayersMoney();
+    }
+}
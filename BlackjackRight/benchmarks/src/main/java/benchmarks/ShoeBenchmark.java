@@ -0,0 +1,56 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Building and shuffling the shoes of both engines
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShoeBenchmark
+{
+    private blackjack.Shoe consoleShoe;
+    private bj_horn.Shoe hornShoe;
+
+    @Setup
+    public void setup()
+    {
+        consoleShoe = new blackjack.Shoe(6);
+        hornShoe = new bj_horn.Shoe(6);
+    }
+
+    @Benchmark
+    public blackjack.Shoe consoleShoeConstruction()
+    {
+        return new blackjack.Shoe(6);
+    }
+
+    @Benchmark
+    public blackjack.Shoe consoleShoeShuffle()
+    {
+        consoleShoe.shuffle();
+        return consoleShoe;
+    }
+
+    @Benchmark
+    public bj_horn.Shoe hornShoeReset()
+    {
+        hornShoe.reset();
+        return hornShoe;
+    }
+}
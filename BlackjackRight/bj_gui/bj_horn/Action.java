@@ -0,0 +1,12 @@
+package bj_horn;
+
+/**
+ * A decision the player can make for the current hand
+ */
+public enum Action
+{
+    HIT,
+    STAND,
+    DOUBLE_DOWN,
+    SPLIT
+}
@@ -0,0 +1,20 @@
+package bj_horn;
+
+/**
+ * Chooses the player's initial bet for each round played by
+ * Blackjack.playRounds. Implementations used by the simulator are
+ * shared by several tables so they must be safe for use by multiple threads.
+ */
+public interface BetPolicy
+{
+    /**
+     * Returns the initial bet for the game's next round. Called between
+     * rounds, after the shoe has been reset if it needed to be, so the
+     * game's running and true counts describe the cards left to be dealt.
+     * @param game the game about to play a round
+     * @return the amount to bet (greater than 0)
+     *
+     * Precondition: game.getNumHands() == 0
+     */
+    double nextBet(Blackjack game);
+}
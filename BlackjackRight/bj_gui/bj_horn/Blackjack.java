@@ -1,6 +1,8 @@
 package bj_horn;
 
-import java.util.ArrayList;
+import bj_horn.metrics.GameMetrics;
+import bj_horn.metrics.TableMetrics;
+import shuffle.ShuffleStrategy;
 
 /**
  * The Blackjack class allows a single player to play a game of blackjack.
@@ -10,46 +12,238 @@ import java.util.ArrayList;
  */
 public class Blackjack
 {
-	private static final int DECKS = 6, CARDS_PER_DECK = 52;
-	private static final double SHOE_PENETRATION = 0.75;
+	static final int DECKS = 6, CARDS_PER_DECK = 52;
+	static final double SHOE_PENETRATION = 0.75;
 	
-	private static final int MAX_HANDS = 4;
+	/**
+	 * The maximum number of hands the player can have after splitting
+	 */
+	public static final int MAX_HANDS = 4;
+	
+	private static final long NOT_TIMED = Long.MIN_VALUE;
 	
     private Shoe shoe;
+    private boolean continuousShuffle;
     
     private double playersMoney;
     
-    private ArrayList<HandAndBet> playersHands;
+    /*
+     * The hands are allocated once and reused every round,
+     * playersHands[0] up to but excluding numHands are in use.
+     */
+    private HandAndBet[] playersHands;
+    private int numHands;
     private int currentHand;
     
     private Hand dealersHand;
     private boolean dealerPlayed;
+    private FaceUpHand faceUpDealersHand;
+    
+    private RoundListener listener;
+    
+    private GameMetrics metrics;
+    private TableMetrics tableMetrics;
+    private double roundStartMoney;
+    private long roundStartNanos;
+    private int actionsTimed, roundsTimed;
     
     /**
      * Constructs a blackjack object that is ready to play.
      * @param playersMoney the player's starting bankroll (all values, including 0 and negative values, are permitted)
      */
     public Blackjack(double playersMoney)
+    {
+        this(playersMoney, new Shoe(DECKS));
+    }
+    
+    /**
+     * Constructs a blackjack object that is ready to play and whose shoe
+     * is shuffled from the specified seed. Games constructed with the same
+     * seed and played with the same decisions produce the same results.
+     * @param playersMoney the player's starting bankroll (all values, including 0 and negative values, are permitted)
+     * @param seed the seed for the shoe's random number generator
+     */
+    public Blackjack(double playersMoney, long seed)
+    {
+        this(playersMoney, new Shoe(DECKS, seed));
+    }
+    
+    /**
+     * Constructs a blackjack object that is ready to play and whose shoe
+     * is shuffled from the specified seed with the specified strategy,
+     * starting with the first shoe
+     * @param playersMoney the player's starting bankroll (all values, including 0 and negative values, are permitted)
+     * @param seed the seed for the shoe's random number generator
+     * @param shuffleStrategy the strategy used to shuffle the shoe
+     */
+    public Blackjack(double playersMoney, long seed, ShuffleStrategy shuffleStrategy)
+    {
+        this(playersMoney, new Shoe(DECKS, seed, shuffleStrategy));
+    }
+    
+    /**
+     * Constructs a blackjack object that is ready to play and deals from the
+     * specified shoe. The shoe is reset when it falls below the penetration
+     * limit.
+     * @param playersMoney the player's starting bankroll (all values, including 0 and negative values, are permitted)
+     * @param shoe the shoe to deal from
+     */
+    public Blackjack(double playersMoney, Shoe shoe)
     {
         this.playersMoney = playersMoney;
-        this.shoe = new Shoe(DECKS);
+        this.shoe = shoe;
+        
+        playersHands = new HandAndBet[MAX_HANDS];
+        for(int i = 0; i < playersHands.length; i++)
+            playersHands[i] = new HandAndBet(0);
+        
+        dealersHand = new Hand();
+        faceUpDealersHand = new FaceUpHand(dealersHand);
         
         reset();
     }
     
+    /**
+     * Returns the running count of the cards the player has seen: every card
+     * dealt from the shoe except the dealer's face down card, which is only
+     * counted once the dealer's hand is revealed
+     * @return the running count
+     */
+    public int getRunningCount()
+    {
+        if( ! isHoleCardHidden() )
+            return shoe.getRunningCount();
+        
+        return shoe.getRunningCount() - shoe.getCountingSystem().tag(dealersHand.getCard(1).getValue());
+    }
+    
+    /**
+     * Returns the running count divided by the number of decks the player has
+     * not seen (the cards left in the shoe and the dealer's face down card)
+     * @return the true count
+     */
+    public double getTrueCount()
+    {
+        if( ! isHoleCardHidden() )
+            return shoe.getTrueCount();
+        
+        return getRunningCount() * (double) CARDS_PER_DECK / (shoe.cardsLeft() + 1);
+    }
+    
+    private boolean isHoleCardHidden()
+    {
+        return dealersHand.getNumCards() > 1 && ! faceUpDealersHand.isRevealed();
+    }
+    
+    /**
+     * Changes the counting system used for the running count (HI_LO by default)
+     * @param countingSystem the counting system
+     */
+    public void setCountingSystem(CountingSystem countingSystem)
+    {
+        shoe.setCountingSystem(countingSystem);
+    }
+    
+    /**
+     * Changes the strategy used to shuffle the shoe when it is next reset
+     * (a uniform Fisher-Yates shuffle by default). The current shoe is not
+     * reshuffled; see Blackjack(double, long, ShuffleStrategy).
+     * @param shuffleStrategy the shuffle strategy
+     */
+    public void setShuffleStrategy(ShuffleStrategy shuffleStrategy)
+    {
+        shoe.setShuffleStrategy(shuffleStrategy);
+    }
+    
+    /**
+     * Changes whether this game deals from a continuous shuffling machine.
+     * If so, the cards dealt each round are returned to the shoe at random
+     * positions when the round is resolved. Otherwise the shoe is reset once
+     * it falls below the penetration limit (the default).
+     * @param continuousShuffle true for a continuous shuffling machine
+     */
+    public void setContinuousShuffle(boolean continuousShuffle)
+    {
+        this.continuousShuffle = continuousShuffle;
+    }
+    
+    /**
+     * Returns true if this game deals from a continuous shuffling machine
+     * @return true if the shoe is continuously shuffled, false otherwise
+     */
+    public boolean isContinuousShuffle()
+    {
+        return continuousShuffle;
+    }
+    
+    /**
+     * Sets the listener that receives the events of every round
+     * @param listener the listener or null for none
+     */
+    public void setRoundListener(RoundListener listener)
+    {
+        this.listener = listener;
+    }
+    
+    /**
+     * Sets the metrics updated by every action and round. One GameMetrics
+     * can be shared by many games, including games played on different threads.
+     * @param metrics the metrics or null for none
+     */
+    public void setMetrics(GameMetrics metrics)
+    {
+        this.metrics = metrics;
+    }
+    
+    /**
+     * Sets the metrics updated by every round of this game only
+     * (ex: for the hold of one table of a server)
+     * @param tableMetrics the metrics or null for none
+     */
+    public void setTableMetrics(TableMetrics tableMetrics)
+    {
+        this.tableMetrics = tableMetrics;
+    }
+    
+    /**
+     * Returns the metrics updated by every round of this game only
+     * @return the metrics or null if there are none
+     */
+    public TableMetrics getTableMetrics()
+    {
+        return tableMetrics;
+    }
+    
+    /**
+     * Returns the seed used to shuffle this game's shoe
+     * @return the seed of the shoe
+     */
+    public long getSeed()
+    {
+        return shoe.getSeed();
+    }
+    
     /**
      * Resets for another round, including reseting shoe if necessary
      */
     private void reset()
     {
-        playersHands = new ArrayList<HandAndBet>();
+        numHands = 0;
         currentHand = -1;
         
-        this.dealersHand = null;
+        this.dealersHand.clear();
         this.dealerPlayed = false;
+        faceUpDealersHand.hide();
         
-        if(shoe.cardsLeft() < DECKS * CARDS_PER_DECK * (1 - SHOE_PENETRATION))
+        if(continuousShuffle)
+            shoe.returnDealtCards();
+        else if(shoe.cardsLeft() < shoe.getDecks() * CARDS_PER_DECK * (1 - SHOE_PENETRATION))
+        {
             shoe.reset();
+            
+            if(metrics != null)
+                metrics.recordReshuffle();
+        }
     }
     
     /**
@@ -68,7 +262,7 @@ public class Blackjack
      */
     public int getNumHands()
     {
-        return playersHands.size();
+        return numHands;
     }
     
     /**
@@ -98,7 +292,7 @@ public class Blackjack
         if( ! (currentHand >= 0) )
             throw new IllegalStateException("currentHand must be >= 0 to check for decision");
         
-        return canHit() || canDoubleDown() || canSplit();
+        return hitAllowed() || doubleDownAllowed() || splitAllowed();
     }
     
     /**
@@ -151,7 +345,7 @@ public class Blackjack
     {
         validateInitialBetAndIndex(index);
 
-    		return playersHands.get(index).getTotalBet();
+    		return playersHands[index].getTotalBet();
     }
     
     /**
@@ -165,23 +359,7 @@ public class Blackjack
     {
         validateInitialBetAndIndex(index);
 
-        return playersHands.get(index).getAdditionalBet();
-    }
-    
-    /**
-     * Returns an array of 4 cards dealt from the shoe.
-     * [0] and [2] are the player's cards
-     * [1] and [3] are the dealer's cards
-     * @return an array of 4 cards dealt from the shoe
-     */
-    private Card[] getInitialCards()
-    {
-        Card[] cards = new Card[4];
-        
-        for(int i = 0; i < cards.length; i++)
-            cards[i] = shoe.dealCard();
-        
-        return cards;
+        return playersHands[index].getAdditionalBet();
     }
     
     /**
@@ -198,17 +376,34 @@ public class Blackjack
         if (amount <= 0)
             throw new IllegalArgumentException("amount bet must be greater than 0");
 
+        deal(amount);
+    }
+    
+    private void deal(double amount)
+    {
+        roundStartNanos = metrics != null && metrics.isSampled(++roundsTimed) ? System.nanoTime() : NOT_TIMED;
+        
+        roundStartMoney = playersMoney;
         this.playersMoney -= amount;
-        playersHands.add(new HandAndBet(amount));
+        HandAndBet playersInitialHand = playersHands[0];
+        playersInitialHand.reset(amount);
+        numHands = 1;
         currentHand = 0;
         
-        Card[] cards = getInitialCards();
+        // dealt in the same order as at a table: player, dealer, player, dealer
+        Card playerCard1 = shoe.dealCard();
+        Card dealerUpCard = shoe.dealCard();
+        Card playerCard2 = shoe.dealCard();
+        Card dealerHoleCard = shoe.dealCard();
+        
+        if(listener != null)
+            listener.roundStarted(playersMoney + amount, amount, playerCard1, dealerUpCard, playerCard2, dealerHoleCard);
         
-        HandAndBet playersInitialHand = playersHands.get(0);
-        playersInitialHand.hit(cards[0]);
-        playersInitialHand.hit(cards[2]);
+        playersInitialHand.hit(playerCard1);
+        playersInitialHand.hit(playerCard2);
 
-        this.dealersHand = new Hand(cards[1], cards[3]);
+        this.dealersHand.addCard(dealerUpCard);
+        this.dealersHand.addCard(dealerHoleCard);
         
         if( ! decisionIsRequiredForCurrentHand() )
             advanceToNextHandWithDecision();
@@ -225,7 +420,64 @@ public class Blackjack
     {
         validateInitialBetAndIndex(index);
     		
-    		return new Hand(playersHands.get(index).getHand());
+    		return new Hand(playersHands[index].getHandView());
+    }
+    
+    /**
+     * Returns a read-only view of the player's specified hand without copying it.
+     * The view reflects later changes to the hand and is reused in later rounds.
+     * @param index the index of the requested hand
+     * @return a view of the player's specified hand
+     * 
+     * Precondition: getNumHands() > 0 && 0 <= index && index < getNumHands()
+     */
+    public ReadOnlyHand getPlayersHandView(int index)
+    {
+        validateInitialBetAndIndex(index);
+        
+        return playersHands[index].getHandView();
+    }
+    
+    /**
+     * Returns the numerical value of the player's specified hand
+     * without copying the hand
+     * @param index the index of the hand
+     * @return the numerical value of the hand
+     * 
+     * Precondition: getNumHands() > 0 && 0 <= index && index < getNumHands()
+     */
+    public int getPlayersHandValue(int index)
+    {
+        validateInitialBetAndIndex(index);
+        
+        return playersHands[index].getValue();
+    }
+    
+    /**
+     * Returns true if the player's specified hand is soft, false otherwise
+     * @param index the index of the hand
+     * @return true if the hand contains an ace counted as 11, false otherwise
+     * 
+     * Precondition: getNumHands() > 0 && 0 <= index && index < getNumHands()
+     */
+    public boolean isPlayersHandSoft(int index)
+    {
+        validateInitialBetAndIndex(index);
+        
+        return playersHands[index].isSoft();
+    }
+    
+    /**
+     * Returns the dealer's face up card
+     * @return the dealer's face up card
+     * 
+     * Precondition: getNumHands() > 0
+     */
+    public Card getDealersUpCard()
+    {
+        validateInitialBet();
+        
+        return dealersHand.firstCard();
     }
     
     /**
@@ -244,6 +496,21 @@ public class Blackjack
     			return new Hand(dealersHand.firstCard());
     }
     
+    /**
+     * Returns a read-only view of the face up portion of the dealer's hand
+     * without copying it. The view shows only the face up card until the
+     * dealer has played, reflects later changes and is reused in later rounds.
+     * @return a view of the face up portion of the dealer's hand
+     * 
+     * Precondition: getNumHands() > 0
+     */
+    public ReadOnlyHand getFaceUpDealersHandView()
+    {
+        validateInitialBet();
+        
+        return faceUpDealersHand;
+    }
+    
     private void validateCurrentHand()
     {
         if( ! (getCurrentHand() >= 0) )
@@ -262,7 +529,41 @@ public class Blackjack
         validateInitialBet();
         validateCurrentHand();
         
+        standCurrentHand();
+    }
+    
+    /**
+     * Returns the time an action starts or NOT_TIMED if the action is not sampled
+     * @return the start time or NOT_TIMED
+     */
+    private long startTimingAction()
+    {
+        if(metrics == null || ! metrics.isSampled(++actionsTimed))
+            return NOT_TIMED;
+        
+        return System.nanoTime();
+    }
+    
+    private void finishTimingAction(long start)
+    {
+        if(start != NOT_TIMED)
+            metrics.recordActionLatency(System.nanoTime() - start);
+    }
+    
+    private void standCurrentHand()
+    {
+        long start = startTimingAction();
+        
+        if(listener != null)
+            listener.stood(currentHand);
+        
         advanceToNextHandWithDecision();
+        
+        if(metrics != null)
+        {
+            metrics.recordStand();
+            finishTimingAction(start);
+        }
     }
     
     /**
@@ -276,9 +577,14 @@ public class Blackjack
         validateInitialBet();
         validateCurrentHand();
         
-    		HandAndBet playersHand = playersHands.get(currentHand);
+        return hitAllowed();
+    }
+    
+    private boolean hitAllowed()
+    {
+    		HandAndBet playersHand = playersHands[currentHand];
     		
-    		if(getNumHands() > 1 && playersHand.getHand().getCards().get(0).getValue() == 1)
+    		if(numHands > 1 && playersHand.getHandView().getCard(0).getValue() == 1)
     		    return false; // cannot hit split access
     		
     		return ! this.dealersHand.isBlackjack() && playersHand.canHit();
@@ -294,11 +600,28 @@ public class Blackjack
         if( ! canHit() )
             throw new IllegalStateException("player cannot hit this hand");
         
-        HandAndBet playersHand = playersHands.get(currentHand);
-        playersHand.hit(shoe.dealCard());
+        hitCurrentHand();
+    }
+    
+    private void hitCurrentHand()
+    {
+        long start = startTimingAction();
+        
+        HandAndBet playersHand = playersHands[currentHand];
+        Card card = shoe.dealCard();
+        playersHand.hit(card);
+        
+        if(listener != null)
+            listener.hit(currentHand, card);
         
         if( ! decisionIsRequiredForCurrentHand() )
             advanceToNextHandWithDecision();
+        
+        if(metrics != null)
+        {
+            metrics.recordHit();
+            finishTimingAction(start);
+        }
     }
     
     /**
@@ -312,8 +635,13 @@ public class Blackjack
         validateInitialBet();
         validateCurrentHand();
         
-        HandAndBet playersHand = playersHands.get(currentHand);
-        return ! this.dealersHand.isBlackjack() && playersHand.canSplit() && getNumHands() < MAX_HANDS;
+        return splitAllowed();
+    }
+    
+    private boolean splitAllowed()
+    {
+        HandAndBet playersHand = playersHands[currentHand];
+        return ! this.dealersHand.isBlackjack() && playersHand.canSplit() && numHands < MAX_HANDS;
     }
     
     /**
@@ -326,18 +654,37 @@ public class Blackjack
         if( ! canSplit() )
             throw new IllegalStateException("player cannot split this hand");
         
-        HandAndBet playersHand = playersHands.get(currentHand);
+        splitCurrentHand();
+    }
+    
+    private void splitCurrentHand()
+    {
+        long start = startTimingAction();
+        
+        HandAndBet playersHand = playersHands[currentHand];
         
-        this.playersMoney -= getTotalBet(currentHand);
+        this.playersMoney -= playersHand.getTotalBet();
         
-        HandAndBet newHand = playersHand.split();
-        playersHands.add(newHand);
+        HandAndBet newHand = playersHands[numHands];
+        playersHand.splitInto(newHand);
+        numHands++;
         
-        playersHand.hit(shoe.dealCard());
-        newHand.hit(shoe.dealCard());
+        Card card = shoe.dealCard();
+        Card newHandCard = shoe.dealCard();
+        playersHand.hit(card);
+        newHand.hit(newHandCard);
+        
+        if(listener != null)
+            listener.split(currentHand, card, newHandCard);
         
         if( ! decisionIsRequiredForCurrentHand() )
             advanceToNextHandWithDecision();
+        
+        if(metrics != null)
+        {
+            metrics.recordSplit();
+            finishTimingAction(start);
+        }
     }
     
     /**
@@ -351,8 +698,12 @@ public class Blackjack
         validateInitialBet();
         validateCurrentHand();
         
-        HandAndBet playersHand = playersHands.get(currentHand);
-        return canHit() && playersHand.canDoubleDown();
+        return doubleDownAllowed();
+    }
+    
+    private boolean doubleDownAllowed()
+    {
+        return hitAllowed() && playersHands[currentHand].canDoubleDown();
     }
     
     /**
@@ -368,12 +719,29 @@ public class Blackjack
         if( ! (0 < additionalBet && additionalBet <= getTotalBet(getCurrentHand())) )
             throw new IllegalArgumentException("additionalBet must be > 0 and <= getBet(getCurrentHand())");
         
+        doubleDownCurrentHand(additionalBet);
+    }
+    
+    private void doubleDownCurrentHand(double additionalBet)
+    {
+        long start = startTimingAction();
+        
         playersMoney -= additionalBet;
         
-        HandAndBet playersHand = playersHands.get(currentHand);
-        playersHand.doubleDown(additionalBet, shoe.dealCard());
+        HandAndBet playersHand = playersHands[currentHand];
+        Card card = shoe.dealCard();
+        playersHand.doubleDown(additionalBet, card);
+        
+        if(listener != null)
+            listener.doubledDown(currentHand, additionalBet, card);
         
         advanceToNextHandWithDecision();
+        
+        if(metrics != null)
+        {
+            metrics.recordDouble();
+            finishTimingAction(start);
+        }
     }
     
     /**
@@ -394,22 +762,40 @@ public class Blackjack
         if(getCurrentHand() != -1)
             throw new IllegalStateException("player must make all decisions before dealer plays hand");
         
+        playDealer();
+    }
+    
+    private void playDealer()
+    {
+        if(dealerPlayed)
+            return;
+        
 		boolean playerHasViableHand = false;
-		for(int i = 0; i < playersHands.size(); i++)
-			if(playersHands.get(i).getHand().getValue() <= 21)
+		for(int i = 0; i < numHands; i++)
+			if(playersHands[i].getValue() <= 21)
 				playerHasViableHand = true;
 		
-		if( playerHasViableHand && ! (getNumHands() == 1 && playersHands.get(0).getHand().isBlackjack()) )
+		if( playerHasViableHand && ! (getNumHands() == 1 && playersHands[0].getHandView().isBlackjack()) )
             while(this.dealersHand.getValue() < 17)
-                this.dealersHand.addCard(shoe.dealCard());
+            {
+                Card card = shoe.dealCard();
+                this.dealersHand.addCard(card);
+                
+                if(listener != null)
+                    listener.dealerDrew(card);
+            }
+        
+        if(metrics != null && this.dealersHand.getValue() > 21)
+            metrics.recordDealerBust();
         
         this.dealerPlayed = true;
+        faceUpDealersHand.reveal();
     }
     
     private void validateDealerHasPlayedHand()
     {
-        Hand dealersFaceUpHand = getFaceUpDealersHand();
-        if(dealersFaceUpHand == null || ! (getFaceUpDealersHand().getNumCards() > 1) )
+        validateInitialBet();
+        if( ! dealerPlayed )
             throw new IllegalStateException("must play dealer's hand first");
     }
     
@@ -427,8 +813,8 @@ public class Blackjack
         validateInitialBetAndIndex(index);
     		validateDealerHasPlayedHand();
     		
-    		HandAndBet playersHand = playersHands.get(index);
-        int playersHandValue = playersHand.getHand().getValue();
+    		HandAndBet playersHand = playersHands[index];
+        int playersHandValue = playersHand.getValue();
         return playersHandValue <= 21 && playersHandValue == this.dealersHand.getValue();
     }
     
@@ -446,8 +832,8 @@ public class Blackjack
         validateInitialBetAndIndex(index);
         validateDealerHasPlayedHand();
         
-        HandAndBet playersHand = playersHands.get(index);
-        int playersHandValue = playersHand.getHand().getValue();
+        HandAndBet playersHand = playersHands[index];
+        int playersHandValue = playersHand.getValue();
         int dealersHandValue = this.dealersHand.getValue();
         return playersHandValue <= 21 &&
                 (dealersHandValue > 21 || playersHandValue > dealersHandValue);
@@ -464,8 +850,8 @@ public class Blackjack
         if( ! isPlayerWin(0) )
             throw new IllegalStateException("player must have won initial hand to check for blackjack");
         
-        HandAndBet playersHand = playersHands.get(0);
-        return getNumHands() == 1 && playersHand.getHand().isBlackjack();
+        HandAndBet playersHand = playersHands[0];
+        return getNumHands() == 1 && playersHand.getHandView().isBlackjack();
     }
     
     /**
@@ -478,19 +864,195 @@ public class Blackjack
     {
         validateDealerHasPlayedHand();
         
-        for(int index = 0; index < playersHands.size(); index++)
+        settleAndReset();
+    }
+    
+    /**
+     * Pays the player's winning and pushed hands and resets for another round
+     * @return true if the player was paid for a blackjack
+     */
+    private boolean settleAndReset()
+    {
+        double moneyBeforePayout = playersMoney;
+        int dealersHandValue = dealersHand.getValue();
+        boolean blackjack = false;
+        
+        for(int index = 0; index < numHands; index++)
+        {
+            HandAndBet playersHand = playersHands[index];
+            int playersHandValue = playersHand.getValue();
+            if(playersHandValue > 21)
+                continue;
+            
+            if(playersHandValue == dealersHandValue)
+                this.playersMoney += playersHand.getTotalBet();
+            else if(dealersHandValue > 21 || playersHandValue > dealersHandValue)
+            {
+                this.playersMoney += 2 * playersHand.getTotalBet();
+                if(numHands == 1 && playersHand.getHandView().isBlackjack())
+                {
+                    this.playersMoney += playersHand.getTotalBet() / 2;
+                    blackjack = true;
+                }
+            }
+        }
+        
+        if(listener != null)
+            listener.roundSettled(playersMoney - moneyBeforePayout, playersMoney);
+        
+        if(metrics != null || tableMetrics != null)
         {
-            if(isPush(index))
-                this.playersMoney += getTotalBet(index);
-            else if(isPlayerWin(index))
+            double wagered = 0;
+            for(int index = 0; index < numHands; index++)
+                wagered += playersHands[index].getTotalBet();
+            
+            double net = playersMoney - roundStartMoney;
+            if(tableMetrics != null)
+                tableMetrics.recordRound(wagered, net);
+            
+            if(metrics != null)
             {
-                this.playersMoney += 2 * getTotalBet(index);
-                if(index == 0 && isPlayerBlackjack())
-                    this.playersMoney += getTotalBet(index) / 2;
+                metrics.recordRound(wagered, net);
+                if(roundStartNanos != NOT_TIMED)
+                    metrics.recordRoundLatency(System.nanoTime() - roundStartNanos);
             }
         }
         
         reset();
+        return blackjack;
+    }
+    
+    /**
+     * Plays the specified number of complete rounds, betting the same amount
+     * every round, and returns their aggregated results.
+     * See playRounds(long, PlayerStrategy, BetPolicy).
+     * @param rounds the number of rounds to play
+     * @param strategy the player's strategy
+     * @param bet the initial bet of every round
+     * @return the results of the rounds, in units of the initial bet
+     * 
+     * Precondition: getNumHands() == 0 && rounds >= 0 && bet > 0
+     */
+    public RoundStatistics playRounds(long rounds, PlayerStrategy strategy, double bet)
+    {
+        if( ! (bet > 0) )
+            throw new IllegalArgumentException("bet must be greater than 0");
+        
+        return playRounds(rounds, strategy, new FlatBet(bet));
+    }
+    
+    /**
+     * Plays the specified number of complete rounds and returns their aggregated
+     * results. Every round the bet policy chooses the initial bet, the strategy
+     * makes every decision and the dealer plays and the bets are resolved.
+     * 
+     * The strategy's actions are applied without the precondition checks made
+     * by hit, stand, split and doubleDown, so the strategy must only return
+     * legal actions. Doubles are for the hand's total bet.
+     * @param rounds the number of rounds to play
+     * @param strategy the player's strategy
+     * @param betPolicy chooses the initial bet of each round
+     * @return the results of the rounds, in units of each round's initial bet
+     * 
+     * Precondition: getNumHands() == 0 && rounds >= 0
+     */
+    public RoundStatistics playRounds(long rounds, PlayerStrategy strategy, BetPolicy betPolicy)
+    {
+        if(getNumHands() != 0)
+            throw new IllegalStateException("rounds can only be played between rounds");
+        
+        if(rounds < 0)
+            throw new IllegalArgumentException("rounds must be >= 0");
+        
+        RoundStatistics stats = new RoundStatistics();
+        
+        for(long round = 0; round < rounds; round++)
+        {
+            double bet = betPolicy.nextBet(this);
+            if( ! (bet > 0) )
+                throw new IllegalStateException("bet policy must return a bet greater than 0");
+            
+            play(strategy, bet, stats);
+        }
+        
+        return stats;
+    }
+    
+    /**
+     * Plays one complete round the way playRounds does, without the
+     * precondition checks on the strategy's actions, and records it.
+     * @param strategy the player's strategy
+     * @param bet the initial bet
+     * @param stats the statistics to record the round in
+     * @return the player's net result of the round
+     * 
+     * Precondition: getNumHands() == 0 && bet > 0
+     */
+    public double playRound(PlayerStrategy strategy, double bet, RoundStatistics stats)
+    {
+        if(getNumHands() != 0)
+            throw new IllegalStateException("rounds can only be played between rounds");
+        
+        if( ! (bet > 0) )
+            throw new IllegalArgumentException("bet must be greater than 0");
+        
+        return play(strategy, bet, stats);
+    }
+    
+    private double play(PlayerStrategy strategy, double bet, RoundStatistics stats)
+    {
+        double moneyBefore = playersMoney;
+        deal(bet);
+        
+        while(currentHand >= 0)
+        {
+            switch(strategy.chooseAction(this))
+            {
+                case HIT:
+                    hitCurrentHand();
+                    break;
+                
+                case DOUBLE_DOWN:
+                    doubleDownCurrentHand(playersHands[currentHand].getTotalBet());
+                    stats.recordDouble();
+                    break;
+                
+                case SPLIT:
+                    splitCurrentHand();
+                    stats.recordSplit();
+                    break;
+                
+                default:
+                    standCurrentHand();
+            }
+        }
+        
+        playDealer();
+        
+        for(int index = 0; index < numHands; index++)
+            if(playersHands[index].getValue() > 21)
+                stats.recordBust();
+        
+        boolean blackjack = settleAndReset();
+        
+        double net = playersMoney - moneyBefore;
+        stats.recordRound(net / bet, blackjack);
+        return net;
+    }
+    
+    private static class FlatBet implements BetPolicy
+    {
+        private final double bet;
+        
+        FlatBet(double bet)
+        {
+            this.bet = bet;
+        }
+        
+        public double nextBet(Blackjack game)
+        {
+            return bet;
+        }
     }
     
     // TODO: add late surrender
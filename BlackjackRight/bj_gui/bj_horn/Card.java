@@ -5,7 +5,27 @@ package bj_horn;
  */
 public class Card
 {
+    /**
+     * The suits in the order used by getSuitIndex()
+     */
+    public static final String[] SUITS = {"D", "H", "S", "C"};
+    
+    /**
+     * The number of card codes (see getCode())
+     */
+    public static final int NUM_CODES = 52;
+    
+    // the card with each code, shared by fromCode
+    private static final Card[] CARDS = new Card[NUM_CODES];
+    static
+    {
+        for(int value = 1; value <= 13; value++)
+            for(int suit = 0; suit < SUITS.length; suit++)
+                CARDS[code(value, suit)] = new Card(SUITS[suit], value);
+    }
+    
     private String suit;
+    private int suitIndex;
     private int value;
     
     /**
@@ -25,6 +45,10 @@ public class Card
         
         this.suit = suit;
         this.value = value;
+        
+        for(int i = 0; i < SUITS.length; i++)
+            if(SUITS[i].equals(suit))
+                suitIndex = i;
     }
     
     /**
@@ -36,6 +60,15 @@ public class Card
         return suit;
     }
     
+    /**
+     * Returns the index of this card's suit in SUITS (0 - 3 for "D", "H", "S", "C")
+     * @return the index of this card's suit
+     */
+    public int getSuitIndex()
+    {
+        return suitIndex;
+    }
+    
     /**
      * Return this card's value (1 - 13 corresponding to Ace, 2 - 10, Jack, Queen, King)
      * @return this card's value
@@ -45,6 +78,43 @@ public class Card
         return value;
     }
     
+    /**
+     * Returns this card's code, (value - 1) * 4 + suit index (0 - 51),
+     * which identifies the card by value and suit in one byte
+     * @return this card's code
+     */
+    public int getCode()
+    {
+        return code(value, suitIndex);
+    }
+    
+    /**
+     * Returns the code of the card with the specified value and suit
+     * @param value 1 - 13 corresponding to Ace, 2 - 10, Jack, Queen, King
+     * @param suitIndex the index of the suit in SUITS
+     * @return the card's code (0 - 51)
+     */
+    public static int code(int value, int suitIndex)
+    {
+        return (value - 1) * 4 + suitIndex;
+    }
+    
+    /**
+     * Returns the card with the specified code. The card is shared, which
+     * is safe because cards are never modified.
+     * @param code the card's code (see getCode())
+     * @return the card
+     * 
+     * Precondition: 0 <= code && code < NUM_CODES
+     */
+    public static Card fromCode(int code)
+    {
+        if( ! (0 <= code && code < NUM_CODES) )
+            throw new IllegalArgumentException("card code must be 0 - 51");
+        
+        return CARDS[code];
+    }
+    
     /**
      * Returns this card with the 1 or 2 character value (A, 2-10, J, Q, K)
      * followed by the 1 character suit (D, H, S, C)
@@ -0,0 +1,59 @@
+package bj_horn;
+
+/**
+ * A card counting system: the tag added to the running count
+ * when each card is dealt.
+ */
+public enum CountingSystem
+{
+    //     A   2  3  4  5  6  7  8  9  10 J  Q  K
+    HI_LO(-1,  1, 1, 1, 1, 1, 0, 0, 0, -1,-1,-1,-1),
+    KO(   -1,  1, 1, 1, 1, 1, 1, 0, 0, -1,-1,-1,-1),
+    OMEGA_II(0, 1, 1, 2, 2, 2, 1, 0,-1, -2,-2,-2,-2);
+
+    private final int[] tags;
+    private final int deckTotal;
+
+    private CountingSystem(int... tags)
+    {
+        this.tags = new int[14];
+
+        int total = 0;
+        for(int value = 1; value <= 13; value++)
+        {
+            this.tags[value] = tags[value - 1];
+            total += 4 * tags[value - 1];
+        }
+        deckTotal = total;
+    }
+
+    /**
+     * Returns the tag for a card with the specified value
+     * @param value the card's value (1 - 13)
+     * @return the tag for the card
+     */
+    public int tag(int value)
+    {
+        return tags[value];
+    }
+
+    /**
+     * Returns true if the tags of a full deck add up to 0, false otherwise
+     * @return true if this system is balanced
+     */
+    public boolean isBalanced()
+    {
+        return deckTotal == 0;
+    }
+
+    /**
+     * Returns the running count at the start of a shoe. Unbalanced systems
+     * start below 0 so that the count ends near 0 (4 - 4 * decks for KO).
+     * @param decks the number of decks in the shoe
+     * @return the initial running count
+     */
+    public int initialRunningCount(int decks)
+    {
+        return deckTotal - deckTotal * decks;
+    }
+}
@@ -0,0 +1,85 @@
+package bj_horn;
+
+/**
+ * A read-only view of the dealer's hand as seen by the player:
+ * only the first card until the hand is revealed
+ */
+class FaceUpHand implements ReadOnlyHand
+{
+    private final Hand hand;
+    private boolean revealed;
+
+    /**
+     * Constructs a view of the specified hand that shows only its first card
+     * @param hand the dealer's hand
+     */
+    FaceUpHand(Hand hand)
+    {
+        this.hand = hand;
+    }
+
+    /**
+     * Shows every card of the hand
+     */
+    void reveal()
+    {
+        revealed = true;
+    }
+
+    /**
+     * Returns true if every card of the hand is shown
+     * @return true if the hand has been revealed
+     */
+    boolean isRevealed()
+    {
+        return revealed;
+    }
+
+    /**
+     * Shows only the first card of the hand
+     */
+    void hide()
+    {
+        revealed = false;
+    }
+
+    public int getValue()
+    {
+        if(revealed || hand.getNumCards() == 0)
+            return hand.getValue();
+
+        int value = Math.min(hand.firstCard().getValue(), 10);
+        return value == 1 ? 11 : value;
+    }
+
+    public boolean isSoft()
+    {
+        if(revealed || hand.getNumCards() == 0)
+            return hand.isSoft();
+
+        return hand.firstCard().getValue() == 1;
+    }
+
+    public boolean isBlackjack()
+    {
+        return revealed && hand.isBlackjack();
+    }
+
+    public int getNumCards()
+    {
+        return revealed ? hand.getNumCards() : Math.min(hand.getNumCards(), 1);
+    }
+
+    public Card getCard(int index)
+    {
+        if( ! (0 <= index && index < getNumCards()) )
+            throw new IndexOutOfBoundsException("index must be: >= 0 and < getNumCards()");
+
+        return hand.getCard(index);
+    }
+
+    public String toString()
+    {
+        return new Hand(this).toString();
+    }
+}
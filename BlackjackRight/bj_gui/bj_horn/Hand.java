@@ -5,9 +5,17 @@ import java.util.ArrayList;
 /**
  * Represents all or part player's or dealer's blackjack hand
  */
-public class Hand
+public class Hand implements ReadOnlyHand
 {
     private ArrayList<Card> cards;
+    private ReadOnlyHand view;
+    
+    /*
+     * Updated as each card is added so the value of this hand
+     * can be read without scanning the cards.
+     */
+    private int hardValue;
+    private int aces;
 
     /**
      * Constructs a hand containing no cards
@@ -25,8 +33,8 @@ public class Hand
     public Hand(Card card1, Card card2)
     {
         cards = new ArrayList<Card>();
-        cards.add(card1);
-        cards.add(card2);
+        addCard(card1);
+        addCard(card2);
     }
 
     /**
@@ -36,6 +44,19 @@ public class Hand
     public Hand(Hand other)
     {
         this.cards = new ArrayList<Card>(other.cards);
+        this.hardValue = other.hardValue;
+        this.aces = other.aces;
+    }
+
+    /**
+     * Constructs a hand that is a duplicate of the specified hand or view
+     * @param other the hand to duplicate
+     */
+    public Hand(ReadOnlyHand other)
+    {
+        cards = new ArrayList<Card>(other.getNumCards());
+        for(int i = 0; i < other.getNumCards(); i++)
+            addCard(other.getCard(i));
     }
 
     /**
@@ -45,7 +66,7 @@ public class Hand
     public Hand(Card card)
     {
         cards = new ArrayList<Card>();
-        cards.add(card);
+        addCard(card);
     }
 
     /**
@@ -54,23 +75,19 @@ public class Hand
      */
     public int getValue()
     {
-        boolean containsAce = false;
-        int value = 0;
-        for (Card card : cards)
-        {
-            int cardValue = card.getValue();
-            if(cardValue > 10)
-                cardValue = 10;
+        if (isSoft())
+            return hardValue + 10;
             
-            value += cardValue;
-            if (cardValue == 1)
-                containsAce = true;
-        }
-
-        if (containsAce && value + 10 <= 21)
-            value += 10;
+        return hardValue;
+    }
 
-        return value;
+    /**
+     * Returns true if this hand contains an ace that is counted as 11, false otherwise
+     * @return true if this hand is soft, false otherwise
+     */
+    public boolean isSoft()
+    {
+        return aces > 0 && hardValue + 10 <= 21;
     }
 
     /**
@@ -91,6 +108,51 @@ public class Hand
         return new ArrayList<Card>(cards);
     }
     
+    /**
+     * Returns a read-only view of this hand. The view reflects later changes
+     * to this hand and the same view is returned by every call.
+     * @return a read-only view of this hand
+     */
+    public ReadOnlyHand view()
+    {
+        if(view == null)
+        {
+            view = new ReadOnlyHand()
+            {
+                public int getValue()
+                {
+                    return Hand.this.getValue();
+                }
+
+                public boolean isSoft()
+                {
+                    return Hand.this.isSoft();
+                }
+
+                public boolean isBlackjack()
+                {
+                    return Hand.this.isBlackjack();
+                }
+
+                public int getNumCards()
+                {
+                    return Hand.this.getNumCards();
+                }
+
+                public Card getCard(int index)
+                {
+                    return Hand.this.getCard(index);
+                }
+
+                public String toString()
+                {
+                    return Hand.this.toString();
+                }
+            };
+        }
+        return view;
+    }
+    
     /**
      * Returns the cards in this hand followed by their numerical value
      * Ex: JS AH (21)
@@ -113,6 +175,27 @@ public class Hand
         return cards.get(0);
     }
 
+    /**
+     * Returns the card at the specified position in this hand
+     * @param index the position of the card (0 is the first card)
+     * @return the card at index
+     * Precondition: 0 <= index && index < getNumCards()
+     */
+    public Card getCard(int index)
+    {
+        return cards.get(index);
+    }
+
+    /**
+     * Removes all cards from this hand so it can be reused
+     */
+    void clear()
+    {
+        cards.clear();
+        hardValue = 0;
+        aces = 0;
+    }
+
     /**
      * Adds the specified card to this hand
      * @param card the card to add
@@ -120,6 +203,14 @@ public class Hand
     public void addCard(Card card)
     {
         cards.add(card);
+        
+        int cardValue = card.getValue();
+        if(cardValue > 10)
+            cardValue = 10;
+        
+        hardValue += cardValue;
+        if (cardValue == 1)
+            aces++;
     }
 
     /**
@@ -1,7 +1,5 @@
 package bj_horn;
 
-import java.util.ArrayList;
-
 /**
  * Represents a single player's hand and associated bet
  */
@@ -58,6 +56,34 @@ public class HandAndBet
         return new Hand(hand);
     }
     
+    /**
+     * Returns a read-only view of the hand associated with this hand and bet.
+     * The view reflects later changes to the hand.
+     * @return a read-only view of the hand
+     */
+    public ReadOnlyHand getHandView()
+    {
+        return hand.view();
+    }
+    
+    /**
+     * Returns the numerical value of this hand without copying it
+     * @return the numerical value of this hand
+     */
+    public int getValue()
+    {
+        return hand.getValue();
+    }
+    
+    /**
+     * Returns true if this hand contains an ace that is counted as 11, false otherwise
+     * @return true if this hand is soft, false otherwise
+     */
+    public boolean isSoft()
+    {
+        return hand.isSoft();
+    }
+    
     /**
      * Returns true if the player can double down on this hand, false otherwise
      * Note that this class does not enforce restrictions against double after
@@ -98,10 +124,10 @@ public class HandAndBet
         if(hand.getNumCards() != 2 || additionalBet != 0)
             return false;
         
-        ArrayList<Card> cards = hand.getCards();
+        int value1 = hand.getCard(0).getValue();
+        int value2 = hand.getCard(1).getValue();
         
-        return cards.get(0).getValue() == cards.get(1).getValue() ||
-        		(cards.get(0).getValue() >= 10 && cards.get(1).getValue() >= 10);
+        return value1 == value2 || (value1 >= 10 && value2 >= 10);
     }
     
     /**
@@ -115,15 +141,43 @@ public class HandAndBet
         if( ! canSplit() )
             throw new IllegalStateException("cannot split this hand");
         
-        ArrayList<Card> cards = hand.getCards();
-        
-        hand = new Hand(cards.get(0));
-        
         HandAndBet newHand = new HandAndBet(bet);
-        newHand.hit(cards.get(1));
+        splitInto(newHand);
         return newHand;
     }
     
+    /**
+     * Splits this hand into other, a hand being reused, instead of
+     * creating a new hand. other receives the second card and the same bet.
+     * @param other the hand to receive the second card
+     * Precondition: canSplit()
+     */
+    void splitInto(HandAndBet other)
+    {
+        if( ! canSplit() )
+            throw new IllegalStateException("cannot split this hand");
+        
+        Card first = hand.getCard(0);
+        Card second = hand.getCard(1);
+        
+        hand.clear();
+        hand.addCard(first);
+        
+        other.reset(bet);
+        other.hit(second);
+    }
+    
+    /**
+     * Empties this hand and sets a new initial bet so the object can be reused
+     * @param bet the initial bet
+     */
+    void reset(double bet)
+    {
+        this.bet = bet;
+        hand.clear();
+        additionalBet = 0;
+    }
+    
     /**
      * Returns true if this hand can accept another card, false otherwise
      * Note: This class does not enforce restrictions against hitting split aces
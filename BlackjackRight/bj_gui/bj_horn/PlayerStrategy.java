@@ -0,0 +1,19 @@
+package bj_horn;
+
+/**
+ * Chooses the player's decisions during a round of blackjack.
+ * Implementations used by the simulator are shared by several tables
+ * so they must be safe for use by multiple threads.
+ */
+public interface PlayerStrategy
+{
+    /**
+     * Returns the action to take for the game's current hand.
+     * The returned action must be legal (ex: SPLIT only if game.canSplit()).
+     * @param game the game for which a decision is required
+     * @return the action to take
+     *
+     * Precondition: game.getNumHands() > 0 && game.getCurrentHand() >= 0
+     */
+    Action chooseAction(Blackjack game);
+}
@@ -0,0 +1,41 @@
+package bj_horn;
+
+/**
+ * The read-only operations of a Hand. Views returned by Blackjack and Table
+ * reflect the live hand (they change as cards are dealt and are reused from
+ * round to round), so callers that need to keep a hand must copy it.
+ */
+public interface ReadOnlyHand
+{
+    /**
+     * Returns the numerical value of this hand according to the rules of blackjack
+     * @return the numerical value of this hand
+     */
+    int getValue();
+
+    /**
+     * Returns true if this hand contains an ace that is counted as 11, false otherwise
+     * @return true if this hand is soft, false otherwise
+     */
+    boolean isSoft();
+
+    /**
+     * Returns true if this hand is a blackjack, false otherwise
+     * @return true if this hand is a blackjack, false otherwise
+     */
+    boolean isBlackjack();
+
+    /**
+     * Returns the number of cards in this hand
+     * @return the number of cards in this hand
+     */
+    int getNumCards();
+
+    /**
+     * Returns the card at the specified position in this hand
+     * @param index the position of the card (0 is the first card)
+     * @return the card at index
+     * Precondition: 0 <= index && index < getNumCards()
+     */
+    Card getCard(int index);
+}
@@ -0,0 +1,63 @@
+package bj_horn;
+
+/**
+ * Receives every event of every round played by a Blackjack game, in the
+ * order the events happen. Every card dealt from the shoe during a round is
+ * passed to exactly one event.
+ */
+public interface RoundListener
+{
+    /**
+     * Called when the initial bet is placed and the cards are dealt
+     * @param money the player's money before the bet
+     * @param bet the initial bet
+     * @param playerCard1 the player's first card
+     * @param dealerUpCard the dealer's face up card
+     * @param playerCard2 the player's second card
+     * @param dealerHoleCard the dealer's face down card
+     */
+    void roundStarted(double money, double bet, Card playerCard1, Card dealerUpCard,
+            Card playerCard2, Card dealerHoleCard);
+
+    /**
+     * Called when the player hits
+     * @param hand the index of the hand
+     * @param card the card dealt to the hand
+     */
+    void hit(int hand, Card card);
+
+    /**
+     * Called when the player stands
+     * @param hand the index of the hand
+     */
+    void stood(int hand);
+
+    /**
+     * Called when the player doubles down
+     * @param hand the index of the hand
+     * @param additionalBet the additional bet
+     * @param card the card dealt to the hand
+     */
+    void doubledDown(int hand, double additionalBet, Card card);
+
+    /**
+     * Called when the player splits
+     * @param hand the index of the hand that was split
+     * @param card the card dealt to the hand that was split
+     * @param newHandCard the card dealt to the new hand (index getNumHands() - 1)
+     */
+    void split(int hand, Card card, Card newHandCard);
+
+    /**
+     * Called when the dealer draws a card after the player's decisions
+     * @param card the card drawn
+     */
+    void dealerDrew(Card card);
+
+    /**
+     * Called when the player's bets are resolved
+     * @param payout the amount returned to the player (0 if every hand lost)
+     * @param money the player's money after the payout
+     */
+    void roundSettled(double payout, double money);
+}
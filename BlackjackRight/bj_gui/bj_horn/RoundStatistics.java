@@ -0,0 +1,221 @@
+package bj_horn;
+
+/**
+ * Accumulates the results of many rounds of blackjack. The result of
+ * each round is measured in units of the initial bet so rounds with
+ * different bets can be combined.
+ */
+public class RoundStatistics
+{
+    private long rounds;
+    private long wins, pushes, losses, blackjacks;
+    private long doubles, splits, busts;
+
+    private double netUnits;
+    private double sumOfSquares;
+
+    /**
+     * Records the result of a round
+     * @param netUnits the player's net result divided by the initial bet
+     * @param blackjack true if the player was paid for a blackjack
+     */
+    public void recordRound(double netUnits, boolean blackjack)
+    {
+        rounds++;
+
+        if(netUnits > 0)
+            wins++;
+        else if(netUnits == 0)
+            pushes++;
+        else
+            losses++;
+
+        if(blackjack)
+            blackjacks++;
+
+        this.netUnits += netUnits;
+        this.sumOfSquares += netUnits * netUnits;
+    }
+
+    /**
+     * Records that the player doubled down on a hand
+     */
+    public void recordDouble()
+    {
+        doubles++;
+    }
+
+    /**
+     * Records that the player split a hand
+     */
+    public void recordSplit()
+    {
+        splits++;
+    }
+
+    /**
+     * Records that one of the player's hands busted
+     */
+    public void recordBust()
+    {
+        busts++;
+    }
+
+    /**
+     * Adds the results recorded by other to these results
+     * @param other the results to add
+     */
+    public void merge(RoundStatistics other)
+    {
+        rounds += other.rounds;
+        wins += other.wins;
+        pushes += other.pushes;
+        losses += other.losses;
+        blackjacks += other.blackjacks;
+        doubles += other.doubles;
+        splits += other.splits;
+        busts += other.busts;
+        netUnits += other.netUnits;
+        sumOfSquares += other.sumOfSquares;
+    }
+
+    /**
+     * Returns the number of rounds recorded
+     * @return the number of rounds
+     */
+    public long getRounds()
+    {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of rounds with a positive net result
+     * @return the number of rounds won
+     */
+    public long getWins()
+    {
+        return wins;
+    }
+
+    /**
+     * Returns the number of rounds with a net result of 0
+     * @return the number of rounds pushed
+     */
+    public long getPushes()
+    {
+        return pushes;
+    }
+
+    /**
+     * Returns the number of rounds with a negative net result
+     * @return the number of rounds lost
+     */
+    public long getLosses()
+    {
+        return losses;
+    }
+
+    /**
+     * Returns the number of rounds in which the player was paid for a blackjack
+     * @return the number of blackjacks
+     */
+    public long getBlackjacks()
+    {
+        return blackjacks;
+    }
+
+    /**
+     * Returns the number of hands the player doubled down on
+     * @return the number of doubles
+     */
+    public long getDoubles()
+    {
+        return doubles;
+    }
+
+    /**
+     * Returns the number of times the player split a hand
+     * @return the number of splits
+     */
+    public long getSplits()
+    {
+        return splits;
+    }
+
+    /**
+     * Returns the number of player hands that busted
+     * @return the number of busts
+     */
+    public long getBusts()
+    {
+        return busts;
+    }
+
+    /**
+     * Returns the sum of the net results of all rounds in units of the initial bet
+     * @return the total net units
+     */
+    public double getNetUnits()
+    {
+        return netUnits;
+    }
+
+    /**
+     * Returns the sum of the squared net results of all rounds
+     * @return the sum of squares
+     */
+    public double getSumOfSquares()
+    {
+        return sumOfSquares;
+    }
+
+    /**
+     * Returns the expected value per round in units of the initial bet
+     * @return the expected value per initial unit (0 if no rounds were recorded)
+     */
+    public double getExpectedValue()
+    {
+        if(rounds == 0)
+            return 0;
+
+        return netUnits / rounds;
+    }
+
+    /**
+     * Returns the variance of the net result of a round
+     * @return the variance per round (0 if fewer than 2 rounds were recorded)
+     */
+    public double getVariance()
+    {
+        if(rounds < 2)
+            return 0;
+
+        double mean = getExpectedValue();
+        return (sumOfSquares - rounds * mean * mean) / (rounds - 1);
+    }
+
+    /**
+     * Returns the standard error of getExpectedValue()
+     * @return the standard error of the expected value
+     */
+    public double getStandardError()
+    {
+        if(rounds == 0)
+            return 0;
+
+        return Math.sqrt(getVariance() / rounds);
+    }
+
+    /**
+     * Returns count as a fraction of the rounds recorded
+     * @param count a count of rounds or hands (ex: getWins())
+     * @return count / getRounds() or 0 if no rounds were recorded
+     */
+    public double frequency(long count)
+    {
+        if(rounds == 0)
+            return 0;
+
+        return (double) count / rounds;
+    }
+}
@@ -1,27 +1,102 @@
 package bj_horn;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.SplittableRandom;
+
+import shuffle.FisherYatesShuffle;
+import shuffle.ShuffleStrategy;
 
 /**
  * A multi-deck shoe that can deal cards and can be reset.
+ * Each shoe shuffles with its own random number generator, created from
+ * a seed that is recorded so the sequence of shuffles can be reproduced.
+ * The shoe keeps a running count of the cards dealt since the last reset.
  *
+ * The cards are kept in one array of card codes (see Card.getCode()):
+ * cards[0] up to but excluding size are left in the shoe (the last of them
+ * is dealt next) and the cards dealt since the last reset or return follow
+ * them, most recently dealt first. Cards are never modified, so every code
+ * is dealt as the same shared Card.
  */
 public class Shoe
 {
     private final int decks;
-    private ArrayList<Card> cards;
+    private final long seed;
+    private final SplittableRandom random;
+    private final int[] cards;
+    private int size;
+    private ShuffleStrategy shuffleStrategy;
+    
+    private CountingSystem countingSystem = CountingSystem.HI_LO;
+    private int runningCount;
     
     /**
-     * Constructs a shoe with the specified number of decks.
+     * Constructs a shoe with the specified number of decks and a random seed.
      * This shoe will be shuffled.
      * @param decks the number of decks
      */
     public Shoe(int decks)
     {
+        this(decks, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a shoe with the specified number of decks.
+     * This shoe will be shuffled. Shoes constructed with the same
+     * number of decks and seed deal the same cards.
+     * @param decks the number of decks
+     * @param seed the seed for this shoe's random number generator
+     */
+    public Shoe(int decks, long seed)
+    {
+        this(decks, seed, new FisherYatesShuffle());
+    }
+
+    /**
+     * Constructs a shoe with the specified number of decks that is shuffled,
+     * from its first shoe on, with the specified strategy. Shoes constructed
+     * with the same number of decks, seed and strategy deal the same cards.
+     * @param decks the number of decks
+     * @param seed the seed for this shoe's random number generator
+     * @param shuffleStrategy the shuffle strategy
+     */
+    public Shoe(int decks, long seed, ShuffleStrategy shuffleStrategy)
+    {
+        if(shuffleStrategy == null)
+            throw new IllegalArgumentException("shuffleStrategy must not be null");
+
         this.decks = decks;
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+        this.shuffleStrategy = shuffleStrategy;
+
+        // ordered by suit (H, D, S, C), then value, before the first shuffle
+        cards = new int[52 * decks];
+        int i = 0;
+        for(int suit : new int[]{1, 0, 2, 3})
+            for(int value = 1; value <= 13; value++)
+                for(int x = 1; x <= decks; x++)
+                    cards[i++] = Card.code(value, suit);
+
         reset();
     }
+
+    /**
+     * Returns the number of decks in this shoe
+     * @return the number of decks
+     */
+    public int getDecks()
+    {
+        return decks;
+    }
+
+    /**
+     * Returns the seed used to create this shoe's random number generator
+     * @return the seed of this shoe
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
     
     /**
      * Removes and returns a card from this shoe
@@ -29,7 +104,12 @@ public class Shoe
      */
     public Card dealCard()
     {
-        return cards.remove(cards.size() - 1);
+        if(size == 0)
+            throw new IllegalStateException("shoe is empty");
+        
+        Card card = Card.fromCode(cards[--size]);
+        runningCount += countingSystem.tag(card.getValue());
+        return card;
     }
     
     /**
@@ -38,22 +118,106 @@ public class Shoe
      */
     public int cardsLeft()
     {
-        return cards.size();
+        return size;
+    }
+    
+    /**
+     * Returns the counting system used for the running count (HI_LO by default)
+     * @return the counting system
+     */
+    public CountingSystem getCountingSystem()
+    {
+        return countingSystem;
+    }
+    
+    /**
+     * Changes the counting system. The running count is recalculated
+     * for the cards dealt since the last reset.
+     * @param countingSystem the new counting system
+     */
+    public void setCountingSystem(CountingSystem countingSystem)
+    {
+        this.countingSystem = countingSystem;
+        
+        // every card not left in the shoe has been dealt
+        runningCount = countingSystem.initialRunningCount(decks);
+        for(int value = 1; value <= 13; value++)
+            runningCount += 4 * decks * countingSystem.tag(value);
+        for(int i = 0; i < size; i++)
+            runningCount -= countingSystem.tag(Card.fromCode(cards[i]).getValue());
+    }
+    
+    /**
+     * Returns the running count of the cards dealt since the last reset
+     * @return the running count
+     */
+    public int getRunningCount()
+    {
+        return runningCount;
+    }
+    
+    /**
+     * Returns the running count divided by the number of decks left in this shoe
+     * @return the true count (the running count if no cards are left)
+     */
+    public double getTrueCount()
+    {
+        if(size == 0)
+            return runningCount;
+        
+        return runningCount * 52.0 / size;
+    }
+    
+    /**
+     * Returns the strategy used to shuffle this shoe (a uniform Fisher-Yates shuffle by default)
+     * @return the shuffle strategy
+     */
+    public ShuffleStrategy getShuffleStrategy()
+    {
+        return shuffleStrategy;
+    }
+    
+    /**
+     * Changes the strategy used by later resets. The shoe being dealt was
+     * shuffled by the previous strategy; to shuffle the first shoe with a
+     * strategy, pass it to the constructor. The strategy receives the
+     * shoe as it is when it is reset: the cards left and then the cards
+     * dealt, most recently dealt first.
+     * @param shuffleStrategy the shuffle strategy
+     */
+    public void setShuffleStrategy(ShuffleStrategy shuffleStrategy)
+    {
+        if(shuffleStrategy == null)
+            throw new IllegalArgumentException("shuffleStrategy must not be null");
+        
+        this.shuffleStrategy = shuffleStrategy;
     }
     
     /**
      * Resets this shoe to contain all of its original cards.
-     * This shoe will be shuffled.
+     * This shoe will be shuffled and the running count restarted.
      */
     public void reset()
     {
-        cards = new ArrayList<Card>();
+        runningCount = countingSystem.initialRunningCount(decks);
         
-        for(String suit : new String[]{"H", "D", "S", "C"})
-            for(int value = 1; value <= 13; value++)
-                for(int x = 1; x <= decks; x++)
-                    cards.add(new Card(suit, value));
+        size = cards.length;
+        shuffleStrategy.shuffle(cards, random);
+    }
+    
+    /**
+     * Returns the cards dealt since the last reset or return to this shoe,
+     * as a continuous shuffling machine does with each round's discards.
+     * Each returned card is inserted at a uniformly random position among
+     * the cards left, in time proportional to the number of cards returned.
+     * The returned cards are removed from the running count.
+     */
+    public void returnDealtCards()
+    {
+        for(int i = size; i < cards.length; i++)
+            runningCount -= countingSystem.tag(Card.fromCode(cards[i]).getValue());
         
-        Collections.shuffle(cards);
+        FisherYatesShuffle.insert(cards, size, random);
+        size = cards.length;
     }
 }
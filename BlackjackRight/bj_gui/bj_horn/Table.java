@@ -0,0 +1,672 @@
+package bj_horn;
+
+/**
+ * The Table class allows up to MAX_SEATS players to play blackjack against
+ * one dealer, sharing one shoe. Each seat has its own bankroll and bets and
+ * follows the same rules as Blackjack (including up to Blackjack.MAX_HANDS
+ * hands per seat). Like Blackjack, the class makes no attempt to prevent a
+ * negative bankroll.
+ *
+ * A round is played as follows: placeBet for each seat that is playing,
+ * dealCards, decisions for getCurrentSeat() until it is -1, playDealersHand
+ * and resolveBetsAndReset. All hands are allocated when the table is
+ * constructed and reused every round.
+ */
+public class Table
+{
+    public static final int MAX_SEATS = 7;
+
+    private Shoe shoe;
+    private boolean continuousShuffle;
+
+    private Seat[] seats;
+    private int currentSeat;
+    private boolean dealt;
+
+    private Hand dealersHand;
+    private boolean dealerPlayed;
+    private FaceUpHand faceUpDealersHand;
+
+    /**
+     * A seat's bankroll and hands
+     */
+    private static class Seat
+    {
+        private double money;
+        private double bet;
+        private HandAndBet[] hands;
+        private int numHands;
+        private int currentHand;
+
+        Seat(double money)
+        {
+            this.money = money;
+
+            hands = new HandAndBet[Blackjack.MAX_HANDS];
+            for(int i = 0; i < hands.length; i++)
+                hands[i] = new HandAndBet(0);
+        }
+    }
+
+    /**
+     * Constructs a table with one seat for each starting bankroll
+     * @param playersMoney each seat's starting bankroll
+     *
+     * Precondition: 1 <= playersMoney.length && playersMoney.length <= MAX_SEATS
+     */
+    public Table(double[] playersMoney)
+    {
+        this(playersMoney, new Shoe(Blackjack.DECKS));
+    }
+
+    /**
+     * Constructs a table with one seat for each starting bankroll
+     * and a shoe shuffled from the specified seed
+     * @param playersMoney each seat's starting bankroll
+     * @param seed the seed for the shoe's random number generator
+     *
+     * Precondition: 1 <= playersMoney.length && playersMoney.length <= MAX_SEATS
+     */
+    public Table(double[] playersMoney, long seed)
+    {
+        this(playersMoney, new Shoe(Blackjack.DECKS, seed));
+    }
+
+    private Table(double[] playersMoney, Shoe shoe)
+    {
+        if( ! (1 <= playersMoney.length && playersMoney.length <= MAX_SEATS) )
+            throw new IllegalArgumentException("number of seats must be 1 - " + MAX_SEATS);
+
+        this.shoe = shoe;
+
+        seats = new Seat[playersMoney.length];
+        for(int seat = 0; seat < seats.length; seat++)
+            seats[seat] = new Seat(playersMoney[seat]);
+
+        dealersHand = new Hand();
+        faceUpDealersHand = new FaceUpHand(dealersHand);
+
+        reset();
+    }
+
+    /**
+     * Resets for another round, including reseting shoe if necessary
+     */
+    private void reset()
+    {
+        for(Seat seat : seats)
+        {
+            seat.bet = 0;
+            seat.numHands = 0;
+            seat.currentHand = -1;
+        }
+        currentSeat = -1;
+        dealt = false;
+
+        dealersHand.clear();
+        dealerPlayed = false;
+        faceUpDealersHand.hide();
+
+        if(continuousShuffle)
+            shoe.returnDealtCards();
+        else if(shoe.cardsLeft() < Blackjack.DECKS * Blackjack.CARDS_PER_DECK * (1 - Blackjack.SHOE_PENETRATION))
+            shoe.reset();
+    }
+
+    /**
+     * Changes whether this table deals from a continuous shuffling machine.
+     * If so, the cards dealt each round are returned to the shoe at random
+     * positions when the round is resolved. Otherwise the shoe is reset once
+     * it falls below the penetration limit (the default).
+     * @param continuousShuffle true for a continuous shuffling machine
+     */
+    public void setContinuousShuffle(boolean continuousShuffle)
+    {
+        this.continuousShuffle = continuousShuffle;
+    }
+
+    /**
+     * Returns true if this table deals from a continuous shuffling machine
+     * @return true if the shoe is continuously shuffled, false otherwise
+     */
+    public boolean isContinuousShuffle()
+    {
+        return continuousShuffle;
+    }
+
+    /**
+     * Returns the number of seats at this table
+     * @return the number of seats
+     */
+    public int getNumSeats()
+    {
+        return seats.length;
+    }
+
+    private Seat seat(int seat)
+    {
+        if( ! (0 <= seat && seat < seats.length) )
+            throw new IllegalArgumentException("seat must be: >= 0 and < getNumSeats()");
+
+        return seats[seat];
+    }
+
+    /**
+     * Returns the specified seat's money (can be negative)
+     * @param seat the index of the seat
+     * @return the seat's money
+     */
+    public double getPlayersMoney(int seat)
+    {
+        return seat(seat).money;
+    }
+
+    /**
+     * Places the specified seat's bet for the next round.
+     * Seats without a bet sit out the round.
+     * @param seat the index of the seat
+     * @param amount the amount to bet
+     *
+     * Precondition: cards have not been dealt && the seat has not bet && amount > 0
+     */
+    public void placeBet(int seat, double amount)
+    {
+        Seat player = seat(seat);
+
+        if(dealt)
+            throw new IllegalStateException("bets must be placed before cards are dealt");
+
+        if(player.bet != 0)
+            throw new IllegalStateException("only one initial bet can be made per seat per round");
+
+        if(amount <= 0)
+            throw new IllegalArgumentException("amount bet must be greater than 0");
+
+        player.bet = amount;
+    }
+
+    /**
+     * Deals the first round of cards to every seat with a bet (in seat order)
+     * then the dealer's face up card, then the second round of cards followed
+     * by the dealer's face down card.
+     *
+     * Precondition: cards have not been dealt && at least one seat has bet
+     */
+    public void dealCards()
+    {
+        if(dealt)
+            throw new IllegalStateException("cards have already been dealt this round");
+
+        boolean anyBet = false;
+        for(Seat seat : seats)
+        {
+            if(seat.bet > 0)
+            {
+                anyBet = true;
+                seat.money -= seat.bet;
+                seat.hands[0].reset(seat.bet);
+                seat.numHands = 1;
+                seat.currentHand = 0;
+            }
+        }
+
+        if( ! anyBet )
+            throw new IllegalStateException("at least one seat must bet before cards are dealt");
+
+        dealt = true;
+
+        for(int round = 0; round < 2; round++)
+        {
+            for(Seat seat : seats)
+                if(seat.numHands > 0)
+                    seat.hands[0].hit(shoe.dealCard());
+
+            dealersHand.addCard(shoe.dealCard());
+        }
+
+        currentSeat = 0;
+        advanceToFirstDecision();
+    }
+
+    private void validateDealt()
+    {
+        if( ! dealt )
+            throw new IllegalStateException("cards have not been dealt");
+    }
+
+    private void validateSeatAndIndex(int seat, int index)
+    {
+        validateDealt();
+
+        if( ! (0 <= index && index < seat(seat).numHands) )
+            throw new IllegalArgumentException("index must be: >= 0 and < getNumHands(seat)");
+    }
+
+    /**
+     * Returns the number of hands the specified seat has this round
+     * (0 if the seat did not bet or cards have not been dealt)
+     * @param seat the index of the seat
+     * @return the number of hands
+     */
+    public int getNumHands(int seat)
+    {
+        return seat(seat).numHands;
+    }
+
+    /**
+     * Returns the seat for which a decision needs to be made
+     * or -1 if there is no decision to be made
+     * @return the current seat or -1
+     *
+     * Precondition: cards have been dealt
+     */
+    public int getCurrentSeat()
+    {
+        validateDealt();
+
+        return currentSeat;
+    }
+
+    /**
+     * Returns the index of the current seat's hand for which a decision needs to be made
+     * @return the index of the current hand
+     *
+     * Precondition: getCurrentSeat() >= 0
+     */
+    public int getCurrentHand()
+    {
+        validateCurrentSeat();
+
+        return seats[currentSeat].currentHand;
+    }
+
+    private void validateCurrentSeat()
+    {
+        if( ! (getCurrentSeat() >= 0) )
+            throw new IllegalStateException("there is no hand with a decision to be made");
+    }
+
+    /**
+     * Returns the specified seat's total bet (initial + additional) for the specified hand
+     * @param seat the index of the seat
+     * @param index the index of the hand
+     * @return the total bet for the hand
+     *
+     * Precondition: cards have been dealt && 0 <= index && index < getNumHands(seat)
+     */
+    public double getTotalBet(int seat, int index)
+    {
+        validateSeatAndIndex(seat, index);
+
+        return seats[seat].hands[index].getTotalBet();
+    }
+
+    /**
+     * Returns a copy of the specified seat's hand
+     * @param seat the index of the seat
+     * @param index the index of the hand
+     * @return a copy of the hand
+     *
+     * Precondition: cards have been dealt && 0 <= index && index < getNumHands(seat)
+     */
+    public Hand getPlayersHand(int seat, int index)
+    {
+        validateSeatAndIndex(seat, index);
+
+        return seats[seat].hands[index].getHand();
+    }
+
+    /**
+     * Returns a read-only view of the specified seat's hand without copying it.
+     * The view reflects later changes to the hand and is reused in later rounds.
+     * @param seat the index of the seat
+     * @param index the index of the hand
+     * @return a view of the hand
+     *
+     * Precondition: cards have been dealt && 0 <= index && index < getNumHands(seat)
+     */
+    public ReadOnlyHand getPlayersHandView(int seat, int index)
+    {
+        validateSeatAndIndex(seat, index);
+
+        return seats[seat].hands[index].getHandView();
+    }
+
+    /**
+     * Returns the numerical value of the specified seat's hand without copying the hand
+     * @param seat the index of the seat
+     * @param index the index of the hand
+     * @return the value of the hand
+     *
+     * Precondition: cards have been dealt && 0 <= index && index < getNumHands(seat)
+     */
+    public int getPlayersHandValue(int seat, int index)
+    {
+        validateSeatAndIndex(seat, index);
+
+        return seats[seat].hands[index].getValue();
+    }
+
+    /**
+     * Returns the dealer's face up card
+     * @return the dealer's face up card
+     *
+     * Precondition: cards have been dealt
+     */
+    public Card getDealersUpCard()
+    {
+        validateDealt();
+
+        return dealersHand.firstCard();
+    }
+
+    /**
+     * Returns a copy of the face up portion of the dealer's hand
+     * @return a copy of the face up portion of the dealer's hand
+     *
+     * Precondition: cards have been dealt
+     */
+    public Hand getFaceUpDealersHand()
+    {
+        validateDealt();
+
+        if(dealerPlayed)
+            return new Hand(dealersHand);
+        else
+            return new Hand(dealersHand.firstCard());
+    }
+
+    /**
+     * Returns a read-only view of the face up portion of the dealer's hand
+     * without copying it. The view shows only the face up card until the
+     * dealer has played and is reused in later rounds.
+     * @return a view of the face up portion of the dealer's hand
+     *
+     * Precondition: cards have been dealt
+     */
+    public ReadOnlyHand getFaceUpDealersHandView()
+    {
+        validateDealt();
+
+        return faceUpDealersHand;
+    }
+
+    private HandAndBet currentHand()
+    {
+        Seat seat = seats[currentSeat];
+        return seat.hands[seat.currentHand];
+    }
+
+    /**
+     * Returns true if the current seat can hit its current hand, false otherwise
+     * @return true if the current hand can be hit
+     *
+     * Precondition: getCurrentSeat() >= 0
+     */
+    public boolean canHit()
+    {
+        validateCurrentSeat();
+
+        Seat seat = seats[currentSeat];
+        HandAndBet hand = seat.hands[seat.currentHand];
+
+        if(seat.numHands > 1 && hand.getHandView().getCard(0).getValue() == 1)
+            return false; // cannot hit split aces
+
+        return ! dealersHand.isBlackjack() && hand.canHit();
+    }
+
+    /**
+     * Returns true if the current seat can split its current hand, false otherwise
+     * @return true if the current hand can be split
+     *
+     * Precondition: getCurrentSeat() >= 0
+     */
+    public boolean canSplit()
+    {
+        validateCurrentSeat();
+
+        Seat seat = seats[currentSeat];
+        return ! dealersHand.isBlackjack() && currentHand().canSplit() && seat.numHands < Blackjack.MAX_HANDS;
+    }
+
+    /**
+     * Returns true if the current seat can double down on its current hand, false otherwise
+     * @return true if the current hand can be doubled down
+     *
+     * Precondition: getCurrentSeat() >= 0
+     */
+    public boolean canDoubleDown()
+    {
+        return canHit() && currentHand().canDoubleDown();
+    }
+
+    /**
+     * Stands on the current hand and advances to the next decision
+     *
+     * Precondition: getCurrentSeat() >= 0
+     */
+    public void stand()
+    {
+        validateCurrentSeat();
+
+        advanceToNextDecision();
+    }
+
+    /**
+     * Deals another card to the current hand
+     *
+     * Precondition: canHit()
+     */
+    public void hit()
+    {
+        if( ! canHit() )
+            throw new IllegalStateException("player cannot hit this hand");
+
+        currentHand().hit(shoe.dealCard());
+
+        if( ! decisionIsRequired() )
+            advanceToNextDecision();
+    }
+
+    /**
+     * Splits the current hand
+     *
+     * Precondition: canSplit()
+     */
+    public void split()
+    {
+        if( ! canSplit() )
+            throw new IllegalStateException("player cannot split this hand");
+
+        Seat seat = seats[currentSeat];
+        HandAndBet hand = currentHand();
+        HandAndBet newHand = seat.hands[seat.numHands];
+
+        seat.money -= hand.getTotalBet();
+
+        hand.splitInto(newHand);
+        seat.numHands++;
+
+        hand.hit(shoe.dealCard());
+        newHand.hit(shoe.dealCard());
+
+        if( ! decisionIsRequired() )
+            advanceToNextDecision();
+    }
+
+    /**
+     * Doubles down on the current hand
+     * @param additionalBet the additional amount to bet
+     *
+     * Precondition: canDoubleDown() && 0 < additionalBet && additionalBet <= the hand's total bet
+     */
+    public void doubleDown(double additionalBet)
+    {
+        if( ! canDoubleDown() )
+            throw new IllegalStateException("player cannot double down on this hand");
+
+        HandAndBet hand = currentHand();
+        if( ! (0 < additionalBet && additionalBet <= hand.getTotalBet()) )
+            throw new IllegalArgumentException("additionalBet must be > 0 and <= the hand's total bet");
+
+        seats[currentSeat].money -= additionalBet;
+        hand.doubleDown(additionalBet, shoe.dealCard());
+
+        advanceToNextDecision();
+    }
+
+    private boolean decisionIsRequired()
+    {
+        return canHit() || canDoubleDown() || canSplit();
+    }
+
+    /**
+     * Starting at the current hand of the current seat, finds the first hand
+     * with a decision to be made, moving on to later seats as needed
+     */
+    private void advanceToFirstDecision()
+    {
+        while(currentSeat < seats.length)
+        {
+            Seat seat = seats[currentSeat];
+            if(seat.numHands > 0)
+            {
+                while(seat.currentHand < seat.numHands && ! decisionIsRequired())
+                    seat.currentHand++;
+
+                if(seat.currentHand < seat.numHands)
+                    return;
+
+                seat.currentHand = -1;
+            }
+            currentSeat++;
+            if(currentSeat < seats.length && seats[currentSeat].numHands > 0)
+                seats[currentSeat].currentHand = 0;
+        }
+
+        currentSeat = -1;
+    }
+
+    private void advanceToNextDecision()
+    {
+        seats[currentSeat].currentHand++;
+        advanceToFirstDecision();
+    }
+
+    /**
+     * Plays the dealer's hand. The dealer does not take additional cards if
+     * every seat's hands busted or were a single blackjack.
+     *
+     * Precondition: cards have been dealt && getCurrentSeat() == -1
+     */
+    public void playDealersHand()
+    {
+        if(getCurrentSeat() != -1)
+            throw new IllegalStateException("players must make all decisions before dealer plays hand");
+
+        boolean dealerMustPlay = false;
+        for(Seat seat : seats)
+        {
+            if(seat.numHands == 1 && seat.hands[0].getHandView().isBlackjack())
+                continue;
+
+            for(int i = 0; i < seat.numHands; i++)
+                if(seat.hands[i].getValue() <= 21)
+                    dealerMustPlay = true;
+        }
+
+        if(dealerMustPlay)
+            while(dealersHand.getValue() < 17)
+                dealersHand.addCard(shoe.dealCard());
+
+        dealerPlayed = true;
+        faceUpDealersHand.reveal();
+    }
+
+    private void validateDealerHasPlayedHand()
+    {
+        if( ! dealerPlayed )
+            throw new IllegalStateException("must play dealer's hand first");
+    }
+
+    /**
+     * Returns true if the specified hand is a push, false otherwise
+     * @param seat the index of the seat
+     * @param index the index of the hand
+     * @return true if the hand is a push
+     *
+     * Precondition: the dealer has played && 0 <= index && index < getNumHands(seat)
+     */
+    public boolean isPush(int seat, int index)
+    {
+        validateSeatAndIndex(seat, index);
+        validateDealerHasPlayedHand();
+
+        int value = seats[seat].hands[index].getValue();
+        return value <= 21 && value == dealersHand.getValue();
+    }
+
+    /**
+     * Returns true if the specified hand is a player win, false otherwise
+     * @param seat the index of the seat
+     * @param index the index of the hand
+     * @return true if the hand is a player win
+     *
+     * Precondition: the dealer has played && 0 <= index && index < getNumHands(seat)
+     */
+    public boolean isPlayerWin(int seat, int index)
+    {
+        validateSeatAndIndex(seat, index);
+        validateDealerHasPlayedHand();
+
+        int value = seats[seat].hands[index].getValue();
+        int dealersValue = dealersHand.getValue();
+        return value <= 21 && (dealersValue > 21 || value > dealersValue);
+    }
+
+    /**
+     * Returns true if the specified seat won with a blackjack, false otherwise
+     * @param seat the index of the seat
+     * @return true if the seat won with a blackjack
+     *
+     * Precondition: isPlayerWin(seat, 0)
+     */
+    public boolean isPlayerBlackjack(int seat)
+    {
+        if( ! isPlayerWin(seat, 0) )
+            throw new IllegalStateException("seat must have won initial hand to check for blackjack");
+
+        return seats[seat].numHands == 1 && seats[seat].hands[0].getHandView().isBlackjack();
+    }
+
+    /**
+     * Resolves every seat's bets and resets for another round
+     *
+     * Precondition: the dealer has played
+     */
+    public void resolveBetsAndReset()
+    {
+        validateDealt();
+        validateDealerHasPlayedHand();
+
+        for(int seat = 0; seat < seats.length; seat++)
+        {
+            Seat player = seats[seat];
+            for(int index = 0; index < player.numHands; index++)
+            {
+                double totalBet = player.hands[index].getTotalBet();
+                if(isPush(seat, index))
+                    player.money += totalBet;
+                else if(isPlayerWin(seat, index))
+                {
+                    player.money += 2 * totalBet;
+                    if(index == 0 && isPlayerBlackjack(seat))
+                        player.money += totalBet / 2;
+                }
+            }
+        }
+
+        reset();
+    }
+}
@@ -0,0 +1,87 @@
+package bj_horn.analysis;
+
+import bj_horn.Action;
+
+/**
+ * The expected value of each action for a player's hand, in units of the
+ * initial bet. Actions that are not legal have a value of Double.NaN.
+ */
+public class ActionValues
+{
+    private final double stand, hit, doubleDown, split;
+
+    /**
+     * Constructs the values of each action (Double.NaN for actions that are not legal)
+     * @param stand the expected value of standing
+     * @param hit the expected value of hitting and then playing optimally
+     * @param doubleDown the expected value of doubling down
+     * @param split the expected value of splitting and then playing optimally
+     */
+    public ActionValues(double stand, double hit, double doubleDown, double split)
+    {
+        this.stand = stand;
+        this.hit = hit;
+        this.doubleDown = doubleDown;
+        this.split = split;
+    }
+
+    /**
+     * Returns the expected value of the specified action
+     * @param action the action
+     * @return the expected value of the action or Double.NaN if it is not legal
+     */
+    public double getValue(Action action)
+    {
+        switch(action)
+        {
+            case HIT:
+                return hit;
+
+            case DOUBLE_DOWN:
+                return doubleDown;
+
+            case SPLIT:
+                return split;
+
+            default:
+                return stand;
+        }
+    }
+
+    /**
+     * Returns the legal action with the highest expected value
+     * @return the best action
+     */
+    public Action getBestAction()
+    {
+        Action best = Action.STAND;
+        for(Action action : Action.values())
+            if(getValue(action) > getValue(best))
+                best = action;
+
+        return best;
+    }
+
+    /**
+     * Returns the expected value of the best action
+     * @return the expected value of the best action
+     */
+    public double getBestValue()
+    {
+        return getValue(getBestAction());
+    }
+
+    /**
+     * Returns each legal action followed by its expected value
+     * Ex: STAND -0.1543 HIT -0.2101 DOUBLE_DOWN -0.4202
+     */
+    public String toString()
+    {
+        String result = "";
+        for(Action action : Action.values())
+            if( ! Double.isNaN(getValue(action)) )
+                result += String.format("%s %+.4f ", action, getValue(action));
+
+        return result.trim();
+    }
+}
@@ -0,0 +1,165 @@
+package bj_horn.analysis;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import bj_horn.Action;
+import bj_horn.strategy.BasicStrategy;
+import bj_horn.strategy.StrategyTable;
+
+/**
+ * Builds the full-shoe decision table from calculated expected values and
+ * compares it with a strategy table. Cells are evaluated in parallel,
+ * each pool thread using its own ExpectedValueCalculator.
+ *
+ * Usage: java bj_horn.analysis.ChartValidator [decks]
+ */
+public class ChartValidator
+{
+    private final int decks;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<ExpectedValueCalculator> calculators;
+
+    /**
+     * Constructs a validator for a shoe with the specified number of decks
+     * @param decks the number of decks
+     * @param pool the pool used to evaluate cells
+     */
+    public ChartValidator(final int decks, ForkJoinPool pool)
+    {
+        this.decks = decks;
+        this.pool = pool;
+        calculators = new ThreadLocal<ExpectedValueCalculator>()
+        {
+            protected ExpectedValueCalculator initialValue()
+            {
+                return new ExpectedValueCalculator(decks);
+            }
+        };
+    }
+
+    /**
+     * Returns a strategy table built from the best action for each
+     * 2 card hand dealt from a full shoe. Hard 4, 20 and 21 (which can only
+     * be dealt as pairs or with more cards) and soft 21 are left as in base.
+     * @param base the table providing the cells that are not evaluated
+     * @return the optimal table
+     */
+    public StrategyTable optimalTable(StrategyTable base)
+    {
+        ArrayList<Future<Cell>> results = new ArrayList<Future<Cell>>();
+        for(int upcard = 1; upcard <= 10; upcard++)
+        {
+            for(int total = 5; total <= 19; total++)
+            {
+                int low = Math.max(2, total - 10);
+                results.add(submit(Cell.HARD, total, new int[] {low, total - low}, upcard));
+            }
+
+            for(int total = 13; total <= 20; total++)
+                results.add(submit(Cell.SOFT, total, new int[] {1, total - 11}, upcard));
+
+            for(int pair = 1; pair <= 10; pair++)
+                results.add(submit(Cell.PAIR, pair, new int[] {pair, pair}, upcard));
+        }
+
+        StrategyTable table = new StrategyTable(base);
+        try
+        {
+            for(Future<Cell> result : results)
+                result.get().apply(table);
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("validation was interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("validation failed", e.getCause());
+        }
+        return table;
+    }
+
+    private Future<Cell> submit(final int kind, final int total, final int[] cards, final int upcard)
+    {
+        return pool.submit(new Callable<Cell>()
+        {
+            public Cell call()
+            {
+                int[] remaining = DealerProbabilities.fullShoe(decks);
+                remaining[cards[0]]--;
+                remaining[cards[1]]--;
+                remaining[upcard]--;
+
+                ActionValues values = calculators.get().evaluate(cards, upcard, remaining);
+                return new Cell(kind, total, upcard, values);
+            }
+        });
+    }
+
+    /**
+     * A evaluated cell of the chart (also used by StrategyOptimizer)
+     */
+    static class Cell
+    {
+        static final int HARD = 0, SOFT = 1, PAIR = 2;
+
+        private final int kind, total, upcard;
+        private final ActionValues values;
+
+        Cell(int kind, int total, int upcard, ActionValues values)
+        {
+            this.kind = kind;
+            this.total = total;
+            this.upcard = upcard;
+            this.values = values;
+        }
+
+        void apply(StrategyTable table)
+        {
+            if(kind == PAIR)
+            {
+                boolean split = values.getBestAction() == Action.SPLIT;
+                table.setPair(total, upcard, split ? StrategyTable.SPLIT : StrategyTable.NO_SPLIT);
+                return;
+            }
+
+            boolean hitOverStand = values.getValue(Action.HIT) > values.getValue(Action.STAND);
+            char code;
+            if(values.getBestAction() == Action.DOUBLE_DOWN)
+                code = hitOverStand ? StrategyTable.DOUBLE_OR_HIT : StrategyTable.DOUBLE_OR_STAND;
+            else
+                code = hitOverStand ? StrategyTable.HIT : StrategyTable.STAND;
+
+            if(kind == HARD)
+                table.setHard(total, upcard, code);
+            else
+                table.setSoft(total, upcard, code);
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int decks = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+
+        ChartValidator validator = new ChartValidator(decks, ForkJoinPool.commonPool());
+
+        long start = System.nanoTime();
+        StrategyTable base = BasicStrategy.defaultTable();
+        StrategyTable optimal = validator.optimalTable(base);
+        long nanos = System.nanoTime() - start;
+
+        System.out.println(optimal);
+        System.out.println(String.format("Computed in %.2f s", nanos / 1e9));
+
+        String[] baseRows = base.toString().split("\n");
+        String[] optimalRows = optimal.toString().split("\n");
+        for(int row = 0; row < baseRows.length; row++)
+            if( ! baseRows[row].equals(optimalRows[row]) )
+                System.out.println("default chart differs: " + baseRows[row] + "  optimal: " + optimalRows[row]);
+    }
+}
@@ -0,0 +1,82 @@
+package bj_horn.analysis;
+
+/**
+ * Encodes a shoe composition (the number of cards left of each value 1 - 10)
+ * as a single long using a mixed radix based on a full shoe. Removing a card
+ * of value v from a composition subtracts placeValue(v) from its code, so
+ * codes can be updated incrementally during a recursive search.
+ */
+class CompositionCodec
+{
+    private final int[] fullCounts;
+    private final long[] placeValues;
+    private final long states;
+
+    /**
+     * Constructs a codec for compositions drawn from the specified full shoe
+     * @param fullCounts the number of cards of each value (indexes 1 - 10) in a full shoe
+     * @param states the number of distinct states that will be combined with each composition
+     * @throws IllegalArgumentException if the keys would not fit in a long
+     */
+    CompositionCodec(int[] fullCounts, long states)
+    {
+        this.fullCounts = fullCounts.clone();
+        this.states = states;
+
+        placeValues = new long[11];
+        try
+        {
+            long place = 1;
+            for(int value = 1; value <= 10; value++)
+            {
+                placeValues[value] = place;
+                place = Math.multiplyExact(place, fullCounts[value] + 1);
+            }
+            Math.multiplyExact(place, states);
+        }
+        catch(ArithmeticException e)
+        {
+            throw new IllegalArgumentException("shoe is too large to encode", e);
+        }
+    }
+
+    /**
+     * Returns the code for the specified composition
+     * @param counts the number of cards left of each value (indexes 1 - 10)
+     * @return the code for the composition
+     * @throws IllegalArgumentException if counts has more cards of a value than a full shoe
+     */
+    long encode(int[] counts)
+    {
+        long code = 0;
+        for(int value = 1; value <= 10; value++)
+        {
+            if( ! (0 <= counts[value] && counts[value] <= fullCounts[value]) )
+                throw new IllegalArgumentException("count of value " + value + " must be 0 - " + fullCounts[value]);
+
+            code += counts[value] * placeValues[value];
+        }
+        return code;
+    }
+
+    /**
+     * Returns the amount by which a code changes when a card of the specified value is removed
+     * @param value the value of the card (1 - 10)
+     * @return the place value of the card's value
+     */
+    long placeValue(int value)
+    {
+        return placeValues[value];
+    }
+
+    /**
+     * Returns a key combining a composition code and a state
+     * @param code the composition code
+     * @param state the state (0 up to but excluding the number of states)
+     * @return a key that is unique to the composition and state
+     */
+    long key(long code, int state)
+    {
+        return code * states + state;
+    }
+}
@@ -0,0 +1,257 @@
+package bj_horn.analysis;
+
+/**
+ * Computes the exact probability of each final dealer hand (17 - 21, bust
+ * or blackjack) for a dealer upcard and the composition of the rest of the
+ * shoe. The dealer follows the rule in bj_horn.Blackjack.playDealersHand:
+ * take cards while the hand's value is below 17 (so the dealer stands on soft 17).
+ *
+ * Results are memoized by composition and dealer hand, so repeated queries
+ * against a shoe (and the sub-states they share) are answered from the cache.
+ * A DealerProbabilities object is not thread safe.
+ *
+ * Compositions are int arrays with the number of cards left of each
+ * value at indexes 1 - 10 (index 10 counts tens, jacks, queens and kings).
+ */
+public class DealerProbabilities
+{
+    /**
+     * Indexes of the outcomes in a distribution.
+     * Totals 17 - 21 are at indexes 0 - 4 (see TOTAL_17).
+     */
+    public static final int TOTAL_17 = 0, BUST = 5, BLACKJACK = 6, OUTCOMES = 7;
+
+    // drawing states are 2 * hard total + ace (hard totals 2 - 16), followed by the first card states
+    private static final int FIRST_CARD_STATE = 34, STATES = FIRST_CARD_STATE + 20;
+
+    private static final double[][] FINAL = new double[BUST + 1][OUTCOMES];
+
+    static
+    {
+        for(int outcome = 0; outcome <= BUST; outcome++)
+            FINAL[outcome][outcome] = 1;
+    }
+
+    private final CompositionCodec codec;
+    private final LongMap<double[]> cache;
+
+    private final int[] counts;
+
+    /**
+     * Constructs a calculator for compositions drawn from a shoe with the specified number of decks
+     * @param decks the number of decks
+     */
+    public DealerProbabilities(int decks)
+    {
+        this(fullShoe(decks));
+    }
+
+    /**
+     * Constructs a calculator for compositions drawn from the specified full shoe
+     * @param fullCounts the number of cards of each value (indexes 1 - 10) in a full shoe
+     */
+    public DealerProbabilities(int[] fullCounts)
+    {
+        codec = new CompositionCodec(fullCounts, STATES);
+        cache = new LongMap<double[]>();
+        counts = new int[11];
+    }
+
+    /**
+     * Returns the composition of a full shoe with the specified number of decks
+     * @param decks the number of decks
+     * @return the number of cards of each value (indexes 1 - 10)
+     */
+    public static int[] fullShoe(int decks)
+    {
+        int[] counts = new int[11];
+        for(int value = 1; value <= 9; value++)
+            counts[value] = 4 * decks;
+        counts[10] = 16 * decks;
+        return counts;
+    }
+
+    /**
+     * Returns the probability of each final dealer hand
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @param remaining the composition of the shoe, not including the upcard
+     * @return the probability of each outcome, indexed as described by TOTAL_17, BUST and BLACKJACK
+     */
+    public double[] distribution(int upcard, int[] remaining)
+    {
+        return cachedDistribution(upcard, remaining, false).clone();
+    }
+
+    /**
+     * Returns the probability of each final dealer hand given that the dealer
+     * does not have blackjack. This is the distribution the player faces
+     * whenever the player has a decision to make.
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @param remaining the composition of the shoe, not including the upcard
+     * @return the probability of each outcome (BLACKJACK is always 0)
+     */
+    public double[] distributionNoBlackjack(int upcard, int[] remaining)
+    {
+        return cachedDistribution(upcard, remaining, true).clone();
+    }
+
+    /**
+     * Returns the cached distribution for the specified query.
+     * The returned array must not be modified.
+     */
+    double[] cachedDistribution(int upcard, int[] remaining, boolean noBlackjack)
+    {
+        if( ! (1 <= upcard && upcard <= 10) )
+            throw new IllegalArgumentException("upcard must be 1 - 10");
+
+        int left = 0;
+        for(int value = 1; value <= 10; value++)
+        {
+            counts[value] = remaining[value];
+            left += remaining[value];
+        }
+
+        return firstCard(upcard, noBlackjack, left, codec.encode(counts));
+    }
+
+    /**
+     * Returns the number of memoized states
+     * @return the number of memoized states
+     */
+    public int cacheSize()
+    {
+        return cache.size();
+    }
+
+    /**
+     * Discards all memoized states
+     */
+    public void clearCache()
+    {
+        cache.clear();
+    }
+
+    /**
+     * Returns the dealer's total for the specified outcome
+     * @param outcome an outcome index less than BUST
+     * @return the total (17 - 21)
+     */
+    public static int total(int outcome)
+    {
+        return 17 + outcome - TOTAL_17;
+    }
+
+    private static boolean makesBlackjack(int upcard, int holeCard)
+    {
+        return upcard + holeCard == 11 && (upcard == 1 || holeCard == 1);
+    }
+
+    /**
+     * Deals the dealer's second card
+     */
+    private double[] firstCard(int upcard, boolean noBlackjack, int left, long code)
+    {
+        long key = codec.key(code, FIRST_CARD_STATE + 2 * (upcard - 1) + (noBlackjack ? 1 : 0));
+        double[] result = cache.get(key);
+        if(result != null)
+            return result;
+
+        int drawable = left;
+        if(noBlackjack)
+            for(int value = 1; value <= 10; value++)
+                if(makesBlackjack(upcard, value))
+                    drawable -= counts[value];
+
+        if(drawable <= 0)
+            throw new IllegalArgumentException("not enough cards left for the dealer to play");
+
+        result = new double[OUTCOMES];
+        for(int value = 1; value <= 10; value++)
+        {
+            if(counts[value] == 0)
+                continue;
+
+            double probability = (double) counts[value] / drawable;
+            if(makesBlackjack(upcard, value))
+            {
+                if( ! noBlackjack )
+                    result[BLACKJACK] += probability;
+                continue;
+            }
+
+            counts[value]--;
+            add(result, draw(upcard + value, upcard == 1 || value == 1, left - 1,
+                    code - codec.placeValue(value)), probability);
+            counts[value]++;
+        }
+
+        cache.put(key, result);
+        return result;
+    }
+
+    /**
+     * Plays a dealer hand of 2 or more cards that is not a blackjack
+     */
+    private double[] draw(int hard, boolean ace, int left, long code)
+    {
+        int value = ace && hard + 10 <= 21 ? hard + 10 : hard;
+        if(value > 21)
+            return FINAL[BUST];
+        if(value >= 17)
+            return FINAL[TOTAL_17 + value - 17];
+
+        long key = codec.key(code, 2 * hard + (ace ? 1 : 0));
+        double[] result = cache.get(key);
+        if(result != null)
+            return result;
+
+        if(left == 0)
+            throw new IllegalArgumentException("not enough cards left for the dealer to play");
+
+        result = new double[OUTCOMES];
+        for(int card = 1; card <= 10; card++)
+        {
+            if(counts[card] == 0)
+                continue;
+
+            double probability = (double) counts[card] / left;
+
+            counts[card]--;
+            add(result, draw(hard + card, ace || card == 1, left - 1,
+                    code - codec.placeValue(card)), probability);
+            counts[card]++;
+        }
+
+        cache.put(key, result);
+        return result;
+    }
+
+    private static void add(double[] result, double[] outcomes, double probability)
+    {
+        for(int outcome = 0; outcome < OUTCOMES; outcome++)
+            result[outcome] += probability * outcomes[outcome];
+    }
+
+    /**
+     * Prints the dealer's distribution for each upcard from a full shoe
+     * Usage: java bj_horn.analysis.DealerProbabilities [decks]
+     */
+    public static void main(String[] args)
+    {
+        int decks = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+
+        DealerProbabilities dealer = new DealerProbabilities(decks);
+        System.out.println("Up     17      18      19      20      21    Bust      BJ");
+        for(int upcard = 1; upcard <= 10; upcard++)
+        {
+            int[] remaining = fullShoe(decks);
+            remaining[upcard]--;
+
+            double[] distribution = dealer.distribution(upcard, remaining);
+            System.out.print(String.format("%-3s", upcard == 1 ? "A" : "" + upcard));
+            for(double probability : distribution)
+                System.out.print(String.format("%8.4f", probability));
+            System.out.println();
+        }
+    }
+}
@@ -0,0 +1,409 @@
+package bj_horn.analysis;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import bj_horn.Blackjack;
+
+/**
+ * Computes the expected value of each legal action for a player's hand,
+ * a dealer upcard and the composition of the rest of the shoe, under the
+ * bj_horn rules: the dealer stands on soft 17, the player only acts when
+ * the dealer does not have blackjack, up to Blackjack.MAX_HANDS hands,
+ * double down (for the full bet) on any 2 card hand including after a split,
+ * and split aces receive exactly one card but may be resplit.
+ *
+ * Stand values are exact for the composition. Hit and double down values
+ * draw the player's cards from the composition without excluding the hole
+ * cards that would give the dealer blackjack (only the dealer's outcomes are
+ * conditioned on no blackjack), so against an ace or ten they are a close
+ * approximation rather than exact. The two hands of a split are each
+ * evaluated from the composition after the split, ignoring the cards drawn
+ * to the other hand, and resplits are limited by the number of hands on the
+ * path being evaluated (the usual approximation). A split hand that makes 21
+ * with its second card stands, as it cannot be hit or doubled.
+ *
+ * Sub-states (player hand, upcard and composition) are memoized so a later
+ * query that reaches a state already evaluated is answered from the cache.
+ * A calculator is not thread safe; a calculator constructed with a pool
+ * evaluates split branches in parallel using a calculator per pool thread.
+ */
+public class ExpectedValueCalculator
+{
+    // hand states are 2 * hard total + ace (hard totals 2 - 21), split states follow
+    private static final int SPLIT_STATE = 44;
+    private static final int STATES_PER_UPCARD = SPLIT_STATE + (Blackjack.MAX_HANDS + 1) * 11;
+
+    private final int[] fullCounts;
+    private final CompositionCodec codec;
+    private final DealerProbabilities dealer;
+
+    /**
+     * [0] the value of standing, [1] the value of the best of hitting and standing
+     */
+    private final LongMap<double[]> hands;
+    private final LongMap<double[]> splits;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<ExpectedValueCalculator> workers;
+
+    // the state of the query being evaluated
+    private final int[] counts;
+    private int left;
+    private long code;
+    private int upcard;
+
+    /**
+     * Constructs a calculator for compositions drawn from a shoe with the specified number of decks
+     * @param decks the number of decks
+     */
+    public ExpectedValueCalculator(int decks)
+    {
+        this(DealerProbabilities.fullShoe(decks), null);
+    }
+
+    /**
+     * Constructs a calculator that evaluates split branches in parallel
+     * @param decks the number of decks
+     * @param pool the pool used to evaluate split branches
+     */
+    public ExpectedValueCalculator(int decks, ForkJoinPool pool)
+    {
+        this(DealerProbabilities.fullShoe(decks), pool);
+    }
+
+    /**
+     * Constructs a calculator for compositions drawn from the specified full shoe
+     * @param fullCounts the number of cards of each value (indexes 1 - 10) in a full shoe
+     * @param pool the pool used to evaluate split branches or null to evaluate them on the calling thread
+     */
+    public ExpectedValueCalculator(final int[] fullCounts, ForkJoinPool pool)
+    {
+        this.fullCounts = fullCounts.clone();
+        codec = new CompositionCodec(fullCounts, 10 * STATES_PER_UPCARD);
+        dealer = new DealerProbabilities(fullCounts);
+
+        hands = new LongMap<double[]>();
+        splits = new LongMap<double[]>();
+        counts = new int[11];
+
+        this.pool = pool;
+        if(pool == null)
+            workers = null;
+        else
+            workers = new ThreadLocal<ExpectedValueCalculator>()
+            {
+                protected ExpectedValueCalculator initialValue()
+                {
+                    return new ExpectedValueCalculator(fullCounts, null);
+                }
+            };
+    }
+
+    /**
+     * Returns the composition of a full shoe used by this calculator
+     * @return the number of cards of each value (indexes 1 - 10)
+     */
+    public int[] getFullCounts()
+    {
+        return fullCounts.clone();
+    }
+
+    /**
+     * Returns the expected value of each legal action for the player's initial hand
+     * @param playerCards the values (1 - 10) of the cards in the player's hand
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @param remaining the composition of the shoe, not including the player's cards or the upcard
+     * @return the expected value of each action in units of the initial bet
+     *
+     * Precondition: playerCards.length >= 2 and the hand is not a blackjack or bust
+     */
+    public ActionValues evaluate(int[] playerCards, int upcard, int[] remaining)
+    {
+        return evaluate(playerCards, upcard, remaining, 1);
+    }
+
+    /**
+     * Returns the expected value of each legal action for one of the player's hands
+     * @param playerCards the values (1 - 10) of the cards in the player's hand
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @param remaining the composition of the shoe, not including the player's cards or the upcard
+     * @param numHands the number of hands the player has (more than 1 after a split)
+     * @return the expected value of each action in units of the bet on this hand
+     *
+     * Precondition: playerCards.length >= 2 and the hand is not a blackjack or bust
+     */
+    public ActionValues evaluate(int[] playerCards, int upcard, int[] remaining, int numHands)
+    {
+        if(playerCards.length < 2)
+            throw new IllegalArgumentException("player must have at least 2 cards");
+
+        if( ! (1 <= numHands && numHands <= Blackjack.MAX_HANDS) )
+            throw new IllegalArgumentException("numHands must be 1 - " + Blackjack.MAX_HANDS);
+
+        int hard = 0;
+        boolean ace = false;
+        for(int card : playerCards)
+        {
+            if( ! (1 <= card && card <= 10) )
+                throw new IllegalArgumentException("card values must be 1 - 10");
+
+            hard += card;
+            ace = ace || card == 1;
+        }
+
+        int value = value(hard, ace);
+        if(value > 21)
+            throw new IllegalArgumentException("player's hand is bust");
+
+        boolean twoCards = playerCards.length == 2;
+        if(twoCards && value == 21 && numHands == 1)
+            throw new IllegalArgumentException("player's hand is a blackjack");
+
+        boolean splitAces = numHands > 1 && playerCards[0] == 1;
+
+        start(upcard, remaining);
+
+        double stand = hand(hard, ace)[0];
+        double hit = Double.NaN, doubleDown = Double.NaN, split = Double.NaN;
+
+        if(value < 21 && ! splitAces)
+        {
+            hit = hit(hard, ace);
+            if(twoCards)
+                doubleDown = doubleDown(hard, ace);
+        }
+
+        if(twoCards && playerCards[0] == playerCards[1] && numHands < Blackjack.MAX_HANDS)
+            split = 2 * splitFirstHand(playerCards[0], numHands + 1);
+
+        return new ActionValues(stand, hit, doubleDown, split);
+    }
+
+    /**
+     * Returns the number of memoized player states
+     * @return the number of memoized player states
+     */
+    public int cacheSize()
+    {
+        return hands.size() + splits.size();
+    }
+
+    private void start(int upcard, int[] remaining)
+    {
+        if( ! (1 <= upcard && upcard <= 10) )
+            throw new IllegalArgumentException("upcard must be 1 - 10");
+
+        this.upcard = upcard;
+
+        left = 0;
+        for(int value = 1; value <= 10; value++)
+        {
+            counts[value] = remaining[value];
+            left += remaining[value];
+        }
+
+        code = codec.encode(counts);
+    }
+
+    private static int value(int hard, boolean ace)
+    {
+        return ace && hard + 10 <= 21 ? hard + 10 : hard;
+    }
+
+    private long key(int state)
+    {
+        return codec.key(code, (upcard - 1) * STATES_PER_UPCARD + state);
+    }
+
+    private void remove(int value)
+    {
+        counts[value]--;
+        left--;
+        code -= codec.placeValue(value);
+    }
+
+    private void restore(int value)
+    {
+        counts[value]++;
+        left++;
+        code += codec.placeValue(value);
+    }
+
+    /**
+     * Returns the expected value of standing on the specified value
+     */
+    private double stand(int value)
+    {
+        if(value > 21)
+            return -1;
+
+        double[] outcomes = dealer.cachedDistribution(upcard, counts, true);
+
+        double result = outcomes[DealerProbabilities.BUST];
+        for(int outcome = DealerProbabilities.TOTAL_17; outcome < DealerProbabilities.BUST; outcome++)
+        {
+            int total = DealerProbabilities.total(outcome);
+            if(value > total)
+                result += outcomes[outcome];
+            else if(value < total)
+                result -= outcomes[outcome];
+        }
+        return result;
+    }
+
+    /**
+     * Returns [0] the value of standing and [1] the value of the best of hitting and standing
+     * for a hand that is not bust
+     */
+    private double[] hand(int hard, boolean ace)
+    {
+        long key = key(2 * hard + (ace ? 1 : 0));
+        double[] result = hands.get(key);
+        if(result != null)
+            return result;
+
+        int value = value(hard, ace);
+
+        result = new double[2];
+        result[0] = stand(value);
+        result[1] = value < 21 ? Math.max(result[0], hit(hard, ace)) : result[0];
+
+        hands.put(key, result);
+        return result;
+    }
+
+    /**
+     * Returns the value of hitting and then playing optimally (without doubling)
+     */
+    private double hit(int hard, boolean ace)
+    {
+        double result = 0;
+        int cards = left;
+        for(int card = 1; card <= 10; card++)
+        {
+            if(counts[card] == 0)
+                continue;
+
+            double probability = (double) counts[card] / cards;
+            remove(card);
+            result += probability * (hard + card > 21 ? -1 : hand(hard + card, ace || card == 1)[1]);
+            restore(card);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the value of doubling down for the full bet
+     */
+    private double doubleDown(int hard, boolean ace)
+    {
+        double result = 0;
+        int cards = left;
+        for(int card = 1; card <= 10; card++)
+        {
+            if(counts[card] == 0)
+                continue;
+
+            double probability = (double) counts[card] / cards;
+            remove(card);
+            result += probability * (hard + card > 21 ? -1 : hand(hard + card, ace || card == 1)[0]);
+            restore(card);
+        }
+        return 2 * result;
+    }
+
+    /**
+     * Returns the value of one hand of a split before its second card is dealt.
+     * The branches for the second card are evaluated in parallel if this
+     * calculator has a pool.
+     */
+    private double splitFirstHand(final int pair, final int numHands)
+    {
+        if(pool == null)
+            return splitHand(pair, numHands);
+
+        final int[] remaining = counts.clone();
+        final int calculatorUpcard = upcard;
+
+        ArrayList<Future<Double>> branches = new ArrayList<Future<Double>>();
+        for(int card = 1; card <= 10; card++)
+        {
+            if(counts[card] == 0)
+                continue;
+
+            final int secondCard = card;
+            branches.add(pool.submit(new Callable<Double>()
+            {
+                public Double call()
+                {
+                    ExpectedValueCalculator worker = workers.get();
+                    worker.start(calculatorUpcard, remaining);
+                    return remaining[secondCard] * worker.splitBranch(pair, secondCard, numHands);
+                }
+            }));
+        }
+
+        double result = 0;
+        try
+        {
+            for(Future<Double> branch : branches)
+                result += branch.get();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("split evaluation was interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("split evaluation failed", e.getCause());
+        }
+        return result / left;
+    }
+
+    /**
+     * Returns the value of one hand of a split before its second card is dealt
+     */
+    private double splitHand(int pair, int numHands)
+    {
+        long key = key(SPLIT_STATE + numHands * 11 + pair);
+        double[] result = splits.get(key);
+        if(result != null)
+            return result[0];
+
+        double value = 0;
+        int cards = left;
+        for(int card = 1; card <= 10; card++)
+            if(counts[card] > 0)
+                value += (double) counts[card] / cards * splitBranch(pair, card, numHands);
+
+        splits.put(key, new double[] {value});
+        return value;
+    }
+
+    /**
+     * Returns the value of a split hand after the specified second card is dealt
+     */
+    private double splitBranch(int pair, int card, int numHands)
+    {
+        remove(card);
+
+        double result;
+        int hard = pair + card;
+        boolean ace = pair == 1 || card == 1;
+        if(pair == 1 || value(hard, ace) == 21)
+            result = stand(value(hard, ace)); // split aces and 21 cannot be hit or doubled
+        else
+            result = Math.max(hand(hard, ace)[1], doubleDown(hard, ace));
+
+        if(card == pair && numHands < Blackjack.MAX_HANDS)
+            result = Math.max(result, 2 * splitHand(pair, numHands + 1));
+
+        restore(card);
+        return result;
+    }
+}
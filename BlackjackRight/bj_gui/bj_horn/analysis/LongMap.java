@@ -0,0 +1,115 @@
+package bj_horn.analysis;
+
+import java.util.Arrays;
+
+/**
+ * An open addressing hash map from primitive long keys to values.
+ * Used to memoize states keyed by an encoded shoe composition without
+ * boxing the keys. Not thread safe.
+ * @param <V> the type of the values
+ */
+class LongMap<V>
+{
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    /**
+     * Constructs an empty map
+     */
+    LongMap()
+    {
+        keys = new long[1 << 10];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[keys.length];
+    }
+
+    /**
+     * Returns the value for the specified key or null if there is none
+     * @param key the key (must not be Long.MIN_VALUE)
+     * @return the value for the key or null
+     */
+    @SuppressWarnings("unchecked")
+    V get(long key)
+    {
+        int mask = keys.length - 1;
+        for(int i = hash(key) & mask; keys[i] != EMPTY; i = (i + 1) & mask)
+            if(keys[i] == key)
+                return (V) values[i];
+
+        return null;
+    }
+
+    /**
+     * Associates the value with the specified key
+     * @param key the key (must not be Long.MIN_VALUE)
+     * @param value the value
+     */
+    void put(long key, V value)
+    {
+        if(2 * (size + 1) > keys.length)
+            grow();
+
+        int mask = keys.length - 1;
+        int i = hash(key) & mask;
+        while(keys[i] != EMPTY && keys[i] != key)
+            i = (i + 1) & mask;
+
+        if(keys[i] == EMPTY)
+            size++;
+
+        keys[i] = key;
+        values[i] = value;
+    }
+
+    /**
+     * Returns the number of keys in this map
+     * @return the number of keys in this map
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Removes all keys from this map
+     */
+    void clear()
+    {
+        Arrays.fill(keys, EMPTY);
+        Arrays.fill(values, null);
+        size = 0;
+    }
+
+    private void grow()
+    {
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+
+        keys = new long[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[keys.length];
+
+        int mask = keys.length - 1;
+        for(int j = 0; j < oldKeys.length; j++)
+        {
+            if(oldKeys[j] == EMPTY)
+                continue;
+
+            int i = hash(oldKeys[j]) & mask;
+            while(keys[i] != EMPTY)
+                i = (i + 1) & mask;
+
+            keys[i] = oldKeys[j];
+            values[i] = oldValues[j];
+        }
+    }
+
+    private static int hash(long key)
+    {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int) (key ^ (key >>> 32));
+    }
+}
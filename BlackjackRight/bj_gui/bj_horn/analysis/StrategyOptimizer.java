@@ -0,0 +1,456 @@
+package bj_horn.analysis;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import bj_horn.Action;
+import bj_horn.Blackjack;
+import bj_horn.PlayerStrategy;
+import bj_horn.RoundStatistics;
+import bj_horn.bankroll.RunningStatistics;
+import bj_horn.strategy.BasicStrategy;
+import bj_horn.strategy.StrategyTable;
+
+/**
+ * Improves a strategy table by simulation. Where ChartValidator calculates
+ * expected values under fixed rules, the optimizer plays the rounds with the
+ * bj_horn engine, so its results follow whatever rules the engine plays.
+ *
+ * Each cell (the same 2 card hands as ChartValidator) is evaluated by
+ * stacking the player's cards and the dealer's upcard on a shuffled shoe
+ * and playing every alternative first action on the same cards (common
+ * random numbers); later decisions are taken from the current table.
+ * Rounds in which the dealer has blackjack are not counted. A cell stops
+ * once the best action's result differs from every other action's by more
+ * than the required number of standard errors, or after the maximum number
+ * of trials.
+ *
+ * A pass evaluates every cell in parallel against the same table and then
+ * applies the best actions. Passes are repeated until a pass changes no
+ * cell, so decisions that depend on later decisions (ex: hitting a hard 9
+ * depends on how hard 12 - 16 are played) converge. Every cell is played
+ * from its own seed, the same in every pass, so results do not depend on
+ * the number of threads.
+ *
+ * Usage: java bj_horn.analysis.StrategyOptimizer [decks] [max trials] [seed]
+ */
+public class StrategyOptimizer
+{
+    public static final long DEFAULT_MAX_TRIALS = 1000000;
+    public static final int DEFAULT_MAX_PASSES = 5;
+    public static final double DEFAULT_STANDARD_ERRORS = 3;
+
+    // trials played between checks of whether a cell is decided
+    private static final int BATCH = 1000;
+
+    private static final Action[] TOTAL_ACTIONS = {Action.STAND, Action.HIT, Action.DOUBLE_DOWN};
+    private static final Action[] PAIR_ACTIONS = {Action.STAND, Action.HIT, Action.DOUBLE_DOWN, Action.SPLIT};
+
+    private final int decks;
+    private final ForkJoinPool pool;
+    private final long seed;
+
+    private long maxTrials = DEFAULT_MAX_TRIALS;
+    private int maxPasses = DEFAULT_MAX_PASSES;
+    private double standardErrors = DEFAULT_STANDARD_ERRORS;
+
+    // the results of the last optimization
+    private int passes;
+    private long trials;
+    private int undecidedCells;
+
+    /**
+     * Constructs an optimizer for a shoe with the specified number of decks
+     * @param decks the number of decks
+     * @param pool the pool used to evaluate cells
+     * @param seed the seed from which every cell's shoe is seeded
+     */
+    public StrategyOptimizer(int decks, ForkJoinPool pool, long seed)
+    {
+        this.decks = decks;
+        this.pool = pool;
+        this.seed = seed;
+    }
+
+    /**
+     * Changes the maximum number of trials played for a cell in each pass
+     * (DEFAULT_MAX_TRIALS by default)
+     * @param maxTrials the maximum number of trials
+     *
+     * Precondition: maxTrials > 0
+     */
+    public void setMaxTrials(long maxTrials)
+    {
+        if(maxTrials <= 0)
+            throw new IllegalArgumentException("maxTrials must be > 0");
+
+        this.maxTrials = maxTrials;
+    }
+
+    /**
+     * Changes the maximum number of passes (DEFAULT_MAX_PASSES by default)
+     * @param maxPasses the maximum number of passes
+     *
+     * Precondition: maxPasses > 0
+     */
+    public void setMaxPasses(int maxPasses)
+    {
+        if(maxPasses <= 0)
+            throw new IllegalArgumentException("maxPasses must be > 0");
+
+        this.maxPasses = maxPasses;
+    }
+
+    /**
+     * Changes the number of standard errors by which actions must differ
+     * for a cell to be decided (DEFAULT_STANDARD_ERRORS by default)
+     * @param standardErrors the number of standard errors
+     *
+     * Precondition: standardErrors > 0
+     */
+    public void setStandardErrors(double standardErrors)
+    {
+        if( ! (standardErrors > 0) )
+            throw new IllegalArgumentException("standardErrors must be > 0");
+
+        this.standardErrors = standardErrors;
+    }
+
+    /**
+     * Returns the number of passes made by the last optimization
+     * @return the number of passes
+     */
+    public int getPasses()
+    {
+        return passes;
+    }
+
+    /**
+     * Returns the number of trials played by the last optimization
+     * @return the number of trials
+     */
+    public long getTrials()
+    {
+        return trials;
+    }
+
+    /**
+     * Returns the number of cells that reached the maximum number of trials
+     * without being decided in the last pass of the last optimization.
+     * Their actions are close in value and may differ from run to run.
+     * @return the number of undecided cells
+     */
+    public int getUndecidedCells()
+    {
+        return undecidedCells;
+    }
+
+    /**
+     * Returns a strategy table built by repeatedly replacing each evaluated
+     * cell of the table with its best action. The cells that are not
+     * evaluated are left as in base.
+     * @param base the table to start from
+     * @return the optimized table
+     */
+    public StrategyTable optimize(StrategyTable base)
+    {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        ArrayList<Situation> situations = new ArrayList<Situation>();
+        for(int upcard = 1; upcard <= 10; upcard++)
+        {
+            for(int total = 5; total <= 19; total++)
+            {
+                int low = Math.max(2, total - 10);
+                situations.add(new Situation(ChartValidator.Cell.HARD, total, low, total - low, upcard, seeds.split().nextLong()));
+            }
+
+            for(int total = 13; total <= 20; total++)
+                situations.add(new Situation(ChartValidator.Cell.SOFT, total, 1, total - 11, upcard, seeds.split().nextLong()));
+
+            for(int pair = 1; pair <= 10; pair++)
+                situations.add(new Situation(ChartValidator.Cell.PAIR, pair, pair, pair, upcard, seeds.split().nextLong()));
+        }
+
+        StrategyTable table = new StrategyTable(base);
+        passes = 0;
+        trials = 0;
+        boolean changed = true;
+        while(changed && passes < maxPasses)
+        {
+            StrategyTable next = pass(situations, table);
+            changed = ! next.toString().equals(table.toString());
+            table = next;
+            passes++;
+        }
+
+        return table;
+    }
+
+    /**
+     * Evaluates every cell against the specified table
+     * @return a copy of table with each evaluated cell set to its best action
+     */
+    private StrategyTable pass(ArrayList<Situation> situations, StrategyTable table)
+    {
+        final BasicStrategy strategy = new BasicStrategy(new StrategyTable(table));
+
+        ArrayList<Future<Evaluation>> results = new ArrayList<Future<Evaluation>>();
+        for(final Situation situation : situations)
+        {
+            results.add(pool.submit(new Callable<Evaluation>()
+            {
+                public Evaluation call()
+                {
+                    return evaluate(situation, strategy);
+                }
+            }));
+        }
+
+        StrategyTable next = new StrategyTable(table);
+        undecidedCells = 0;
+        try
+        {
+            for(Future<Evaluation> result : results)
+            {
+                Evaluation evaluation = result.get();
+                evaluation.cell.apply(next);
+                trials += evaluation.trials;
+                if( ! evaluation.decided )
+                    undecidedCells++;
+            }
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("optimization was interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("optimization failed", e.getCause());
+        }
+        return next;
+    }
+
+    /**
+     * Plays trials of every alternative first action in the specified
+     * situation until the cell is decided or the maximum number of trials
+     * @param situation the cell to evaluate
+     * @param strategy plays every decision after the first
+     */
+    private Evaluation evaluate(Situation situation, PlayerStrategy strategy)
+    {
+        TrialShoe shoe = new TrialShoe(decks, situation.seed);
+        Blackjack game = new Blackjack(0, shoe);
+        FirstAction first = new FirstAction(strategy);
+        RoundStatistics rounds = new RoundStatistics();
+
+        Action[] actions = situation.kind == ChartValidator.Cell.PAIR ? PAIR_ACTIONS : TOTAL_ACTIONS;
+        int numActions = Action.values().length;
+
+        // values[a] is the result of action a, differences[a][b] of a minus b (a < b)
+        RunningStatistics[] values = new RunningStatistics[numActions];
+        RunningStatistics[][] differences = new RunningStatistics[numActions][numActions];
+        for(int a = 0; a < numActions; a++)
+        {
+            values[a] = new RunningStatistics();
+            for(int b = a + 1; b < numActions; b++)
+                differences[a][b] = new RunningStatistics();
+        }
+
+        double[] results = new double[numActions];
+        long trials = 0;
+        boolean decided = false;
+        while( ! decided && trials < maxTrials )
+        {
+            long batchEnd = Math.min(trials + BATCH, maxTrials);
+            while(trials < batchEnd)
+            {
+                // dealt player, dealer, player
+                shoe.stack(situation.card1, situation.upcard, situation.card2);
+                int left = shoe.left();
+
+                boolean dealerBlackjack = false;
+                for(int i = 0; i < actions.length; i++)
+                {
+                    if(i > 0)
+                        shoe.undeal(left);
+
+                    first.start(actions[i]);
+                    results[actions[i].ordinal()] = game.playRound(first, 1, rounds);
+
+                    if( ! first.wasAsked() )
+                    {
+                        dealerBlackjack = true;
+                        break;
+                    }
+                }
+                shoe.returnDealt();
+
+                if(dealerBlackjack)
+                    continue;
+
+                for(Action a : actions)
+                {
+                    values[a.ordinal()].add(results[a.ordinal()]);
+                    for(Action b : actions)
+                        if(a.ordinal() < b.ordinal())
+                            differences[a.ordinal()][b.ordinal()].add(results[a.ordinal()] - results[b.ordinal()]);
+                }
+                trials++;
+            }
+
+            decided = isDecided(situation, actions, values, differences);
+        }
+
+        double split = situation.kind == ChartValidator.Cell.PAIR ? values[Action.SPLIT.ordinal()].getMean() : Double.NaN;
+        ActionValues actionValues = new ActionValues(values[Action.STAND.ordinal()].getMean(),
+                values[Action.HIT.ordinal()].getMean(), values[Action.DOUBLE_DOWN.ordinal()].getMean(), split);
+
+        return new Evaluation(new ChartValidator.Cell(situation.kind, situation.total, situation.upcard, actionValues),
+                trials, decided);
+    }
+
+    /**
+     * Returns true if the choices that determine the cell's chart code are
+     * separated: split or not for a pair, otherwise the best action from the
+     * others and, if it is double down, hit from stand
+     */
+    private boolean isDecided(Situation situation, Action[] actions,
+            RunningStatistics[] values, RunningStatistics[][] differences)
+    {
+        if(situation.kind == ChartValidator.Cell.PAIR)
+        {
+            Action best = bestOf(TOTAL_ACTIONS, values);
+            return isSeparated(differences, best, Action.SPLIT);
+        }
+
+        Action best = bestOf(actions, values);
+        for(Action action : actions)
+            if(action != best && ! isSeparated(differences, best, action))
+                return false;
+
+        return best != Action.DOUBLE_DOWN || isSeparated(differences, Action.HIT, Action.STAND);
+    }
+
+    private static Action bestOf(Action[] actions, RunningStatistics[] values)
+    {
+        Action best = actions[0];
+        for(Action action : actions)
+            if(values[action.ordinal()].getMean() > values[best.ordinal()].getMean())
+                best = action;
+        return best;
+    }
+
+    private boolean isSeparated(RunningStatistics[][] differences, Action a, Action b)
+    {
+        RunningStatistics difference = a.ordinal() < b.ordinal()
+                ? differences[a.ordinal()][b.ordinal()] : differences[b.ordinal()][a.ordinal()];
+
+        double standardError = difference.getStandardDeviation() / Math.sqrt(difference.getCount());
+        return Math.abs(difference.getMean()) > standardErrors * standardError;
+    }
+
+    /**
+     * A cell to evaluate: the player's 2 cards and the dealer's upcard
+     */
+    private static class Situation
+    {
+        private final int kind, total, card1, card2, upcard;
+        private final long seed;
+
+        Situation(int kind, int total, int card1, int card2, int upcard, long seed)
+        {
+            this.kind = kind;
+            this.total = total;
+            this.card1 = card1;
+            this.card2 = card2;
+            this.upcard = upcard;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * The result of evaluating a cell in one pass
+     */
+    private static class Evaluation
+    {
+        private final ChartValidator.Cell cell;
+        private final long trials;
+        private final boolean decided;
+
+        Evaluation(ChartValidator.Cell cell, long trials, boolean decided)
+        {
+            this.cell = cell;
+            this.trials = trials;
+            this.decided = decided;
+        }
+    }
+
+    /**
+     * Takes a chosen action for the round's first decision and lets
+     * another strategy make the rest. Used by one thread only.
+     */
+    private static class FirstAction implements PlayerStrategy
+    {
+        private final PlayerStrategy rest;
+        private Action first;
+        private boolean asked;
+
+        FirstAction(PlayerStrategy rest)
+        {
+            this.rest = rest;
+        }
+
+        void start(Action first)
+        {
+            this.first = first;
+            asked = false;
+        }
+
+        boolean wasAsked()
+        {
+            return asked;
+        }
+
+        public Action chooseAction(Blackjack game)
+        {
+            if( ! asked )
+            {
+                asked = true;
+                return first;
+            }
+
+            return rest.chooseAction(game);
+        }
+    }
+
+    public static void main(String[] args)
+    {
+        int decks = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        long maxTrials = args.length > 1 ? Long.parseLong(args[1]) : DEFAULT_MAX_TRIALS;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : new SplittableRandom().nextLong();
+
+        StrategyOptimizer optimizer = new StrategyOptimizer(decks, ForkJoinPool.commonPool(), seed);
+        optimizer.setMaxTrials(maxTrials);
+
+        long start = System.nanoTime();
+        StrategyTable base = BasicStrategy.defaultTable();
+        StrategyTable optimal = optimizer.optimize(base);
+        long nanos = System.nanoTime() - start;
+
+        System.out.println(optimal);
+        System.out.println("Seed: " + seed);
+        System.out.println(String.format("Computed in %.2f s: %d passes, %,d trials, %d undecided cells",
+                nanos / 1e9, optimizer.getPasses(), optimizer.getTrials(), optimizer.getUndecidedCells()));
+
+        String[] baseRows = base.toString().split("\n");
+        String[] optimalRows = optimal.toString().split("\n");
+        for(int row = 0; row < baseRows.length; row++)
+            if( ! baseRows[row].equals(optimalRows[row]) )
+                System.out.println("default chart differs: " + baseRows[row] + "  optimal: " + optimalRows[row]);
+    }
+}
@@ -0,0 +1,175 @@
+package bj_horn.analysis;
+
+import java.util.SplittableRandom;
+
+import bj_horn.Card;
+import bj_horn.Shoe;
+import shuffle.FisherYatesShuffle;
+
+/**
+ * A shoe for StrategyOptimizer's trials: the first cards of a round can be
+ * chosen (stacked) and the cards of a round can be put back and dealt again,
+ * so every alternative action is played on the same cards. It never runs
+ * low, so the game never resets it.
+ *
+ * The cards are kept as card codes (see Card.getCode()), as in Shoe:
+ * cards[0] up to but excluding size are left (the last of them is dealt
+ * next) and the cards dealt since the last return follow them.
+ *
+ * A trial shoe extends Shoe only so a Blackjack game can deal from it. It
+ * keeps no running count, so getRunningCount(), getTrueCount() and
+ * returnDealtCards() (use returnDealt()) throw UnsupportedOperationException.
+ * reset(), the counting system and the shuffle strategy belong to the unused
+ * one deck Shoe it was constructed as and do not affect the trial's cards.
+ */
+class TrialShoe extends Shoe
+{
+    private final int decks;
+    private final long seed;
+    private final SplittableRandom random;
+    private final int[] cards;
+    private int size;
+
+    /**
+     * Constructs a shuffled shoe with the specified number of decks
+     * @param decks the number of decks
+     * @param seed the seed for this shoe's random number generator
+     */
+    TrialShoe(int decks, long seed)
+    {
+        super(1, 0);
+
+        this.decks = decks;
+        this.seed = seed;
+        random = new SplittableRandom(seed);
+        cards = new int[Card.NUM_CODES * decks];
+        for(int i = 0; i < cards.length; i++)
+            cards[i] = i % Card.NUM_CODES;
+
+        new FisherYatesShuffle().shuffle(cards, random);
+        size = cards.length;
+    }
+
+    /**
+     * Moves cards of the specified values to the top of this shoe so they
+     * are dealt next, in the order given. Each is chosen at random among the
+     * cards of its value left in the shoe, so the cards below stay in a
+     * random order.
+     * @param values the values (1 - 10, 10 for any ten-valued card) in the order they will be dealt
+     *
+     * Precondition: cards of the values are left in this shoe
+     */
+    void stack(int... values)
+    {
+        for(int i = 0; i < values.length; i++)
+        {
+            int top = size - 1 - i;
+            int value = values[i];
+
+            int matches = 0;
+            for(int j = 0; j <= top; j++)
+                if(tenValue(cards[j]) == value)
+                    matches++;
+
+            if(matches == 0)
+                throw new IllegalArgumentException("no card of value " + value + " is left in this shoe");
+
+            // swap a random match to the top
+            int match = random.nextInt(matches);
+            for(int j = 0; j <= top; j++)
+            {
+                if(tenValue(cards[j]) == value && match-- == 0)
+                {
+                    int card = cards[j];
+                    cards[j] = cards[top];
+                    cards[top] = card;
+                    break;
+                }
+            }
+        }
+    }
+
+    private static int tenValue(int card)
+    {
+        return Math.min(Card.fromCode(card).getValue(), 10);
+    }
+
+    /**
+     * Returns the number of cards left in this shoe
+     * @return the number of cards left
+     */
+    int left()
+    {
+        return size;
+    }
+
+    /**
+     * Puts the cards dealt since this shoe had the specified number of cards
+     * left back on top, so the same cards are dealt again in the same order
+     * @param left the number of cards left (see left()) before the cards were dealt
+     *
+     * Precondition: left() <= left and no cards have been returned since
+     */
+    void undeal(int left)
+    {
+        if( ! (size <= left && left <= cards.length) )
+            throw new IllegalArgumentException("left must be left() - " + cards.length);
+
+        size = left;
+    }
+
+    /**
+     * Returns every dealt card to this shoe, each at a uniformly random
+     * position among the cards left, so the next trial is dealt from a
+     * full shoe in a random order
+     */
+    void returnDealt()
+    {
+        FisherYatesShuffle.insert(cards, size, random);
+        size = cards.length;
+    }
+
+    /**
+     * Returns the top card of this shoe
+     * @return the top card
+     *
+     * Precondition: left() > 0
+     */
+    public Card dealCard()
+    {
+        if(size == 0)
+            throw new IllegalStateException("shoe is empty");
+
+        return Card.fromCode(cards[--size]);
+    }
+
+    public int cardsLeft()
+    {
+        return Integer.MAX_VALUE;
+    }
+
+    public int getDecks()
+    {
+        return decks;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public int getRunningCount()
+    {
+        throw new UnsupportedOperationException("a trial shoe does not keep a running count");
+    }
+
+    public double getTrueCount()
+    {
+        throw new UnsupportedOperationException("a trial shoe does not keep a running count");
+    }
+
+    public void returnDealtCards()
+    {
+        throw new UnsupportedOperationException("use returnDealt()");
+    }
+}
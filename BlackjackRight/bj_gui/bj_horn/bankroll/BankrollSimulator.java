@@ -0,0 +1,310 @@
+package bj_horn.bankroll;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import bj_horn.BetPolicy;
+import bj_horn.Blackjack;
+import bj_horn.PlayerStrategy;
+import bj_horn.strategy.BasicStrategy;
+import bj_horn.strategy.BetSpread;
+
+/**
+ * Simulates many independent sessions (bankroll trajectories) of a player
+ * with a fixed starting bankroll, in parallel, to measure risk of ruin,
+ * N0 and the distribution of session results.
+ *
+ * A session ends when the bankroll cannot cover the bet the bet policy
+ * asks for (ruin), when the player has lost the stop loss, won the win
+ * goal, or played the maximum number of rounds. A bet only has to be
+ * covered when it is placed, so doubles and splits may briefly take the
+ * bankroll below 0. Results are streamed into BankrollStatistics, so
+ * memory does not grow with the number of sessions or rounds.
+ *
+ * Each thread plays its sessions one after another at one table, whose
+ * shoe is seeded from a stream split off the simulator's seed, so a run
+ * with the same seed and number of threads replays exactly.
+ *
+ * Usage: java bj_horn.bankroll.BankrollSimulator [sessions] [bankroll] [max units]
+ *        [max rounds] [stop loss] [win goal] [threads] [seed]
+ *
+ * Amounts are in units of the smallest bet; a stop loss or win goal of 0 means none.
+ */
+public class BankrollSimulator
+{
+    public static final long DEFAULT_MAX_ROUNDS = 100000;
+
+    private final PlayerStrategy strategy;
+    private final BetPolicy betPolicy;
+    private final double bankroll;
+    private final int threads;
+    private final long seed;
+
+    private double stopLoss = Double.POSITIVE_INFINITY;
+    private double winGoal = Double.POSITIVE_INFINITY;
+    private long maxRounds = DEFAULT_MAX_ROUNDS;
+
+    /**
+     * Constructs a simulator of sessions with the specified starting bankroll
+     * @param strategy the player's strategy (shared by all threads)
+     * @param betPolicy chooses each round's bet (shared by all threads)
+     * @param bankroll the bankroll at the start of each session
+     * @param threads the number of threads
+     * @param seed the seed from which every table's shoe is seeded
+     *
+     * Precondition: bankroll > 0 && threads > 0
+     */
+    public BankrollSimulator(PlayerStrategy strategy, BetPolicy betPolicy, double bankroll, int threads, long seed)
+    {
+        if( ! (bankroll > 0) )
+            throw new IllegalArgumentException("bankroll must be > 0");
+
+        if(threads <= 0)
+            throw new IllegalArgumentException("threads must be > 0");
+
+        this.strategy = strategy;
+        this.betPolicy = betPolicy;
+        this.bankroll = bankroll;
+        this.threads = threads;
+        this.seed = seed;
+    }
+
+    /**
+     * Changes the loss at which a session ends (none by default)
+     * @param stopLoss the loss or positive infinity for none
+     *
+     * Precondition: stopLoss > 0
+     */
+    public void setStopLoss(double stopLoss)
+    {
+        if( ! (stopLoss > 0) )
+            throw new IllegalArgumentException("stopLoss must be > 0");
+
+        this.stopLoss = stopLoss;
+    }
+
+    /**
+     * Changes the win at which a session ends (none by default)
+     * @param winGoal the win or positive infinity for none
+     *
+     * Precondition: winGoal > 0
+     */
+    public void setWinGoal(double winGoal)
+    {
+        if( ! (winGoal > 0) )
+            throw new IllegalArgumentException("winGoal must be > 0");
+
+        this.winGoal = winGoal;
+    }
+
+    /**
+     * Changes the maximum number of rounds in a session (DEFAULT_MAX_ROUNDS by default)
+     * @param maxRounds the maximum number of rounds
+     *
+     * Precondition: maxRounds > 0
+     */
+    public void setMaxRounds(long maxRounds)
+    {
+        if(maxRounds <= 0)
+            throw new IllegalArgumentException("maxRounds must be > 0");
+
+        this.maxRounds = maxRounds;
+    }
+
+    /**
+     * Returns the seed from which every table's shoe is seeded
+     * @return the seed of this simulator
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Plays the specified number of sessions spread across all threads
+     * @param sessions the number of sessions
+     * @return the merged results of all sessions
+     *
+     * Precondition: sessions >= 0
+     */
+    public BankrollStatistics run(long sessions)
+    {
+        if(sessions < 0)
+            throw new IllegalArgumentException("sessions must be >= 0");
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try
+        {
+            ArrayList<Future<BankrollStatistics>> results = new ArrayList<Future<BankrollStatistics>>();
+            for(int thread = 0; thread < threads; thread++)
+            {
+                final long threadSessions = sessions / threads + (thread < sessions % threads ? 1 : 0);
+                final long threadSeed = seeds.split().nextLong();
+
+                results.add(executor.submit(new Callable<BankrollStatistics>()
+                {
+                    public BankrollStatistics call()
+                    {
+                        return playSessions(threadSessions, threadSeed);
+                    }
+                }));
+            }
+
+            BankrollStatistics total = new BankrollStatistics();
+            for(Future<BankrollStatistics> result : results)
+                total.merge(result.get());
+
+            return total;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("simulation was interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("simulation failed", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private BankrollStatistics playSessions(long sessions, long tableSeed)
+    {
+        Blackjack game = new Blackjack(0, tableSeed);
+        BankrollStatistics stats = new BankrollStatistics();
+
+        for(long session = 0; session < sessions; session++)
+            playSession(game, stats);
+
+        return stats;
+    }
+
+    /**
+     * Plays one session at the specified table and records it
+     * @param game the table, which keeps its shoe from session to session
+     * @param stats the statistics to update
+     */
+    private void playSession(Blackjack game, BankrollStatistics stats)
+    {
+        double money = bankroll;
+        double high = bankroll;
+        double maxDrawdown = 0;
+        long rounds = 0;
+
+        SessionEnd end;
+        while(true)
+        {
+            if(rounds == maxRounds)
+            {
+                end = SessionEnd.ROUND_LIMIT;
+                break;
+            }
+
+            double bet = betPolicy.nextBet(game);
+            if(bet > money)
+            {
+                end = SessionEnd.RUIN;
+                break;
+            }
+
+            double net = game.playRound(strategy, bet, stats.getRoundStatistics());
+            stats.recordRound(net);
+            money += net;
+            rounds++;
+
+            if(money > high)
+                high = money;
+            else if(high - money > maxDrawdown)
+                maxDrawdown = high - money;
+
+            if(bankroll - money >= stopLoss)
+            {
+                end = SessionEnd.STOP_LOSS;
+                break;
+            }
+
+            if(money - bankroll >= winGoal)
+            {
+                end = SessionEnd.WIN_GOAL;
+                break;
+            }
+        }
+
+        stats.recordSession(end, money - bankroll, rounds, maxDrawdown);
+    }
+
+    /**
+     * Returns a multi-line report of the specified results
+     * @param stats the results to report
+     * @param nanos the time taken to produce the results
+     * @return the report
+     */
+    public static String report(BankrollStatistics stats, long nanos)
+    {
+        double seconds = nanos / 1e9;
+        long rounds = stats.getRoundNet().getCount();
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Sessions:          %,d%n", stats.getSessions()));
+        report.append(String.format("Rounds:            %,d%n", rounds));
+        report.append(String.format("Rounds / second:   %,.0f%n", rounds / seconds));
+        for(SessionEnd end : SessionEnd.values())
+            report.append(String.format("%-18s %.5f (+/- %.5f)%n", end + ":",
+                    stats.getProbability(end), stats.getStandardError(end)));
+        report.append(String.format("EV per round:      %+.5f%n", stats.getRoundNet().getMean()));
+        report.append(String.format("SD per round:      %.4f%n", stats.getRoundNet().getStandardDeviation()));
+        report.append(String.format("N0:                %,.0f rounds%n", stats.getN0()));
+        report.append(String.format("Session net:       mean %+.2f, sd %.2f%n",
+                stats.getSessionNet().getMean(), stats.getSessionNet().getStandardDeviation()));
+        report.append(String.format("Session rounds:    mean %,.0f%n", stats.getSessionRounds().getMean()));
+
+        double[] quantiles = {0.01, 0.05, 0.25, 0.5, 0.75, 0.95, 0.99};
+        report.append(String.format("%-18s %12s %12s %12s%n", "Quantile", "net", "rounds", "drawdown"));
+        for(double quantile : quantiles)
+            report.append(String.format("%-18s %12.2f %,12.0f %12.2f%n", quantile,
+                    stats.getSessionNetQuantiles().getQuantile(quantile),
+                    stats.getSessionRoundsQuantiles().getQuantile(quantile),
+                    stats.getDrawdownQuantiles().getQuantile(quantile)));
+
+        return report.toString();
+    }
+
+    public static void main(String[] args)
+    {
+        long sessions = args.length > 0 ? Long.parseLong(args[0]) : 10000L;
+        double bankroll = args.length > 1 ? Double.parseDouble(args[1]) : 200;
+        int maxUnits = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+        long maxRounds = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_MAX_ROUNDS;
+        double stopLoss = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+        double winGoal = args.length > 5 ? Double.parseDouble(args[5]) : 0;
+        int threads = args.length > 6 ? Integer.parseInt(args[6]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 7 ? Long.parseLong(args[7]) : new SplittableRandom().nextLong();
+
+        BetSpread spread = new BetSpread(1, maxUnits);
+        BankrollSimulator simulator = new BankrollSimulator(new BasicStrategy(), spread, bankroll, threads, seed);
+        simulator.setMaxRounds(maxRounds);
+        if(stopLoss > 0)
+            simulator.setStopLoss(stopLoss);
+        if(winGoal > 0)
+            simulator.setWinGoal(winGoal);
+
+        System.out.println("Seed:              " + seed);
+        System.out.println("Bankroll:          " + bankroll + ", " + spread);
+
+        long start = System.nanoTime();
+        BankrollStatistics stats = simulator.run(sessions);
+        long nanos = System.nanoTime() - start;
+
+        System.out.print(report(stats, nanos));
+    }
+}
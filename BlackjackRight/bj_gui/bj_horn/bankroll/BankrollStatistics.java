@@ -0,0 +1,203 @@
+package bj_horn.bankroll;
+
+import bj_horn.RoundStatistics;
+
+/**
+ * The results of many simulated sessions (bankroll trajectories), kept in
+ * constant memory: how each session ended, streaming statistics and
+ * quantile sketches of each session's net result, length and largest
+ * drawdown, and the statistics of every round played.
+ */
+public class BankrollStatistics
+{
+    private final long[] ends = new long[SessionEnd.values().length];
+
+    private final RunningStatistics roundNet = new RunningStatistics();
+    private final RoundStatistics rounds = new RoundStatistics();
+
+    private final RunningStatistics sessionNet = new RunningStatistics();
+    private final QuantileSketch sessionNetQuantiles = new QuantileSketch();
+    private final RunningStatistics sessionRounds = new RunningStatistics();
+    private final QuantileSketch sessionRoundsQuantiles = new QuantileSketch();
+    private final QuantileSketch drawdownQuantiles = new QuantileSketch();
+
+    /**
+     * Records the net result of one round in money
+     * @param net the round's net result
+     */
+    void recordRound(double net)
+    {
+        roundNet.add(net);
+    }
+
+    /**
+     * Records a finished session
+     * @param end why the session ended
+     * @param net the session's net result
+     * @param length the number of rounds played
+     * @param maxDrawdown the largest drop from a high of the bankroll
+     */
+    void recordSession(SessionEnd end, double net, long length, double maxDrawdown)
+    {
+        ends[end.ordinal()]++;
+
+        sessionNet.add(net);
+        sessionNetQuantiles.add(net);
+        sessionRounds.add(length);
+        sessionRoundsQuantiles.add(length);
+        drawdownQuantiles.add(maxDrawdown);
+    }
+
+    /**
+     * Returns the statistics updated by every round, in units of each round's initial bet
+     * @return the round statistics
+     */
+    RoundStatistics getRoundStatistics()
+    {
+        return rounds;
+    }
+
+    /**
+     * Adds the results recorded by other to these results
+     * @param other the results to add
+     */
+    public void merge(BankrollStatistics other)
+    {
+        for(int i = 0; i < ends.length; i++)
+            ends[i] += other.ends[i];
+
+        roundNet.merge(other.roundNet);
+        rounds.merge(other.rounds);
+        sessionNet.merge(other.sessionNet);
+        sessionNetQuantiles.merge(other.sessionNetQuantiles);
+        sessionRounds.merge(other.sessionRounds);
+        sessionRoundsQuantiles.merge(other.sessionRoundsQuantiles);
+        drawdownQuantiles.merge(other.drawdownQuantiles);
+    }
+
+    /**
+     * Returns the number of sessions recorded
+     * @return the number of sessions
+     */
+    public long getSessions()
+    {
+        return sessionNet.getCount();
+    }
+
+    /**
+     * Returns the number of sessions that ended the specified way
+     * @param end how the sessions ended
+     * @return the number of sessions
+     */
+    public long getSessions(SessionEnd end)
+    {
+        return ends[end.ordinal()];
+    }
+
+    /**
+     * Returns the fraction of sessions that ended the specified way
+     * @param end how the sessions ended
+     * @return the fraction of sessions (0 if none were recorded)
+     */
+    public double getProbability(SessionEnd end)
+    {
+        long sessions = getSessions();
+        return sessions == 0 ? 0 : (double) getSessions(end) / sessions;
+    }
+
+    /**
+     * Returns the fraction of sessions that ended in ruin
+     * @return the risk of ruin
+     */
+    public double getRiskOfRuin()
+    {
+        return getProbability(SessionEnd.RUIN);
+    }
+
+    /**
+     * Returns the standard error of the specified probability
+     * @param end how the sessions ended
+     * @return the standard error of getProbability(end)
+     */
+    public double getStandardError(SessionEnd end)
+    {
+        double p = getProbability(end);
+        long sessions = getSessions();
+        return sessions == 0 ? 0 : Math.sqrt(p * (1 - p) / sessions);
+    }
+
+    /**
+     * Returns the statistics of every round's net result in money
+     * @return the round results
+     */
+    public RunningStatistics getRoundNet()
+    {
+        return roundNet;
+    }
+
+    /**
+     * Returns the outcome frequencies of every round, in units of each round's initial bet
+     * @return the round statistics
+     */
+    public RoundStatistics getRounds()
+    {
+        return rounds;
+    }
+
+    /**
+     * Returns N0: the number of rounds after which the expected result
+     * equals one standard deviation (the variance of a round's result
+     * divided by the square of its mean)
+     * @return N0 (infinite if the mean is 0)
+     */
+    public double getN0()
+    {
+        double mean = roundNet.getMean();
+        return roundNet.getVariance() / (mean * mean);
+    }
+
+    /**
+     * Returns the statistics of each session's net result
+     * @return the session results
+     */
+    public RunningStatistics getSessionNet()
+    {
+        return sessionNet;
+    }
+
+    /**
+     * Returns the quantiles of each session's net result
+     * @return the session result quantiles
+     */
+    public QuantileSketch getSessionNetQuantiles()
+    {
+        return sessionNetQuantiles;
+    }
+
+    /**
+     * Returns the statistics of the number of rounds in each session
+     * @return the session lengths
+     */
+    public RunningStatistics getSessionRounds()
+    {
+        return sessionRounds;
+    }
+
+    /**
+     * Returns the quantiles of the number of rounds in each session
+     * @return the session length quantiles
+     */
+    public QuantileSketch getSessionRoundsQuantiles()
+    {
+        return sessionRoundsQuantiles;
+    }
+
+    /**
+     * Returns the quantiles of each session's largest drop from a high of the bankroll
+     * @return the drawdown quantiles
+     */
+    public QuantileSketch getDrawdownQuantiles()
+    {
+        return drawdownQuantiles;
+    }
+}
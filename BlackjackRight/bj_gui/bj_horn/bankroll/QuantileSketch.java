@@ -0,0 +1,141 @@
+package bj_horn.bankroll;
+
+/**
+ * Estimates quantiles of a stream of values in constant memory.
+ *
+ * Values are counted in buckets whose bounds grow geometrically by GAMMA,
+ * separately for positive and negative values, so every quantile is
+ * reported within RELATIVE_ACCURACY of a value that was added (the
+ * DDSketch scheme). Values smaller in magnitude than MIN_MAGNITUDE are
+ * counted as 0 and larger than MAX_MAGNITUDE in the last bucket. Sketches
+ * accumulated separately can be merged.
+ */
+public class QuantileSketch
+{
+    public static final double RELATIVE_ACCURACY = 0.01;
+    public static final double MIN_MAGNITUDE = 1e-6;
+    public static final double MAX_MAGNITUDE = 1e15;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int BUCKETS = (int) Math.ceil(Math.log(MAX_MAGNITUDE / MIN_MAGNITUDE) / LOG_GAMMA) + 1;
+
+    private final long[] positive = new long[BUCKETS];
+    private final long[] negative = new long[BUCKETS];
+    private long zeros;
+    private long count;
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds a value
+     * @param value the value
+     *
+     * Precondition: value is not NaN
+     */
+    public void add(double value)
+    {
+        if(Double.isNaN(value))
+            throw new IllegalArgumentException("value must not be NaN");
+
+        count++;
+        if(value < min)
+            min = value;
+        if(value > max)
+            max = value;
+
+        if(value >= MIN_MAGNITUDE)
+            positive[index(value)]++;
+        else if(value <= -MIN_MAGNITUDE)
+            negative[index(-value)]++;
+        else
+            zeros++;
+    }
+
+    private static int index(double magnitude)
+    {
+        int index = (int) Math.ceil(Math.log(magnitude / MIN_MAGNITUDE) / LOG_GAMMA);
+        return Math.max(0, Math.min(BUCKETS - 1, index));
+    }
+
+    /**
+     * Returns the value within RELATIVE_ACCURACY of every magnitude counted in a bucket
+     */
+    private static double value(int index)
+    {
+        return MIN_MAGNITUDE * Math.pow(GAMMA, index) * 2 / (GAMMA + 1);
+    }
+
+    /**
+     * Adds the values added to other to this sketch
+     * @param other the sketch to add
+     */
+    public void merge(QuantileSketch other)
+    {
+        for(int i = 0; i < BUCKETS; i++)
+        {
+            positive[i] += other.positive[i];
+            negative[i] += other.negative[i];
+        }
+        zeros += other.zeros;
+        count += other.count;
+
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of values added
+     * @return the count
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns an estimate of the specified quantile of the values added
+     * @param quantile the quantile (ex: 0.5 for the median)
+     * @return the estimate (NaN if no values were added)
+     *
+     * Precondition: 0 <= quantile && quantile <= 1
+     */
+    public double getQuantile(double quantile)
+    {
+        if( ! (0 <= quantile && quantile <= 1) )
+            throw new IllegalArgumentException("quantile must be >= 0 and <= 1");
+
+        if(count == 0)
+            return Double.NaN;
+
+        long rank = (long) (quantile * (count - 1));
+        long seen = 0;
+
+        // the most negative values are in the last negative bucket
+        for(int i = BUCKETS - 1; i >= 0; i--)
+        {
+            seen += negative[i];
+            if(seen > rank)
+                return clamp(-value(i));
+        }
+
+        seen += zeros;
+        if(seen > rank)
+            return clamp(0);
+
+        for(int i = 0; i < BUCKETS; i++)
+        {
+            seen += positive[i];
+            if(seen > rank)
+                return clamp(value(i));
+        }
+
+        return max;
+    }
+
+    private double clamp(double value)
+    {
+        return Math.max(min, Math.min(max, value));
+    }
+}
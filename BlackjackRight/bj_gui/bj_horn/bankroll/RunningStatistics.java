@@ -0,0 +1,107 @@
+package bj_horn.bankroll;
+
+/**
+ * The count, mean, variance, minimum and maximum of a stream of values,
+ * kept in constant memory with Welford's method. Statistics accumulated
+ * separately (ex: by different threads) can be merged.
+ */
+public class RunningStatistics
+{
+    private long count;
+    private double mean;
+    private double sumOfSquaredDeviations;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /**
+     * Adds a value
+     * @param value the value
+     */
+    public void add(double value)
+    {
+        count++;
+        double deviation = value - mean;
+        mean += deviation / count;
+        sumOfSquaredDeviations += deviation * (value - mean);
+
+        if(value < min)
+            min = value;
+        if(value > max)
+            max = value;
+    }
+
+    /**
+     * Adds the values added to other to these statistics
+     * @param other the statistics to add
+     */
+    public void merge(RunningStatistics other)
+    {
+        if(other.count == 0)
+            return;
+
+        long total = count + other.count;
+        double deviation = other.mean - mean;
+
+        mean += deviation * other.count / total;
+        sumOfSquaredDeviations += other.sumOfSquaredDeviations
+                + deviation * deviation * ((double) count * other.count / total);
+        count = total;
+
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Returns the number of values added
+     * @return the count
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the mean of the values added
+     * @return the mean (0 if no values were added)
+     */
+    public double getMean()
+    {
+        return mean;
+    }
+
+    /**
+     * Returns the sample variance of the values added
+     * @return the variance (0 if fewer than 2 values were added)
+     */
+    public double getVariance()
+    {
+        return count < 2 ? 0 : sumOfSquaredDeviations / (count - 1);
+    }
+
+    /**
+     * Returns the sample standard deviation of the values added
+     * @return the standard deviation
+     */
+    public double getStandardDeviation()
+    {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * Returns the smallest value added
+     * @return the minimum (positive infinity if no values were added)
+     */
+    public double getMin()
+    {
+        return min;
+    }
+
+    /**
+     * Returns the largest value added
+     * @return the maximum (negative infinity if no values were added)
+     */
+    public double getMax()
+    {
+        return max;
+    }
+}
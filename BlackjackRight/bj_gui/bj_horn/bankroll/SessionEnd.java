@@ -0,0 +1,27 @@
+package bj_horn.bankroll;
+
+/**
+ * Why a simulated player stopped playing
+ */
+public enum SessionEnd
+{
+    /**
+     * the bankroll could not cover the next bet
+     */
+    RUIN,
+
+    /**
+     * the player lost the stop loss
+     */
+    STOP_LOSS,
+
+    /**
+     * the player won the win goal
+     */
+    WIN_GOAL,
+
+    /**
+     * the player played the maximum number of rounds
+     */
+    ROUND_LIMIT
+}
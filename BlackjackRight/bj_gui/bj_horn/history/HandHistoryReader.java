@@ -0,0 +1,195 @@
+package bj_horn.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * Streams the completed rounds of a hand history directory written by
+ * HandHistoryWriter, one segment mapped at a time. A round that was not
+ * completed (the writer's process stopped during the round) ends its segment
+ * and reading continues with the next segment, as does a round that does not
+ * match its CRC-32 (it was cut short by an operating system crash).
+ * Segments do not depend on each other, so separate readers can read
+ * separate segments of one directory in parallel.
+ */
+public class HandHistoryReader implements Closeable
+{
+    private final File directory;
+    private final int[] segments;
+    private int nextSegment;
+
+    private int segment = -1;
+    private ByteBuffer buffer;
+    private ByteBuffer round;
+    private final CRC32 crc = new CRC32();
+    private long rounds;
+    private int segmentRounds;
+
+    /**
+     * Constructs a reader for the segments in the specified directory
+     * @param directory the directory of the segment files
+     */
+    public HandHistoryReader(File directory) throws IOException
+    {
+        this(directory, listSegments(directory));
+    }
+
+    /**
+     * Constructs a reader for the specified segments of a directory
+     * @param directory the directory of the segment files
+     * @param segments the indexes of the segments to read, in order
+     */
+    public HandHistoryReader(File directory, int[] segments)
+    {
+        this.directory = directory;
+        this.segments = segments.clone();
+    }
+
+    /**
+     * Returns the indexes of the segment files in the specified directory, in order
+     * @param directory the directory of the segment files
+     * @return the sorted segment indexes
+     */
+    public static int[] listSegments(File directory) throws IOException
+    {
+        String[] names = directory.list();
+        if(names == null)
+            throw new IOException("cannot list " + directory);
+
+        int[] indexes = new int[names.length];
+        int count = 0;
+        for(String name : names)
+        {
+            int index = HistoryFormat.segmentIndex(name);
+            if(index >= 0)
+                indexes[count++] = index;
+        }
+
+        int[] segments = Arrays.copyOf(indexes, count);
+        Arrays.sort(segments);
+        return segments;
+    }
+
+    /**
+     * Advances to the next completed round
+     * @return true if there is another round, false at the end of the log
+     */
+    public boolean next() throws IOException
+    {
+        while(true)
+        {
+            if(buffer != null && buffer.remaining() >= HistoryFormat.FRAME_HEADER_SIZE)
+            {
+                int length = buffer.getInt();
+                int checksum = buffer.getInt();
+                if(length > 0 && length <= HistoryFormat.MAX_ROUND_SIZE - HistoryFormat.FRAME_HEADER_SIZE
+                        && length <= buffer.remaining())
+                {
+                    round.limit(buffer.position() + length);
+                    round.position(buffer.position());
+                    crc.reset();
+                    crc.update(round);
+
+                    if((int) crc.getValue() == checksum)
+                    {
+                        round.position(buffer.position());
+                        buffer.position(buffer.position() + length);
+                        rounds++;
+                        segmentRounds++;
+                        return true;
+                    }
+                }
+                // 0 ends an incomplete segment, END_OF_SEGMENT a full one and
+                // any other length or a wrong checksum a round cut short by a crash
+            }
+
+            if(nextSegment == segments.length)
+            {
+                buffer = null;
+                return false;
+            }
+
+            openSegment(segments[nextSegment++]);
+        }
+    }
+
+    private void openSegment(int index) throws IOException
+    {
+        File file = new File(directory, HistoryFormat.segmentName(index));
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try
+        {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+        finally
+        {
+            // the mapping remains valid after the file is closed
+            raf.close();
+        }
+
+        if(buffer.remaining() < HistoryFormat.HEADER_SIZE
+                || buffer.getInt() != HistoryFormat.MAGIC
+                || buffer.getShort() != HistoryFormat.VERSION)
+            throw new IOException(file + " is not a hand history segment");
+
+        buffer.getShort();
+        round = buffer.duplicate();
+        segment = index;
+        segmentRounds = 0;
+    }
+
+    /**
+     * Returns the current round, positioned at its first byte and limited to its
+     * last. The same buffer is returned (and repositioned) for every round.
+     * @return the current round
+     *
+     * Precondition: next() returned true
+     */
+    public ByteBuffer round()
+    {
+        if(buffer == null)
+            throw new IllegalStateException("no current round");
+
+        return round;
+    }
+
+    /**
+     * Returns the index of the segment containing the current round
+     * @return the current segment
+     */
+    public int getSegment()
+    {
+        return segment;
+    }
+
+    /**
+     * Returns the number of the current round in its segment (1 for the first round)
+     * @return the current round's number in its segment
+     */
+    public int getSegmentRound()
+    {
+        return segmentRounds;
+    }
+
+    /**
+     * Returns the number of rounds read
+     * @return the number of rounds read
+     */
+    public long getRounds()
+    {
+        return rounds;
+    }
+
+    public void close()
+    {
+        buffer = null;
+        round = null;
+        nextSegment = segments.length;
+    }
+}
@@ -0,0 +1,302 @@
+package bj_horn.history;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import bj_horn.Card;
+import bj_horn.RoundListener;
+
+/**
+ * Records every round of a Blackjack game (see Blackjack.setRoundListener)
+ * to memory-mapped segment files in the format described by HistoryFormat.
+ *
+ * Events are written straight into the mapped segment. When a round is
+ * settled its CRC-32 is written and then its length, which completes it.
+ *
+ * If the process crashes (including a JVM crash or kill -9), only the round
+ * in progress is lost: the mapped pages belong to the operating system,
+ * which writes them to the file anyway.
+ *
+ * If the operating system crashes or the power fails, the rounds settled
+ * since the last sync() may be lost. The operating system writes pages back
+ * in any order, so such a round may reach the device in part (ex: its length
+ * without the rest of it); the reader detects it by its CRC-32 and ends the
+ * segment there. Rounds completed before the last sync() are on the device,
+ * as is each segment's file and (where the platform allows forcing a
+ * directory, as Linux and macOS do) its directory entry, forced when the
+ * segment is created. sync() is called by the sync policy (see
+ * setSyncPolicy; by default at least once a second while rounds are being
+ * settled), when a segment is filled and when the writer is closed.
+ *
+ * A new writer never modifies existing segments; it starts a segment after
+ * the last one in the directory. A writer records one game and, like the
+ * game, is not thread safe.
+ */
+public class HandHistoryWriter implements RoundListener, Closeable
+{
+    public static final int DEFAULT_SEGMENT_SIZE = 64 << 20;
+    public static final long DEFAULT_SYNC_MILLIS = 1000;
+
+    private final File directory;
+    private final int segmentSize;
+
+    private int segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private ByteBuffer round;
+    private final CRC32 crc = new CRC32();
+
+    // the position of the round in progress or -1 if no round is in progress
+    private int roundStart = -1;
+
+    private int syncRounds;
+    private long syncNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SYNC_MILLIS);
+    private int unsyncedRounds;
+    private long lastSync = System.nanoTime();
+
+    /**
+     * Constructs a writer with the default segment size
+     * @param directory the directory of the segment files (created if necessary)
+     */
+    public HandHistoryWriter(File directory) throws IOException
+    {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Constructs a writer
+     * @param directory the directory of the segment files (created if necessary)
+     * @param segmentSize the size of each segment file in bytes
+     *
+     * Precondition: segmentSize >= HistoryFormat.HEADER_SIZE + HistoryFormat.MAX_ROUND_SIZE + 4
+     */
+    public HandHistoryWriter(File directory, int segmentSize) throws IOException
+    {
+        if(segmentSize < HistoryFormat.HEADER_SIZE + HistoryFormat.MAX_ROUND_SIZE + 4)
+            throw new IllegalArgumentException("segmentSize is too small to hold a round");
+
+        if( ! directory.isDirectory() && ! directory.mkdirs() )
+            throw new IOException("cannot create " + directory);
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+
+        segment = -1;
+        String[] names = directory.list();
+        if(names != null)
+            for(String name : names)
+                segment = Math.max(segment, HistoryFormat.segmentIndex(name));
+
+        openSegment(segment + 1);
+    }
+
+    /**
+     * Sets how often settled rounds are forced to the storage device (see
+     * sync()). When a round is settled, the writer syncs if either limit has
+     * been reached. The time is only checked when a round is settled, so the
+     * last rounds of a game that stops playing are synced by close().
+     * @param rounds the number of rounds between syncs (1 syncs every round, 0 for no limit)
+     * @param millis the time between syncs in milliseconds (0 for no limit)
+     *
+     * Precondition: rounds >= 0 && millis >= 0
+     */
+    public void setSyncPolicy(int rounds, long millis)
+    {
+        if(rounds < 0 || millis < 0)
+            throw new IllegalArgumentException("rounds and millis must be >= 0");
+
+        syncRounds = rounds;
+        syncNanos = TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    /**
+     * Returns the index of the segment being written
+     * @return the index of the current segment
+     */
+    public int getSegment()
+    {
+        return segment;
+    }
+
+    private void openSegment(int index) throws IOException
+    {
+        File file = new File(directory, HistoryFormat.segmentName(index));
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try
+        {
+            if(raf.length() != 0)
+                throw new IOException(file + " already exists");
+
+            channel = raf.getChannel();
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            channel.force(true);
+        }
+        catch(IOException e)
+        {
+            raf.close();
+            throw e;
+        }
+        forceDirectory();
+
+        segment = index;
+        round = buffer.duplicate();
+        buffer.putInt(HistoryFormat.MAGIC);
+        buffer.putShort(HistoryFormat.VERSION);
+        buffer.putShort((short) 0);
+    }
+
+    /**
+     * Forces the directory's entries (a new segment's name) to the storage device
+     */
+    private void forceDirectory()
+    {
+        try
+        {
+            FileChannel entries = FileChannel.open(directory.toPath(), StandardOpenOption.READ);
+            try
+            {
+                entries.force(true);
+            }
+            finally
+            {
+                entries.close();
+            }
+        }
+        catch(IOException e)
+        {
+            // directories cannot be opened or forced on every platform (ex: Windows)
+        }
+    }
+
+    /**
+     * Forces completed rounds to the storage device
+     */
+    public void sync()
+    {
+        buffer.force();
+        unsyncedRounds = 0;
+        lastSync = System.nanoTime();
+    }
+
+    /**
+     * Syncs and closes the current segment. A round in progress is not recorded.
+     */
+    public void close() throws IOException
+    {
+        sync();
+        channel.close();
+    }
+
+    public void roundStarted(double money, double bet, Card playerCard1, Card dealerUpCard,
+            Card playerCard2, Card dealerHoleCard)
+    {
+        if(roundStart >= 0)
+        {
+            // the previous round was abandoned, erase it so it cannot be mistaken for rounds
+            int end = buffer.position();
+            buffer.position(roundStart);
+            while(buffer.position() < end)
+                buffer.put((byte) 0);
+            buffer.position(roundStart);
+        }
+
+        if(buffer.remaining() < HistoryFormat.MAX_ROUND_SIZE + 4)
+            rollSegment();
+
+        roundStart = buffer.position();
+        buffer.putInt(0);
+        buffer.putInt(0);
+        buffer.putDouble(money);
+        buffer.putDouble(bet);
+        buffer.put((byte) playerCard1.getCode());
+        buffer.put((byte) dealerUpCard.getCode());
+        buffer.put((byte) playerCard2.getCode());
+        buffer.put((byte) dealerHoleCard.getCode());
+    }
+
+    private void rollSegment()
+    {
+        buffer.putInt(HistoryFormat.END_OF_SEGMENT);
+        try
+        {
+            close();
+            openSegment(segment + 1);
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("cannot start hand history segment " + (segment + 1), e);
+        }
+    }
+
+    private void validateRound()
+    {
+        if(roundStart < 0)
+            throw new IllegalStateException("no round in progress");
+    }
+
+    public void hit(int hand, Card card)
+    {
+        validateRound();
+        buffer.put((byte) (HistoryFormat.HIT | card.getCode()));
+    }
+
+    public void stood(int hand)
+    {
+        validateRound();
+        buffer.put((byte) HistoryFormat.STAND);
+    }
+
+    public void doubledDown(int hand, double additionalBet, Card card)
+    {
+        validateRound();
+        buffer.put((byte) (HistoryFormat.DOUBLE | card.getCode()));
+        buffer.putDouble(additionalBet);
+    }
+
+    public void split(int hand, Card card, Card newHandCard)
+    {
+        validateRound();
+        buffer.put((byte) HistoryFormat.SPLIT);
+        buffer.put((byte) card.getCode());
+        buffer.put((byte) newHandCard.getCode());
+    }
+
+    public void dealerDrew(Card card)
+    {
+        validateRound();
+        buffer.put((byte) (HistoryFormat.DEALER | card.getCode()));
+    }
+
+    public void roundSettled(double payout, double money)
+    {
+        validateRound();
+        buffer.put((byte) HistoryFormat.SETTLE);
+        buffer.putDouble(payout);
+        buffer.putDouble(money);
+
+        int start = roundStart + HistoryFormat.FRAME_HEADER_SIZE;
+        round.limit(buffer.position());
+        round.position(start);
+        crc.reset();
+        crc.update(round);
+        buffer.putInt(roundStart + 4, (int) crc.getValue());
+
+        // the length is written last, completing the round
+        buffer.putInt(roundStart, buffer.position() - start);
+        roundStart = -1;
+
+        unsyncedRounds++;
+        if((syncRounds > 0 && unsyncedRounds >= syncRounds)
+                || (syncNanos > 0 && System.nanoTime() - lastSync >= syncNanos))
+            sync();
+    }
+}
@@ -0,0 +1,99 @@
+package bj_horn.history;
+
+/**
+ * The layout of hand history segment files.
+ *
+ * A segment starts with a header: MAGIC (int), VERSION (short), 2 reserved
+ * bytes. Rounds follow, each framed as a length (int), the CRC-32 of the
+ * round (int) and the round's length bytes. The length is written after the
+ * rest of the frame, so a frame whose length is 0 is the end of the log (a
+ * round that was not completed when the writer stopped). A length of
+ * END_OF_SEGMENT means the log continues in the next segment. A frame whose
+ * length is out of range or whose round does not match its CRC-32 was cut
+ * short by an operating system crash (see HandHistoryWriter) and also ends
+ * the segment.
+ *
+ * A round is the player's money before the bet (double), the initial bet
+ * (double), the four initial cards in the order dealt (player, dealer up,
+ * player, dealer hole) and then one event per byte:
+ *
+ *   HIT    | card        a card dealt to the current hand
+ *   DEALER | card        a card drawn by the dealer
+ *   DOUBLE | card        followed by the additional bet (double)
+ *   STAND
+ *   SPLIT                followed by the card dealt to the split hand and the
+ *                        card dealt to the new hand
+ *   SETTLE               followed by the payout and the money after it (doubles),
+ *                        always the last event
+ *
+ * Cards are 6 bits, the card's code (see Card.getCode()). Multi-byte values
+ * are big endian.
+ */
+public final class HistoryFormat
+{
+    public static final int MAGIC = 0x424A4848; // "BJHH"
+    public static final short VERSION = 2;
+    public static final int HEADER_SIZE = 8;
+
+    /**
+     * The size of a round's length and CRC-32
+     */
+    public static final int FRAME_HEADER_SIZE = 8;
+
+    public static final int END_OF_SEGMENT = -1;
+
+    /**
+     * The size of a round's money, bet and initial cards
+     */
+    public static final int ROUND_HEADER_SIZE = 20;
+
+    /**
+     * An upper bound on the size of a round's frame, including its length and CRC-32
+     */
+    public static final int MAX_ROUND_SIZE = 1024;
+
+    public static final int OPCODE_MASK = 0xC0;
+    public static final int CARD_MASK = 0x3F;
+
+    public static final int HIT = 0x00;
+    public static final int DEALER = 0x40;
+    public static final int DOUBLE = 0x80;
+    public static final int STAND = 0xC0;
+    public static final int SPLIT = 0xC1;
+    public static final int SETTLE = 0xC2;
+
+    private HistoryFormat()
+    {
+    }
+
+    /**
+     * Returns the name of the segment file with the specified index
+     * @param index the segment's index
+     * @return the file name
+     */
+    public static String segmentName(int index)
+    {
+        return String.format("hands-%06d.log", index);
+    }
+
+    /**
+     * Returns the index of the segment file with the specified name
+     * or -1 if the name is not a segment file's name
+     * @param name the file name
+     * @return the segment's index or -1
+     */
+    public static int segmentIndex(String name)
+    {
+        if( ! (name.length() == 16 && name.startsWith("hands-") && name.endsWith(".log")) )
+            return -1;
+
+        try
+        {
+            return Integer.parseInt(name.substring(6, 12));
+        }
+        catch(NumberFormatException e)
+        {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package bj_horn.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+import bj_horn.Blackjack;
+import bj_horn.Card;
+import bj_horn.RoundStatistics;
+import bj_horn.strategy.BasicStrategy;
+
+/**
+ * Writes the rounds of a seeded game with HandHistoryWriter, reads them back
+ * with HandHistoryReader and replays them with Replayer. The log includes an
+ * abandoned round, a round in progress when reading starts (as after a
+ * crash) and several segments. Then one byte of the last round is changed,
+ * as an operating system crash can leave a round that was not synced, and
+ * the reader must stop before that round.
+ *
+ * Usage: java bj_horn.history.HistoryTester [rounds] [seed]
+ */
+public class HistoryTester
+{
+    public static final int SEGMENT_SIZE = 64 << 10;
+
+    public static void main(String[] args) throws IOException
+    {
+        int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+
+        File directory = Files.createTempDirectory("hand-history").toFile();
+        try
+        {
+            testRoundTrip(directory, rounds, seed);
+        }
+        finally
+        {
+            File[] files = directory.listFiles();
+            if(files != null)
+                for(File file : files)
+                    file.delete();
+            directory.delete();
+        }
+    }
+
+    /**
+     * Writes, reads and replays the rounds of a seeded game
+     * @param directory an empty directory for the log
+     * @param rounds the number of rounds to play
+     * @param seed the seed for the game's shoe
+     */
+    public static void testRoundTrip(File directory, int rounds, long seed) throws IOException
+    {
+        HandHistoryWriter writer = new HandHistoryWriter(directory, SEGMENT_SIZE);
+        try
+        {
+            writer.setSyncPolicy(1000, 0);
+
+            Blackjack game = new Blackjack(1e9, seed);
+            game.setRoundListener(writer);
+            BasicStrategy strategy = new BasicStrategy();
+            RoundStatistics stats = new RoundStatistics();
+            double startMoney = game.getPlayersMoney();
+
+            for(int i = 0; i < rounds; i++)
+            {
+                // a round abandoned part way, erased when the next round starts
+                if(i == rounds / 2)
+                    startRound(writer, game.getPlayersMoney());
+
+                game.playRound(strategy, 1, stats);
+            }
+
+            // the round in progress when the process stops
+            startRound(writer, game.getPlayersMoney());
+
+            if(writer.getSegment() < 2)
+                throw new IllegalStateException("the log did not roll to a new segment");
+
+            Replayer replayer = replay(directory);
+            if(replayer.getRounds() != rounds || replayer.getDivergences() != 0)
+                throw new IllegalStateException(String.format("replayed %d rounds (%d divergences), wrote %d: %s",
+                        replayer.getRounds(), replayer.getDivergences(), rounds, replayer.getReportedDivergences()));
+
+            double net = game.getPlayersMoney() - startMoney;
+            if(Math.abs(replayer.getReplayedNet() - net) > 1e-6)
+                throw new IllegalStateException(String.format("replayed net %.2f, played %.2f",
+                        replayer.getReplayedNet(), net));
+
+            // change a byte of the last round, as a crash before it was synced can
+            int segment = -1, position = -1;
+            HandHistoryReader reader = new HandHistoryReader(directory);
+            try
+            {
+                while(reader.next())
+                {
+                    segment = reader.getSegment();
+                    position = reader.round().position();
+                }
+            }
+            finally
+            {
+                reader.close();
+            }
+
+            RandomAccessFile file = new RandomAccessFile(new File(directory, HistoryFormat.segmentName(segment)), "rw");
+            try
+            {
+                file.seek(position);
+                int money = file.read();
+                file.seek(position);
+                file.write(money ^ 1);
+            }
+            finally
+            {
+                file.close();
+            }
+
+            replayer = replay(directory);
+            if(replayer.getRounds() != rounds - 1 || replayer.getDivergences() != 0)
+                throw new IllegalStateException(String.format("replayed %d rounds (%d divergences) after the last"
+                        + " round was changed, expected %d", replayer.getRounds(), replayer.getDivergences(), rounds - 1));
+
+            System.out.println(String.format("%,d rounds in %d segments written, read and replayed;"
+                    + " a changed round ended the log", rounds, writer.getSegment() + 1));
+        }
+        finally
+        {
+            writer.close();
+        }
+    }
+
+    private static void startRound(HandHistoryWriter writer, double money)
+    {
+        Card card = Card.fromCode(0);
+        writer.roundStarted(money, 1, card, card, card, card);
+        writer.hit(0, card);
+    }
+
+    private static Replayer replay(File directory) throws IOException
+    {
+        Replayer replayer = new Replayer();
+        HandHistoryReader reader = new HandHistoryReader(directory);
+        try
+        {
+            replayer.replay(reader);
+        }
+        finally
+        {
+            reader.close();
+        }
+        return replayer;
+    }
+}
@@ -0,0 +1,67 @@
+package bj_horn.history;
+
+import bj_horn.Card;
+import bj_horn.Shoe;
+
+/**
+ * A shoe that deals the cards of one recorded round, in the order they were
+ * dealt. It never runs low, so the game never resets it, and it does not
+ * keep a running count.
+ */
+class ReplayShoe extends Shoe
+{
+    private final Card[] cards = new Card[HistoryFormat.MAX_ROUND_SIZE];
+    private int size;
+    private int next;
+
+    ReplayShoe()
+    {
+        super(1, 0);
+    }
+
+    /**
+     * Removes the cards of the previous round
+     */
+    void clear()
+    {
+        size = 0;
+        next = 0;
+    }
+
+    /**
+     * Adds a card to be dealt after the cards already added
+     * @param card the card
+     */
+    void add(Card card)
+    {
+        cards[size++] = card;
+    }
+
+    /**
+     * Returns the number of added cards that have not been dealt
+     * @return the number of undealt cards
+     */
+    int undealt()
+    {
+        return size - next;
+    }
+
+    /**
+     * Returns the next recorded card
+     * @return the next recorded card
+     *
+     * Precondition: undealt() > 0
+     */
+    public Card dealCard()
+    {
+        if(next == size)
+            throw new IllegalStateException("the recorded round has no more cards");
+
+        return cards[next++];
+    }
+
+    public int cardsLeft()
+    {
+        return Integer.MAX_VALUE;
+    }
+}
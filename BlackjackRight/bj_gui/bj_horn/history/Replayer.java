@@ -0,0 +1,387 @@
+package bj_horn.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import bj_horn.Blackjack;
+import bj_horn.Card;
+
+/**
+ * Replays recorded rounds through bj_horn.Blackjack, dealing each round's
+ * recorded cards from a ReplayShoe and applying its recorded decisions, and
+ * compares the payout and bankroll change with the recorded settlement.
+ *
+ * Each round is decoded once: a card is queued on the shoe just before the
+ * recorded decision that deals it. Decisions go through the checked public
+ * API (hit, stand, split, doubleDown), so a recorded decision the rules do
+ * not allow is reported rather than applied.
+ *
+ * Rounds are streamed from the log; only the first MAX_REPORTED divergences
+ * are kept. A replayer is not thread safe, but separate replayers can replay
+ * separate segments in parallel and their results can be combined in order
+ * with add. main replays every segment of every directory in parallel, on
+ * one thread per processor; one thread replays about 2 million
+ * BasicStrategy rounds per second.
+ *
+ * Usage: java bj_horn.history.Replayer directory...
+ */
+public class Replayer
+{
+    public static final int MAX_REPORTED = 100;
+
+    // payouts are sums of bets and halves of bets, so they are exact in binary
+    private static final double TOLERANCE = 1e-9;
+
+    // SETTLE, the payout and the money after it
+    private static final int SETTLEMENT_SIZE = 17;
+
+    private final ReplayShoe shoe = new ReplayShoe();
+    private Blackjack game;
+
+    private long rounds;
+    private long divergences;
+    private final ArrayList<String> reported = new ArrayList<String>();
+
+    private double recordedNet;
+    private double replayedNet;
+    private int firstSegment = -1;
+    private double firstRecordedMoney = Double.NaN;
+    private double lastRecordedMoney = Double.NaN;
+
+    /**
+     * Replays every completed round of the specified log
+     * @param reader the log
+     */
+    public void replay(HandHistoryReader reader) throws IOException
+    {
+        while(reader.next())
+        {
+            if(firstSegment < 0)
+                firstSegment = reader.getSegment();
+
+            String divergence = replay(reader.round());
+            if(divergence != null)
+            {
+                report(String.format("segment %d round %d: %s",
+                        reader.getSegment(), reader.getSegmentRound(), divergence));
+
+                // the game may be part way through the round
+                game = null;
+            }
+        }
+    }
+
+    private void report(String divergence)
+    {
+        divergences++;
+        if(reported.size() < MAX_REPORTED)
+            reported.add(divergence);
+    }
+
+    /**
+     * Adds the results of a replayer that replayed the rounds following this
+     * replayer's rounds, and checks that its first round's recorded money
+     * follows this replayer's last round
+     * @param next the replayer of the following rounds
+     */
+    public void add(Replayer next)
+    {
+        if( ! Double.isNaN(lastRecordedMoney) && ! Double.isNaN(next.firstRecordedMoney)
+                && Math.abs(next.firstRecordedMoney - lastRecordedMoney) > TOLERANCE )
+            report(String.format("segment %d round 1: recorded money %.2f does not follow previous round's %.2f",
+                    next.firstSegment, next.firstRecordedMoney, lastRecordedMoney));
+
+        rounds += next.rounds;
+        divergences += next.divergences;
+        for(String divergence : next.reported)
+            if(reported.size() < MAX_REPORTED)
+                reported.add(divergence);
+
+        recordedNet += next.recordedNet;
+        replayedNet += next.replayedNet;
+        if(Double.isNaN(firstRecordedMoney))
+        {
+            firstSegment = next.firstSegment;
+            firstRecordedMoney = next.firstRecordedMoney;
+        }
+        if( ! Double.isNaN(next.lastRecordedMoney) )
+            lastRecordedMoney = next.lastRecordedMoney;
+    }
+
+    /**
+     * Replays one round
+     * @param round the recorded round
+     * @return a description of the divergence or null if the replay matches
+     */
+    private String replay(ByteBuffer round)
+    {
+        try
+        {
+            return replayRound(round);
+        }
+        catch(BufferUnderflowException e)
+        {
+            return "round is truncated";
+        }
+        catch(IllegalStateException e)
+        {
+            return e.getMessage();
+        }
+        catch(IllegalArgumentException e)
+        {
+            return e.getMessage();
+        }
+    }
+
+    private String replayRound(ByteBuffer round)
+    {
+        // SETTLE is always the last event
+        int end = round.limit() - SETTLEMENT_SIZE;
+        if(end < round.position() + HistoryFormat.ROUND_HEADER_SIZE
+                || (round.get(end) & 0xFF) != HistoryFormat.SETTLE)
+            return "round was not settled";
+
+        double recordedPayout = round.getDouble(end + 1);
+        double recordedMoney = round.getDouble(end + 9);
+
+        double money = round.getDouble();
+        double bet = round.getDouble();
+
+        double previousMoney = lastRecordedMoney;
+        lastRecordedMoney = recordedMoney;
+        if(Double.isNaN(firstRecordedMoney))
+            firstRecordedMoney = money;
+        if( ! Double.isNaN(previousMoney) && Math.abs(money - previousMoney) > TOLERANCE)
+            return String.format("recorded money %.2f does not follow previous round's %.2f",
+                    money, previousMoney);
+
+        if(game == null)
+            game = new Blackjack(money, shoe);
+
+        rounds++;
+        shoe.clear();
+        for(int i = 0; i < 4; i++)
+            shoe.add(Card.fromCode(round.get()));
+
+        double moneyBefore = game.getPlayersMoney();
+        game.placeInitialBetAndDealCards(bet);
+
+        String divergence = applyEvents(round, end);
+        if(divergence != null)
+            return divergence;
+
+        if(round.position() != end)
+            return "round is truncated";
+
+        if(game.getCurrentHand() >= 0)
+            return "player's turn did not end";
+
+        game.playDealersHand();
+        if(shoe.undealt() > 0)
+            return shoe.undealt() + " recorded cards were not dealt";
+
+        double moneyBeforePayout = game.getPlayersMoney();
+        game.resolveBetsAndReset();
+
+        double payout = game.getPlayersMoney() - moneyBeforePayout;
+        double net = game.getPlayersMoney() - moneyBefore;
+        double recordedNetOfRound = recordedMoney - money;
+        recordedNet += recordedNetOfRound;
+        replayedNet += net;
+
+        if(Math.abs(payout - recordedPayout) > TOLERANCE)
+            return String.format("payout %.2f, recorded %.2f", payout, recordedPayout);
+
+        if(Math.abs(net - recordedNetOfRound) > TOLERANCE)
+            return String.format("bankroll change %.2f, recorded %.2f", net, recordedNetOfRound);
+
+        return null;
+    }
+
+    /**
+     * Applies the recorded events of a round up to its settlement: queues
+     * each card on the shoe and applies each decision
+     * @param round the recorded round, positioned at its first event
+     * @param end the position of the round's SETTLE event
+     * @return a description of the divergence or null if every event was applied
+     */
+    private String applyEvents(ByteBuffer round, int end)
+    {
+        boolean dealerDrew = false;
+        while(round.position() < end)
+        {
+            int event = round.get() & 0xFF;
+            int opcode = event & HistoryFormat.OPCODE_MASK;
+
+            if(opcode == HistoryFormat.DEALER)
+            {
+                // the dealer draws all of its cards when it plays
+                shoe.add(Card.fromCode(event & HistoryFormat.CARD_MASK));
+                dealerDrew = true;
+                continue;
+            }
+
+            if(dealerDrew || game.getCurrentHand() < 0)
+                return "decision recorded after the player's turn ended";
+
+            switch(event)
+            {
+                case HistoryFormat.STAND:
+                    game.stand();
+                    break;
+
+                case HistoryFormat.SPLIT:
+                    shoe.add(Card.fromCode(round.get()));
+                    shoe.add(Card.fromCode(round.get()));
+                    game.split();
+                    break;
+
+                case HistoryFormat.SETTLE:
+                    return "events recorded after the settlement";
+
+                default:
+                    if(opcode == HistoryFormat.STAND)
+                        return String.format("unknown event 0x%02X", event);
+
+                    shoe.add(Card.fromCode(event & HistoryFormat.CARD_MASK));
+                    if(opcode == HistoryFormat.DOUBLE)
+                        game.doubleDown(round.getDouble());
+                    else
+                        game.hit();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of rounds replayed
+     * @return the number of rounds
+     */
+    public long getRounds()
+    {
+        return rounds;
+    }
+
+    /**
+     * Returns the number of rounds that did not match their record
+     * @return the number of divergences
+     */
+    public long getDivergences()
+    {
+        return divergences;
+    }
+
+    /**
+     * Returns descriptions of the first MAX_REPORTED divergences
+     * @return the reported divergences
+     */
+    public ArrayList<String> getReportedDivergences()
+    {
+        return new ArrayList<String>(reported);
+    }
+
+    /**
+     * Returns the total recorded bankroll change of the rounds that were replayed to settlement
+     * @return the recorded net
+     */
+    public double getRecordedNet()
+    {
+        return recordedNet;
+    }
+
+    /**
+     * Returns the total replayed bankroll change of the rounds that were replayed to settlement
+     * @return the replayed net
+     */
+    public double getReplayedNet()
+    {
+        return replayedNet;
+    }
+
+    /**
+     * Returns a task that replays one segment of a directory
+     */
+    private static Callable<Replayer> replaySegment(final File directory, final int segment)
+    {
+        return new Callable<Replayer>()
+        {
+            public Replayer call() throws IOException
+            {
+                Replayer replayer = new Replayer();
+                HandHistoryReader reader = new HandHistoryReader(directory, new int[]{segment});
+                try
+                {
+                    replayer.replay(reader);
+                }
+                finally
+                {
+                    reader.close();
+                }
+                return replayer;
+            }
+        };
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if(args.length == 0)
+        {
+            System.out.println("Usage: java bj_horn.history.Replayer directory...");
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        try
+        {
+            long start = System.nanoTime();
+
+            // every segment of every directory is replayed separately
+            ArrayList<ArrayList<Future<Replayer>>> results = new ArrayList<ArrayList<Future<Replayer>>>();
+            for(String name : args)
+            {
+                File directory = new File(name);
+                ArrayList<Future<Replayer>> segments = new ArrayList<Future<Replayer>>();
+                for(int segment : HandHistoryReader.listSegments(directory))
+                    segments.add(executor.submit(replaySegment(directory, segment)));
+                results.add(segments);
+            }
+
+            long rounds = 0, divergences = 0;
+            for(int i = 0; i < args.length; i++)
+            {
+                Replayer replayer = new Replayer();
+                for(Future<Replayer> segment : results.get(i))
+                    replayer.add(segment.get());
+
+                rounds += replayer.getRounds();
+                divergences += replayer.getDivergences();
+
+                System.out.println(String.format("%s: %,d rounds, %,d divergences, net %.2f (recorded %.2f)",
+                        args[i], replayer.getRounds(), replayer.getDivergences(),
+                        replayer.getReplayedNet(), replayer.getRecordedNet()));
+                for(String divergence : replayer.getReportedDivergences())
+                    System.out.println("  " + divergence);
+            }
+
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.println(String.format("Replayed %,d rounds (%,d divergences) in %.2f s, %,.0f rounds / second",
+                    rounds, divergences, seconds, rounds / seconds));
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("replay failed", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+}
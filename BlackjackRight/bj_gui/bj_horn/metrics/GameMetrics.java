@@ -0,0 +1,326 @@
+package bj_horn.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ObjectName;
+
+/**
+ * Counters and latency histograms for the games played at one table or by
+ * one server, updated by bj_horn.Blackjack (see Blackjack.setMetrics) and
+ * exported as an MBean named bj_horn:type=GameMetrics,name=...
+ * The hold of each table of a server is kept by its TableMetrics.
+ *
+ * One instance can be shared by every game of a server: all of the
+ * counters are LongAdders (or DoubleAdders), which stripe concurrent
+ * updates across cells instead of contending on one value.
+ *
+ * Action latency is the time spent in a hit, stand, split or double down.
+ * Round latency is the time from the initial bet to settlement, so for
+ * interactive games it includes the player's time to decide. Reading the
+ * clock costs about as much as a hit, so by default only 1 in
+ * DEFAULT_SAMPLE_INTERVAL actions and rounds of each game is timed.
+ * Every action and round is counted.
+ */
+public class GameMetrics implements GameMetricsMBean
+{
+    public static final String DOMAIN = "bj_horn";
+    public static final int DEFAULT_SAMPLE_INTERVAL = 16;
+
+    private final int sampleMask;
+
+    private final LongAdder rounds = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stands = new LongAdder();
+    private final LongAdder splits = new LongAdder();
+    private final LongAdder doubles = new LongAdder();
+    private final LongAdder reshuffles = new LongAdder();
+    private final LongAdder dealerBusts = new LongAdder();
+
+    private final DoubleAdder amountWagered = new DoubleAdder();
+    private final DoubleAdder playersNet = new DoubleAdder();
+
+    private final LatencyHistogram actionLatency = new LatencyHistogram();
+    private final LatencyHistogram roundLatency = new LatencyHistogram();
+
+    private String name;
+    private ObjectName objectName;
+
+    /**
+     * Constructs metrics that time 1 in DEFAULT_SAMPLE_INTERVAL actions and rounds
+     */
+    public GameMetrics()
+    {
+        this(DEFAULT_SAMPLE_INTERVAL);
+    }
+
+    /**
+     * Constructs metrics that time 1 in sampleInterval actions and rounds
+     * @param sampleInterval the sampling interval (1 to time everything)
+     *
+     * Precondition: sampleInterval is a power of 2
+     */
+    public GameMetrics(int sampleInterval)
+    {
+        if( ! (sampleInterval > 0 && Integer.bitCount(sampleInterval) == 1) )
+            throw new IllegalArgumentException("sampleInterval must be a power of 2");
+
+        sampleMask = sampleInterval - 1;
+    }
+
+    /**
+     * Returns true if the action or round with the specified sequence number
+     * should be timed. Each game numbers its own actions and rounds.
+     * @param sequence the action's or round's sequence number
+     * @return true if the action or round should be timed
+     */
+    public boolean isSampled(int sequence)
+    {
+        return (sequence & sampleMask) == 0;
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server
+     * @param name the value of the name key, ex: the table's or server's name
+     *
+     * Precondition: these metrics are not registered
+     */
+    public synchronized void register(String name)
+    {
+        if(this.name != null)
+            throw new IllegalStateException("metrics are already registered as " + this.name);
+
+        objectName = MBeans.register(this, "type=GameMetrics,name=" + ObjectName.quote(name));
+        this.name = name;
+    }
+
+    /**
+     * Unregisters these metrics if they are registered
+     */
+    public synchronized void unregister()
+    {
+        if(name == null)
+            return;
+
+        try
+        {
+            MBeans.unregister(objectName);
+        }
+        finally
+        {
+            name = null;
+            objectName = null;
+        }
+    }
+
+    /**
+     * Returns the name these metrics are registered under
+     * @return the value of the name key or null if these metrics are not registered
+     */
+    public synchronized String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Records a hit
+     */
+    public void recordHit()
+    {
+        hits.increment();
+    }
+
+    /**
+     * Records a stand
+     */
+    public void recordStand()
+    {
+        stands.increment();
+    }
+
+    /**
+     * Records a split
+     */
+    public void recordSplit()
+    {
+        splits.increment();
+    }
+
+    /**
+     * Records a double down
+     */
+    public void recordDouble()
+    {
+        doubles.increment();
+    }
+
+    /**
+     * Records the time taken by a sampled action
+     * @param nanos the time taken
+     */
+    public void recordActionLatency(long nanos)
+    {
+        actionLatency.record(nanos);
+    }
+
+    /**
+     * Records that a shoe was reset
+     */
+    public void recordReshuffle()
+    {
+        reshuffles.increment();
+    }
+
+    /**
+     * Records that the dealer's hand busted
+     */
+    public void recordDealerBust()
+    {
+        dealerBusts.increment();
+    }
+
+    /**
+     * Records a settled round
+     * @param wagered the total of the round's bets
+     * @param playersNet the player's net result
+     */
+    public void recordRound(double wagered, double playersNet)
+    {
+        rounds.increment();
+        amountWagered.add(wagered);
+        this.playersNet.add(playersNet);
+    }
+
+    /**
+     * Records the time from the initial bet to settlement of a sampled round
+     * @param nanos the time taken
+     */
+    public void recordRoundLatency(long nanos)
+    {
+        roundLatency.record(nanos);
+    }
+
+    public long getRounds()
+    {
+        return rounds.sum();
+    }
+
+    public long getHits()
+    {
+        return hits.sum();
+    }
+
+    public long getStands()
+    {
+        return stands.sum();
+    }
+
+    public long getSplits()
+    {
+        return splits.sum();
+    }
+
+    public long getDoubles()
+    {
+        return doubles.sum();
+    }
+
+    public long getReshuffles()
+    {
+        return reshuffles.sum();
+    }
+
+    public long getDealerBusts()
+    {
+        return dealerBusts.sum();
+    }
+
+    public double getAmountWagered()
+    {
+        return amountWagered.sum();
+    }
+
+    public double getPlayersNet()
+    {
+        return playersNet.sum();
+    }
+
+    public double getHold()
+    {
+        double wagered = amountWagered.sum();
+        return wagered == 0 ? 0 : -playersNet.sum() / wagered;
+    }
+
+    /**
+     * Returns the histogram of action latencies
+     * @return the histogram
+     */
+    public LatencyHistogram getActionLatency()
+    {
+        return actionLatency;
+    }
+
+    /**
+     * Returns the histogram of round latencies
+     * @return the histogram
+     */
+    public LatencyHistogram getRoundLatency()
+    {
+        return roundLatency;
+    }
+
+    public double getActionLatencyMean()
+    {
+        return actionLatency.getMean();
+    }
+
+    public long getActionLatencyP50()
+    {
+        return actionLatency.getPercentile(0.5);
+    }
+
+    public long getActionLatencyP99()
+    {
+        return actionLatency.getPercentile(0.99);
+    }
+
+    public long getActionLatencyP999()
+    {
+        return actionLatency.getPercentile(0.999);
+    }
+
+    public double getRoundLatencyMean()
+    {
+        return roundLatency.getMean();
+    }
+
+    public long getRoundLatencyP50()
+    {
+        return roundLatency.getPercentile(0.5);
+    }
+
+    public long getRoundLatencyP99()
+    {
+        return roundLatency.getPercentile(0.99);
+    }
+
+    public long getRoundLatencyP999()
+    {
+        return roundLatency.getPercentile(0.999);
+    }
+
+    public void reset()
+    {
+        rounds.reset();
+        hits.reset();
+        stands.reset();
+        splits.reset();
+        doubles.reset();
+        reshuffles.reset();
+        dealerBusts.reset();
+        amountWagered.reset();
+        playersNet.reset();
+        actionLatency.reset();
+        roundLatency.reset();
+    }
+}
@@ -0,0 +1,58 @@
+package bj_horn.metrics;
+
+/**
+ * The JMX management interface of GameMetrics. Latencies are in nanoseconds.
+ */
+public interface GameMetricsMBean
+{
+    long getRounds();
+
+    long getHits();
+
+    long getStands();
+
+    long getSplits();
+
+    long getDoubles();
+
+    long getReshuffles();
+
+    long getDealerBusts();
+
+    /**
+     * @return the total of every bet settled (initial, split and double down bets)
+     */
+    double getAmountWagered();
+
+    /**
+     * @return the players' total net result over every settled round
+     */
+    double getPlayersNet();
+
+    /**
+     * @return the house's realized hold over every game sharing these metrics:
+     *         its net win divided by the amount wagered
+     */
+    double getHold();
+
+    double getActionLatencyMean();
+
+    long getActionLatencyP50();
+
+    long getActionLatencyP99();
+
+    long getActionLatencyP999();
+
+    double getRoundLatencyMean();
+
+    long getRoundLatencyP50();
+
+    long getRoundLatencyP99();
+
+    long getRoundLatencyP999();
+
+    /**
+     * Discards everything recorded so far
+     */
+    void reset();
+}
@@ -0,0 +1,142 @@
+package bj_horn.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of durations in nanoseconds. Values below
+ * SUB_BUCKETS are counted exactly; larger values are counted in
+ * SUB_BUCKETS buckets per power of two, so percentiles are reported
+ * within 1 / SUB_BUCKETS (12.5%) of the recorded value.
+ *
+ * Every bucket is a LongAdder, so recording from many threads does not
+ * contend on one counter. Reads sum the buckets and are not atomic with
+ * respect to concurrent recording.
+ */
+public class LatencyHistogram
+{
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final LongAdder[] counts = new LongAdder[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Constructs an empty histogram
+     */
+    public LatencyHistogram()
+    {
+        for(int i = 0; i < counts.length; i++)
+            counts[i] = new LongAdder();
+    }
+
+    /**
+     * Records one duration
+     * @param nanos the duration (negative durations are recorded as 0)
+     */
+    public void record(long nanos)
+    {
+        if(nanos < 0)
+            nanos = 0;
+
+        counts[index(nanos)].increment();
+        total.add(nanos);
+    }
+
+    /**
+     * Returns the index of the bucket counting the specified value
+     * @param value a value >= 0
+     * @return the bucket's index
+     */
+    static int index(long value)
+    {
+        if(value < SUB_BUCKETS)
+            return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * Returns the largest value counted by the bucket with the specified index
+     * @param index the bucket's index
+     * @return the bucket's upper bound
+     */
+    static long upperBound(int index)
+    {
+        if(index < SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * Returns the number of durations recorded
+     * @return the count
+     */
+    public long getCount()
+    {
+        long count = 0;
+        for(LongAdder bucket : counts)
+            count += bucket.sum();
+        return count;
+    }
+
+    /**
+     * Returns the mean of the recorded durations
+     * @return the mean in nanoseconds (0 if nothing was recorded)
+     */
+    public double getMean()
+    {
+        long count = getCount();
+        return count == 0 ? 0 : (double) total.sum() / count;
+    }
+
+    /**
+     * Returns the smallest bucket bound at or above the specified fraction
+     * of the recorded durations
+     * @param fraction the fraction of durations (ex: 0.99 for the 99th percentile)
+     * @return the percentile in nanoseconds (0 if nothing was recorded)
+     *
+     * Precondition: 0 <= fraction && fraction <= 1
+     */
+    public long getPercentile(double fraction)
+    {
+        if( ! (0 <= fraction && fraction <= 1) )
+            throw new IllegalArgumentException("fraction must be >= 0 and <= 1");
+
+        long[] snapshot = new long[counts.length];
+        long count = 0;
+        for(int i = 0; i < counts.length; i++)
+        {
+            snapshot[i] = counts[i].sum();
+            count += snapshot[i];
+        }
+
+        if(count == 0)
+            return 0;
+
+        long rank = Math.max(1, (long) Math.ceil(fraction * count));
+        long seen = 0;
+        for(int i = 0; i < snapshot.length; i++)
+        {
+            seen += snapshot[i];
+            if(seen >= rank)
+                return upperBound(i);
+        }
+
+        return upperBound(snapshot.length - 1);
+    }
+
+    /**
+     * Discards every recorded duration
+     */
+    public void reset()
+    {
+        for(LongAdder bucket : counts)
+            bucket.reset();
+        total.reset();
+    }
+}
@@ -0,0 +1,55 @@
+package bj_horn.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registers and unregisters the metrics MBeans with the platform MBean server
+ */
+final class MBeans
+{
+    private MBeans()
+    {
+    }
+
+    /**
+     * Registers an MBean in the bj_horn domain
+     * @param mbean the MBean
+     * @param properties the key properties of its name, ex: type=GameMetrics,name="server-8080"
+     * @return the MBean's name
+     */
+    static ObjectName register(Object mbean, String properties)
+    {
+        try
+        {
+            ObjectName name = new ObjectName(GameMetrics.DOMAIN + ":" + properties);
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+            return name;
+        }
+        catch(JMException e)
+        {
+            throw new IllegalArgumentException("cannot register metrics as " + properties, e);
+        }
+    }
+
+    /**
+     * Unregisters an MBean if it is registered
+     * @param name the MBean's name
+     */
+    static void unregister(ObjectName name)
+    {
+        try
+        {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if(server.isRegistered(name))
+                server.unregisterMBean(name);
+        }
+        catch(JMException e)
+        {
+            throw new IllegalStateException("cannot unregister metrics " + name, e);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package bj_horn.metrics;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.ObjectName;
+
+/**
+ * The settled rounds and realized hold of one table, updated by
+ * bj_horn.Blackjack (see Blackjack.setTableMetrics) next to the GameMetrics
+ * shared by every table of a server. Exported as an MBean named
+ * bj_horn:type=TableMetrics,server=...,name=... so each table's hold can be
+ * read beside the server-wide figure.
+ *
+ * A table is played by one thread at a time but read by JMX threads, so the
+ * values are kept in adders like those of GameMetrics.
+ */
+public class TableMetrics implements TableMetricsMBean
+{
+    private final LongAdder rounds = new LongAdder();
+    private final DoubleAdder amountWagered = new DoubleAdder();
+    private final DoubleAdder playersNet = new DoubleAdder();
+
+    private ObjectName name;
+
+    /**
+     * Registers these metrics with the platform MBean server
+     * @param server the name of the server's GameMetrics
+     * @param table the value of the name key, ex: the table's client address or session id
+     *
+     * Precondition: these metrics are not registered
+     */
+    public synchronized void register(String server, String table)
+    {
+        if(name != null)
+            throw new IllegalStateException("metrics are already registered as " + name);
+
+        name = MBeans.register(this, "type=TableMetrics,server=" + ObjectName.quote(server)
+                + ",name=" + ObjectName.quote(table));
+    }
+
+    /**
+     * Unregisters these metrics if they are registered
+     */
+    public synchronized void unregister()
+    {
+        if(name == null)
+            return;
+
+        try
+        {
+            MBeans.unregister(name);
+        }
+        finally
+        {
+            name = null;
+        }
+    }
+
+    /**
+     * Records a settled round
+     * @param wagered the total of the round's bets
+     * @param playersNet the player's net result
+     */
+    public void recordRound(double wagered, double playersNet)
+    {
+        rounds.increment();
+        amountWagered.add(wagered);
+        this.playersNet.add(playersNet);
+    }
+
+    public long getRounds()
+    {
+        return rounds.sum();
+    }
+
+    public double getAmountWagered()
+    {
+        return amountWagered.sum();
+    }
+
+    public double getPlayersNet()
+    {
+        return playersNet.sum();
+    }
+
+    public double getHold()
+    {
+        double wagered = amountWagered.sum();
+        return wagered == 0 ? 0 : -playersNet.sum() / wagered;
+    }
+
+    public void reset()
+    {
+        rounds.reset();
+        amountWagered.reset();
+        playersNet.reset();
+    }
+}
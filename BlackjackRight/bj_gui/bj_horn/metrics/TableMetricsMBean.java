@@ -0,0 +1,29 @@
+package bj_horn.metrics;
+
+/**
+ * The JMX management interface of TableMetrics
+ */
+public interface TableMetricsMBean
+{
+    long getRounds();
+
+    /**
+     * @return the total of every bet settled at the table (initial, split and double down bets)
+     */
+    double getAmountWagered();
+
+    /**
+     * @return the player's total net result over every settled round
+     */
+    double getPlayersNet();
+
+    /**
+     * @return the house's realized hold at the table: its net win divided by the amount wagered
+     */
+    double getHold();
+
+    /**
+     * Discards everything recorded so far
+     */
+    void reset();
+}
@@ -0,0 +1,256 @@
+package bj_horn.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+import bj_horn.Blackjack;
+import bj_horn.metrics.GameMetrics;
+import bj_horn.metrics.TableMetrics;
+
+/**
+ * One client connection and the table it plays at. A connection is only
+ * used by the event loop thread that owns its selector, so neither the
+ * buffers nor the game need to be synchronized.
+ *
+ * Frames are only processed while the output buffer has room for a full
+ * frame. A client that stops reading stops being read until its output
+ * has been written.
+ */
+class Connection
+{
+    private static final int BUFFER_SIZE = 2 * (Protocol.HEADER + Protocol.MAX_FRAME);
+
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private final Blackjack game;
+    private final TableMetrics tableMetrics = new TableMetrics();
+
+    private final ByteBuffer in = ByteBuffer.allocate(BUFFER_SIZE);
+    private final ByteBuffer out = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Constructs a connection and sends the initial state
+     * @param channel the client's channel
+     * @param key the channel's key in the owning event loop's selector
+     * @param money the player's starting money
+     * @param seed the seed for the table's shoe
+     * @param metrics the metrics shared by every table; if they are registered,
+     *        the table's own metrics are registered beside them under the client's address
+     */
+    Connection(SocketChannel channel, SelectionKey key, double money, long seed, GameMetrics metrics) throws IOException
+    {
+        this.channel = channel;
+        this.key = key;
+        game = new Blackjack(money, seed);
+        game.setMetrics(metrics);
+        game.setTableMetrics(tableMetrics);
+
+        String server = metrics.getName();
+        if(server != null)
+            tableMetrics.register(server, String.valueOf(channel.getRemoteAddress()));
+
+        putWaitingState();
+        flush();
+    }
+
+    /**
+     * Reads and processes any frames the client has sent
+     */
+    void readable() throws IOException
+    {
+        if(channel.read(in) < 0)
+        {
+            close();
+            return;
+        }
+
+        process();
+    }
+
+    /**
+     * Writes pending output and resumes processing frames once it has been written
+     */
+    void writable() throws IOException
+    {
+        flush();
+        if(out.position() == 0)
+            process();
+    }
+
+    /**
+     * Closes this connection
+     */
+    void close()
+    {
+        tableMetrics.unregister();
+        key.cancel();
+        try
+        {
+            channel.close();
+        }
+        catch(IOException e)
+        {
+            // the connection is being discarded
+        }
+    }
+
+    private void process() throws IOException
+    {
+        in.flip();
+        try
+        {
+            int length;
+            while(out.remaining() >= Protocol.HEADER + Protocol.MAX_FRAME
+                    && (length = Protocol.frameLength(in)) >= 0)
+            {
+                int end = in.position() + Protocol.HEADER + length;
+                in.position(in.position() + Protocol.HEADER);
+                byte type = in.get();
+
+                handle(type, length - 1);
+                in.position(end);
+            }
+        }
+        catch(IllegalArgumentException e)
+        {
+            // invalid frame length, the stream cannot be resynchronized
+            close();
+            return;
+        }
+        finally
+        {
+            in.compact();
+        }
+
+        flush();
+    }
+
+    private void flush() throws IOException
+    {
+        out.flip();
+        channel.write(out);
+        out.compact();
+
+        key.interestOps(out.position() > 0 ? SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * Applies one client frame to the game and writes the response
+     * @param type the frame type
+     * @param length the length of the frame's body at in's position
+     */
+    private void handle(byte type, int length)
+    {
+        try
+        {
+            switch(type)
+            {
+                case Protocol.BET:
+                    game.placeInitialBetAndDealCards(amount(length));
+                    break;
+
+                case Protocol.HIT:
+                    game.hit();
+                    break;
+
+                case Protocol.STAND:
+                    game.stand();
+                    break;
+
+                case Protocol.DOUBLE:
+                    game.doubleDown(amount(length));
+                    break;
+
+                case Protocol.SPLIT:
+                    game.split();
+                    break;
+
+                default:
+                    throw new IllegalArgumentException("unknown frame type " + type);
+            }
+
+            if(game.getCurrentHand() >= 0)
+                putState(Protocol.PLAYING);
+            else
+                finishRound();
+        }
+        catch(IllegalStateException e)
+        {
+            Protocol.putError(out, e.getMessage());
+        }
+        catch(IllegalArgumentException e)
+        {
+            Protocol.putError(out, e.getMessage());
+        }
+    }
+
+    private double amount(int length)
+    {
+        if(length != 8)
+            throw new IllegalArgumentException("frame must contain an amount");
+
+        return in.getDouble();
+    }
+
+    /**
+     * Plays the dealer's hand, sends the final state of the round and resets the game
+     */
+    private void finishRound()
+    {
+        game.playDealersHand();
+
+        int start = putState(Protocol.ROUND_OVER);
+        game.resolveBetsAndReset();
+
+        // money follows the frame header and phase
+        out.putDouble(start + Protocol.HEADER + 2, game.getPlayersMoney());
+    }
+
+    private void putWaitingState()
+    {
+        int start = Protocol.beginFrame(out, Protocol.STATE);
+        out.put(Protocol.WAITING_FOR_BET);
+        out.putDouble(game.getPlayersMoney());
+        out.put((byte) -1);
+        out.put((byte) 0);
+        out.put((byte) 0);
+        out.put((byte) 0);
+        Protocol.endFrame(out, start);
+    }
+
+    private int putState(byte phase)
+    {
+        int start = Protocol.beginFrame(out, Protocol.STATE);
+        out.put(phase);
+        out.putDouble(game.getPlayersMoney());
+
+        int currentHand = game.getCurrentHand();
+        out.put((byte) currentHand);
+
+        int options = 0;
+        if(currentHand >= 0)
+        {
+            if(game.canHit())
+                options |= Protocol.CAN_HIT;
+            if(game.canDoubleDown())
+                options |= Protocol.CAN_DOUBLE;
+            if(game.canSplit())
+                options |= Protocol.CAN_SPLIT;
+        }
+        out.put((byte) options);
+
+        Protocol.putHand(out, game.getFaceUpDealersHandView());
+
+        out.put((byte) game.getNumHands());
+        for(int i = 0; i < game.getNumHands(); i++)
+        {
+            out.putDouble(game.getTotalBet(i));
+            Protocol.putHand(out, game.getPlayersHandView(i));
+        }
+
+        Protocol.endFrame(out, start);
+        return start;
+    }
+}
@@ -0,0 +1,162 @@
+package bj_horn.server;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import bj_horn.metrics.GameMetrics;
+
+/**
+ * A thread with its own selector that owns every connection registered
+ * with it. Channels are handed over through a queue, which is the only
+ * state shared with other threads.
+ */
+class EventLoop implements Runnable
+{
+    private final Selector selector;
+    private final double money;
+    private final GameMetrics metrics;
+    private final ConcurrentLinkedQueue<PendingChannel> pending;
+
+    private volatile boolean running = true;
+
+    /**
+     * A channel waiting to be registered and the seed for its table
+     */
+    private static class PendingChannel
+    {
+        final SocketChannel channel;
+        final long seed;
+
+        PendingChannel(SocketChannel channel, long seed)
+        {
+            this.channel = channel;
+            this.seed = seed;
+        }
+    }
+
+    /**
+     * Constructs an event loop
+     * @param money each player's starting money
+     * @param metrics the metrics updated by every table
+     */
+    EventLoop(double money, GameMetrics metrics) throws IOException
+    {
+        selector = Selector.open();
+        this.money = money;
+        this.metrics = metrics;
+        pending = new ConcurrentLinkedQueue<PendingChannel>();
+    }
+
+    /**
+     * Hands a newly accepted channel to this loop. May be called from any thread.
+     * @param channel the accepted channel
+     * @param seed the seed for the channel's table
+     */
+    void register(SocketChannel channel, long seed)
+    {
+        pending.add(new PendingChannel(channel, seed));
+        selector.wakeup();
+    }
+
+    /**
+     * Stops this loop and closes all of its connections
+     */
+    void shutdown()
+    {
+        running = false;
+        selector.wakeup();
+    }
+
+    public void run()
+    {
+        try
+        {
+            while(running)
+            {
+                selector.select();
+                registerPending();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext())
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    Connection connection = (Connection) key.attachment();
+                    try
+                    {
+                        if(key.isReadable())
+                            connection.readable();
+                        else if(key.isWritable())
+                            connection.writable();
+                    }
+                    catch(IOException e)
+                    {
+                        connection.close();
+                    }
+                    catch(RuntimeException e)
+                    {
+                        // a failure in one game must not stop the other connections
+                        System.err.println("closing connection: " + e);
+                        connection.close();
+                    }
+                }
+            }
+        }
+        catch(IOException e)
+        {
+            throw new IllegalStateException("event loop failed", e);
+        }
+        catch(ClosedSelectorException e)
+        {
+            // shut down
+        }
+        finally
+        {
+            for(SelectionKey key : selector.keys())
+                if(key.attachment() != null)
+                    ((Connection) key.attachment()).close();
+
+            try
+            {
+                selector.close();
+            }
+            catch(IOException e)
+            {
+                // shutting down
+            }
+        }
+    }
+
+    private void registerPending()
+    {
+        PendingChannel next;
+        while((next = pending.poll()) != null)
+        {
+            try
+            {
+                next.channel.configureBlocking(false);
+                next.channel.socket().setTcpNoDelay(true);
+
+                SelectionKey key = next.channel.register(selector, SelectionKey.OP_READ);
+                key.attach(new Connection(next.channel, key, money, next.seed, metrics));
+            }
+            catch(IOException e)
+            {
+                try
+                {
+                    next.channel.close();
+                }
+                catch(IOException ignored)
+                {
+                    // the channel is being discarded
+                }
+            }
+        }
+    }
+}
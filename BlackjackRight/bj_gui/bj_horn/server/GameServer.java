@@ -0,0 +1,177 @@
+package bj_horn.server;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.SplittableRandom;
+
+import bj_horn.metrics.GameMetrics;
+
+/**
+ * A non-blocking server hosting one bj_horn.Blackjack table per connection.
+ * Clients speak the binary frames described in Protocol.
+ *
+ * An acceptor thread hands each new connection to one of a fixed number of
+ * event loops (round robin). The loop owns the connection and its table for
+ * the connection's lifetime, so games are played without locks. Each table's
+ * shoe is seeded from a stream split off the server's seed.
+ *
+ * Every table updates the server's GameMetrics, which main registers
+ * with JMX as bj_horn:type=GameMetrics,name="server-<port>", and its own
+ * TableMetrics, registered beside them as
+ * bj_horn:type=TableMetrics,server="server-<port>",name="<client address>".
+ *
+ * Serving tens of thousands of clients requires the process's open file
+ * limit (ulimit -n) to be raised above the number of connections.
+ *
+ * Usage: java bj_horn.server.GameServer [port] [loops] [seed]
+ */
+public class GameServer
+{
+    public static final int DEFAULT_PORT = 7070;
+    public static final double STARTING_MONEY = 1000;
+
+    private static final int BACKLOG = 4096;
+    private static final long ACCEPT_RETRY_MILLIS = 100;
+
+    private final ServerSocketChannel serverChannel;
+    private final EventLoop[] loops;
+    private final Thread[] threads;
+    private final Thread acceptor;
+    private final long seed;
+    private final GameMetrics metrics = new GameMetrics();
+
+    /**
+     * Constructs a server listening on the specified address
+     * @param address the address to listen on (port 0 for any free port)
+     * @param loops the number of event loop threads
+     * @param seed the seed from which every table's shoe is seeded
+     *
+     * Precondition: loops > 0
+     */
+    public GameServer(InetSocketAddress address, int loops, long seed) throws IOException
+    {
+        if(loops <= 0)
+            throw new IllegalArgumentException("loops must be > 0");
+
+        this.seed = seed;
+
+        this.loops = new EventLoop[loops];
+        threads = new Thread[loops];
+        for(int i = 0; i < loops; i++)
+        {
+            this.loops[i] = new EventLoop(STARTING_MONEY, metrics);
+            threads[i] = new Thread(this.loops[i], "bj-loop-" + i);
+        }
+
+        serverChannel = ServerSocketChannel.open();
+        serverChannel.socket().setReuseAddress(true);
+        serverChannel.bind(address, BACKLOG);
+
+        acceptor = new Thread(new Runnable()
+        {
+            public void run()
+            {
+                accept();
+            }
+        }, "bj-acceptor");
+    }
+
+    /**
+     * Returns the port this server is listening on
+     * @return the local port
+     */
+    public int getPort()
+    {
+        return serverChannel.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the seed from which every table's shoe is seeded
+     * @return the seed of this server
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Returns the metrics updated by every table of this server
+     * @return the server's metrics
+     */
+    public GameMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Starts the event loops and begins accepting connections
+     */
+    public void start()
+    {
+        for(Thread thread : threads)
+            thread.start();
+
+        acceptor.start();
+    }
+
+    /**
+     * Stops accepting connections and closes every connection
+     */
+    public void close() throws IOException
+    {
+        serverChannel.close();
+        for(EventLoop loop : loops)
+            loop.shutdown();
+
+        metrics.unregister();
+    }
+
+    private void accept()
+    {
+        SplittableRandom seeds = new SplittableRandom(seed);
+        int next = 0;
+        while(serverChannel.isOpen())
+        {
+            try
+            {
+                SocketChannel channel = serverChannel.accept();
+                loops[next].register(channel, seeds.split().nextLong());
+                next = (next + 1) % loops.length;
+            }
+            catch(ClosedChannelException e)
+            {
+                // closed by close()
+            }
+            catch(IOException e)
+            {
+                // usually out of file descriptors, existing connections keep playing
+                System.err.println("accept failed: " + e.getMessage());
+                try
+                {
+                    Thread.sleep(ACCEPT_RETRY_MILLIS);
+                }
+                catch(InterruptedException interrupted)
+                {
+                    return;
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int loops = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : new SplittableRandom().nextLong();
+
+        GameServer server = new GameServer(new InetSocketAddress(port), loops, seed);
+        server.getMetrics().register("server-" + server.getPort());
+        server.start();
+
+        System.out.println("Listening on port " + server.getPort() + " with " + loops
+                + " event loops, seed " + server.getSeed());
+    }
+}
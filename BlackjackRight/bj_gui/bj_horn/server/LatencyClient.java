@@ -0,0 +1,259 @@
+package bj_horn.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import bj_horn.Hand;
+
+/**
+ * A load generating client for GameServer. Opens many connections from one
+ * selector thread, plays rounds on each (bet 1, hit below 17, otherwise stand)
+ * and measures the time from sending each action to receiving the response.
+ *
+ * Without a host and port, an embedded server is started on the loopback
+ * address.
+ *
+ * Usage: java bj_horn.server.LatencyClient [connections] [seconds] [host port]
+ */
+public class LatencyClient
+{
+    private final InetSocketAddress address;
+    private final int connections;
+
+    private long[] latencies = new long[1 << 16];
+    private int samples;
+    private long errors;
+
+    /**
+     * A connection to the server and the time its last action was sent
+     */
+    private static class Player
+    {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(2 * (Protocol.HEADER + Protocol.MAX_FRAME));
+        final ByteBuffer out = ByteBuffer.allocate(64);
+        long sent;
+
+        Player(SocketChannel channel)
+        {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Constructs a client
+     * @param address the server's address
+     * @param connections the number of connections to open
+     *
+     * Precondition: connections > 0
+     */
+    public LatencyClient(InetSocketAddress address, int connections)
+    {
+        if(connections <= 0)
+            throw new IllegalArgumentException("connections must be > 0");
+
+        this.address = address;
+        this.connections = connections;
+    }
+
+    /**
+     * Plays on every connection for the specified time
+     * @param nanos how long to play
+     * @return the latency of every action in nanoseconds, sorted
+     */
+    public long[] run(long nanos) throws IOException
+    {
+        samples = 0;
+        errors = 0;
+
+        Selector selector = Selector.open();
+        try
+        {
+            for(int i = 0; i < connections; i++)
+            {
+                SocketChannel channel = SocketChannel.open();
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                channel.connect(address);
+                channel.register(selector, SelectionKey.OP_CONNECT, new Player(channel));
+            }
+
+            long end = System.nanoTime() + nanos;
+            while(System.nanoTime() < end)
+            {
+                selector.select(100);
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while(keys.hasNext())
+                {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+
+                    Player player = (Player) key.attachment();
+                    if(key.isConnectable())
+                    {
+                        player.channel.finishConnect();
+                        key.interestOps(SelectionKey.OP_READ);
+                    }
+                    else if(key.isReadable())
+                        read(player);
+                }
+            }
+        }
+        finally
+        {
+            for(SelectionKey key : selector.keys())
+                key.channel().close();
+            selector.close();
+        }
+
+        long[] result = Arrays.copyOf(latencies, samples);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the number of ERROR frames received by the last run
+     * @return the number of errors
+     */
+    public long getErrors()
+    {
+        return errors;
+    }
+
+    private void read(Player player) throws IOException
+    {
+        if(player.channel.read(player.in) < 0)
+            throw new IOException("server closed connection");
+
+        long now = System.nanoTime();
+
+        player.in.flip();
+        int length;
+        while((length = Protocol.frameLength(player.in)) >= 0)
+        {
+            int end = player.in.position() + Protocol.HEADER + length;
+            player.in.position(player.in.position() + Protocol.HEADER);
+
+            if(player.sent != 0)
+                record(now - player.sent);
+
+            respond(player, player.in.get());
+            player.in.position(end);
+        }
+        player.in.compact();
+    }
+
+    /**
+     * Sends the next action in response to a frame at player.in's position
+     */
+    private void respond(Player player, byte type) throws IOException
+    {
+        ByteBuffer frame = player.in;
+        player.out.clear();
+
+        byte phase = Protocol.WAITING_FOR_BET;
+        if(type == Protocol.STATE)
+            phase = frame.get();
+        else
+            errors++;
+
+        if(phase == Protocol.PLAYING)
+        {
+            frame.getDouble();
+            int currentHand = frame.get();
+            int options = frame.get();
+            Protocol.getHand(frame);
+
+            int value = 0;
+            int numHands = frame.get();
+            for(int i = 0; i < numHands; i++)
+            {
+                frame.getDouble();
+                Hand hand = Protocol.getHand(frame);
+                if(i == currentHand)
+                    value = hand.getValue();
+            }
+
+            boolean hit = value < 17 && (options & Protocol.CAN_HIT) != 0;
+            Protocol.putCommand(player.out, hit ? Protocol.HIT : Protocol.STAND);
+        }
+        else
+            Protocol.putCommand(player.out, Protocol.BET, 1);
+
+        player.out.flip();
+        player.sent = System.nanoTime();
+        while(player.out.hasRemaining())
+            player.channel.write(player.out);
+    }
+
+    private void record(long latency)
+    {
+        if(samples == latencies.length)
+            latencies = Arrays.copyOf(latencies, 2 * samples);
+
+        latencies[samples++] = latency;
+    }
+
+    /**
+     * Returns the specified percentile of sorted values
+     * @param sorted the values in ascending order
+     * @param percentile the percentile (0 - 100)
+     * @return the value at the percentile
+     *
+     * Precondition: sorted.length > 0
+     */
+    public static long percentile(long[] sorted, double percentile)
+    {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    public static void main(String[] args) throws IOException
+    {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        GameServer server = null;
+        InetSocketAddress address;
+        if(args.length > 3)
+            address = new InetSocketAddress(args[2], Integer.parseInt(args[3]));
+        else
+        {
+            server = new GameServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                    Runtime.getRuntime().availableProcessors(), 0);
+            server.start();
+            address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.getPort());
+        }
+
+        try
+        {
+            LatencyClient client = new LatencyClient(address, connections);
+            long[] latencies = client.run(seconds * 1000000000L);
+
+            System.out.println(String.format("Connections:     %,d", connections));
+            System.out.println(String.format("Actions:         %,d", latencies.length));
+            System.out.println(String.format("Actions/second:  %,.0f", latencies.length / (double) seconds));
+            System.out.println(String.format("Errors:          %,d", client.getErrors()));
+            if(latencies.length > 0)
+            {
+                System.out.println(String.format("p50:             %.1f us", percentile(latencies, 50) / 1e3));
+                System.out.println(String.format("p99:             %.1f us", percentile(latencies, 99) / 1e3));
+                System.out.println(String.format("p99.9:           %.1f us", percentile(latencies, 99.9) / 1e3));
+                System.out.println(String.format("max:             %.1f us", latencies[latencies.length - 1] / 1e3));
+            }
+        }
+        finally
+        {
+            if(server != null)
+                server.close();
+        }
+    }
+}
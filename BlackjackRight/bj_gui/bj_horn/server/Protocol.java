@@ -0,0 +1,172 @@
+package bj_horn.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import bj_horn.Card;
+import bj_horn.Hand;
+import bj_horn.ReadOnlyHand;
+
+/**
+ * The binary protocol spoken between GameServer and its clients.
+ *
+ * Every frame is an unsigned 2 byte length (big endian) followed by that many
+ * bytes: a 1 byte frame type and the frame's body.
+ *
+ * Client frames:
+ *   BET       amount (double)
+ *   HIT       (empty)
+ *   STAND     (empty)
+ *   DOUBLE    additional bet (double)
+ *   SPLIT     (empty)
+ *
+ * Server frames:
+ *   STATE     phase (byte), money (double), current hand (byte), options (byte),
+ *             dealer's cards (count byte, card bytes),
+ *             number of hands (byte) then for each hand:
+ *             total bet (double), cards (count byte, card bytes)
+ *   ERROR     message (UTF-8)
+ *
+ * Cards are sent as one byte, the card's code (see Card.getCode()).
+ */
+public class Protocol
+{
+    public static final int MAX_FRAME = 1024;
+    public static final int HEADER = 2;
+
+    public static final byte BET = 1;
+    public static final byte HIT = 2;
+    public static final byte STAND = 3;
+    public static final byte DOUBLE = 4;
+    public static final byte SPLIT = 5;
+
+    public static final byte STATE = 16;
+    public static final byte ERROR = 17;
+
+    /**
+     * STATE phases: waiting for a bet, waiting for a decision on the current hand,
+     * round over (the dealer's whole hand is shown and money includes the payout)
+     */
+    public static final byte WAITING_FOR_BET = 0;
+    public static final byte PLAYING = 1;
+    public static final byte ROUND_OVER = 2;
+
+    /**
+     * STATE option flags for the current hand
+     */
+    public static final int CAN_HIT = 1;
+    public static final int CAN_DOUBLE = 2;
+    public static final int CAN_SPLIT = 4;
+
+    private Protocol()
+    {
+    }
+
+    /**
+     * Writes the cards of the specified hand (count byte, then card bytes)
+     * @param buffer the buffer to write to
+     * @param hand the hand
+     */
+    static void putHand(ByteBuffer buffer, ReadOnlyHand hand)
+    {
+        int numCards = hand.getNumCards();
+        buffer.put((byte) numCards);
+        for(int i = 0; i < numCards; i++)
+            buffer.put((byte) hand.getCard(i).getCode());
+    }
+
+    /**
+     * Reads cards written by putHand
+     * @param buffer the buffer to read from
+     * @return the hand
+     */
+    public static Hand getHand(ByteBuffer buffer)
+    {
+        Hand hand = new Hand();
+        int numCards = buffer.get();
+        for(int i = 0; i < numCards; i++)
+            hand.addCard(Card.fromCode(buffer.get()));
+        return hand;
+    }
+
+    /**
+     * Starts a frame of the specified type. The frame must be finished with endFrame.
+     * @param buffer the buffer to write to
+     * @param type the frame type
+     * @return the position of the frame, passed to endFrame
+     */
+    static int beginFrame(ByteBuffer buffer, byte type)
+    {
+        int start = buffer.position();
+        buffer.putShort((short) 0);
+        buffer.put(type);
+        return start;
+    }
+
+    /**
+     * Writes the length of a frame started by beginFrame
+     * @param buffer the buffer being written
+     * @param start the position returned by beginFrame
+     */
+    static void endFrame(ByteBuffer buffer, int start)
+    {
+        buffer.putShort(start, (short) (buffer.position() - start - HEADER));
+    }
+
+    /**
+     * Writes an ERROR frame
+     * @param buffer the buffer to write to
+     * @param message the error message
+     */
+    static void putError(ByteBuffer buffer, String message)
+    {
+        byte[] bytes = String.valueOf(message).getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(bytes.length, MAX_FRAME / 2);
+
+        int start = beginFrame(buffer, ERROR);
+        buffer.put(bytes, 0, length);
+        endFrame(buffer, start);
+    }
+
+    /**
+     * Writes a client frame with no body
+     * @param buffer the buffer to write to
+     * @param type HIT, STAND or SPLIT
+     */
+    public static void putCommand(ByteBuffer buffer, byte type)
+    {
+        buffer.putShort((short) 1);
+        buffer.put(type);
+    }
+
+    /**
+     * Writes a client frame with an amount
+     * @param buffer the buffer to write to
+     * @param type BET or DOUBLE
+     * @param amount the amount bet
+     */
+    public static void putCommand(ByteBuffer buffer, byte type, double amount)
+    {
+        buffer.putShort((short) 9);
+        buffer.put(type);
+        buffer.putDouble(amount);
+    }
+
+    /**
+     * Returns the length of the complete frame at the buffer's position
+     * or -1 if the buffer does not yet hold the whole frame
+     * @param buffer a buffer ready to be read
+     * @return the length of the frame's body (after the header) or -1
+     */
+    public static int frameLength(ByteBuffer buffer)
+    {
+        if(buffer.remaining() < HEADER)
+            return -1;
+
+        int length = buffer.getShort(buffer.position()) & 0xFFFF;
+        if(length == 0 || length > MAX_FRAME)
+            throw new IllegalArgumentException("invalid frame length " + length);
+
+        return buffer.remaining() < HEADER + length ? -1 : length;
+    }
+}
@@ -0,0 +1,20 @@
+package bj_horn.sim;
+
+import bj_horn.Action;
+import bj_horn.Blackjack;
+import bj_horn.PlayerStrategy;
+
+/**
+ * Plays each hand the way the dealer does: hit below 17, otherwise stand.
+ * Never doubles down or splits.
+ */
+public class MimicDealerStrategy implements PlayerStrategy
+{
+    public Action chooseAction(Blackjack game)
+    {
+        if(game.canHit() && game.getPlayersHandValue(game.getCurrentHand()) < 17)
+            return Action.HIT;
+
+        return Action.STAND;
+    }
+}
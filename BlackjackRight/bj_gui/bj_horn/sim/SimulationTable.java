@@ -0,0 +1,50 @@
+package bj_horn.sim;
+
+import java.util.concurrent.Callable;
+
+import bj_horn.Blackjack;
+import bj_horn.PlayerStrategy;
+import bj_horn.RoundStatistics;
+import shuffle.ShuffleStrategy;
+
+/**
+ * A single independent table played by one simulator thread.
+ * Each table has its own Blackjack game (and therefore its own shoe).
+ */
+class SimulationTable implements Callable<RoundStatistics>
+{
+    private static final double BET = 1;
+
+    private final PlayerStrategy strategy;
+    private final long rounds;
+    private final long seed;
+    private final boolean continuousShuffle;
+    private final ShuffleStrategy shuffleStrategy;
+
+    /**
+     * Constructs a table that will play the specified number of rounds
+     * @param strategy the player's strategy
+     * @param rounds the number of rounds to play
+     * @param seed the seed for the table's shoe
+     * @param continuousShuffle true to deal from a continuous shuffling machine
+     * @param shuffleStrategy the strategy used to shuffle the table's shoe
+     */
+    SimulationTable(PlayerStrategy strategy, long rounds, long seed,
+            boolean continuousShuffle, ShuffleStrategy shuffleStrategy)
+    {
+        this.strategy = strategy;
+        this.rounds = rounds;
+        this.seed = seed;
+        this.continuousShuffle = continuousShuffle;
+        this.shuffleStrategy = shuffleStrategy;
+    }
+
+    public RoundStatistics call()
+    {
+        // the strategy is given to the constructor so it also shuffles the first shoe
+        Blackjack game = new Blackjack(0, seed, shuffleStrategy);
+        game.setContinuousShuffle(continuousShuffle);
+
+        return game.playRounds(rounds, strategy, BET);
+    }
+}
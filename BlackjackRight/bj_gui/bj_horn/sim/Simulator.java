@@ -0,0 +1,224 @@
+package bj_horn.sim;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import bj_horn.PlayerStrategy;
+import bj_horn.RoundStatistics;
+import bj_horn.strategy.BasicStrategy;
+import shuffle.FisherYatesShuffle;
+import shuffle.ShuffleSequence;
+import shuffle.ShuffleStrategy;
+
+/**
+ * Headless Monte Carlo simulator for bj_horn.Blackjack. Plays independent
+ * tables on separate threads and merges their results.
+ *
+ * Each table's shoe is seeded from a stream split off the simulator's seed,
+ * so a run with the same seed and number of tables replays exactly.
+ *
+ * Usage: java bj_horn.sim.Simulator [rounds] [tables] [seed] [shoe | csm | both] [uniform | casino]
+ *
+ * csm deals from continuous shuffling machines; both plays the same seeds
+ * with a shoe and with a continuous shuffling machine and reports the difference.
+ * casino shuffles each shoe with ShuffleSequence.casino() instead of uniformly.
+ */
+public class Simulator
+{
+    private final PlayerStrategy strategy;
+    private final int tables;
+    private final long seed;
+    private boolean continuousShuffle;
+    private ShuffleStrategy shuffleStrategy = new FisherYatesShuffle();
+
+    /**
+     * Constructs a simulator that plays the specified number of tables in parallel
+     * @param strategy the player's strategy (shared by all tables)
+     * @param tables the number of independent tables (and threads)
+     *
+     * Precondition: tables > 0
+     */
+    public Simulator(PlayerStrategy strategy, int tables)
+    {
+        this(strategy, tables, new SplittableRandom().nextLong());
+    }
+
+    /**
+     * Constructs a simulator that plays the specified number of tables in parallel
+     * @param strategy the player's strategy (shared by all tables)
+     * @param tables the number of independent tables (and threads)
+     * @param seed the seed from which every table's shoe is seeded
+     *
+     * Precondition: tables > 0
+     */
+    public Simulator(PlayerStrategy strategy, int tables, long seed)
+    {
+        if(tables <= 0)
+            throw new IllegalArgumentException("tables must be > 0");
+
+        this.strategy = strategy;
+        this.tables = tables;
+        this.seed = seed;
+    }
+
+    /**
+     * Changes whether the tables deal from continuous shuffling machines
+     * (see Blackjack.setContinuousShuffle)
+     * @param continuousShuffle true for continuous shuffling machines
+     */
+    public void setContinuousShuffle(boolean continuousShuffle)
+    {
+        this.continuousShuffle = continuousShuffle;
+    }
+
+    /**
+     * Changes the strategy used to shuffle every table's shoe
+     * (a uniform Fisher-Yates shuffle by default)
+     * @param shuffleStrategy the shuffle strategy (shared by all tables)
+     */
+    public void setShuffleStrategy(ShuffleStrategy shuffleStrategy)
+    {
+        if(shuffleStrategy == null)
+            throw new IllegalArgumentException("shuffleStrategy must not be null");
+
+        this.shuffleStrategy = shuffleStrategy;
+    }
+
+    /**
+     * Returns the seed from which every table's shoe is seeded
+     * @return the seed of this simulator
+     */
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    /**
+     * Plays the specified number of rounds spread across all tables
+     * @param rounds the total number of rounds to play
+     * @return the merged results of all tables
+     *
+     * Precondition: rounds >= 0
+     */
+    public RoundStatistics run(long rounds)
+    {
+        if(rounds < 0)
+            throw new IllegalArgumentException("rounds must be >= 0");
+
+        SplittableRandom seeds = new SplittableRandom(seed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(tables);
+        try
+        {
+            ArrayList<Future<RoundStatistics>> results = new ArrayList<Future<RoundStatistics>>();
+            for(int table = 0; table < tables; table++)
+            {
+                long tableRounds = rounds / tables;
+                if(table < rounds % tables)
+                    tableRounds++;
+
+                results.add(executor.submit(new SimulationTable(strategy, tableRounds, seeds.split().nextLong(),
+                        continuousShuffle, shuffleStrategy)));
+            }
+
+            RoundStatistics total = new RoundStatistics();
+            for(Future<RoundStatistics> result : results)
+                total.merge(result.get());
+
+            return total;
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("simulation was interrupted", e);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("simulation failed", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns a multi-line report of the specified results
+     * @param stats the results to report
+     * @param nanos the time taken to produce the results
+     * @return the report
+     */
+    public static String report(RoundStatistics stats, long nanos)
+    {
+        double seconds = nanos / 1e9;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Rounds:          %,d%n", stats.getRounds()));
+        report.append(String.format("Time:            %.2f s%n", seconds));
+        report.append(String.format("Rounds / second: %,.0f%n", stats.getRounds() / seconds));
+        report.append(String.format("EV per unit:     %+.5f (+/- %.5f)%n",
+                stats.getExpectedValue(), stats.getStandardError()));
+        report.append(String.format("Variance:        %.4f%n", stats.getVariance()));
+        report.append(String.format("Wins:            %.4f%n", stats.frequency(stats.getWins())));
+        report.append(String.format("Pushes:          %.4f%n", stats.frequency(stats.getPushes())));
+        report.append(String.format("Losses:          %.4f%n", stats.frequency(stats.getLosses())));
+        report.append(String.format("Blackjacks:      %.4f%n", stats.frequency(stats.getBlackjacks())));
+        report.append(String.format("Doubles:         %.4f%n", stats.frequency(stats.getDoubles())));
+        report.append(String.format("Splits:          %.4f%n", stats.frequency(stats.getSplits())));
+        report.append(String.format("Busts:           %.4f%n", stats.frequency(stats.getBusts())));
+        return report.toString();
+    }
+
+    public static void main(String[] args)
+    {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10000000L;
+        int tables = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : new SplittableRandom().nextLong();
+        String mode = args.length > 3 ? args[3] : "shoe";
+        String shuffle = args.length > 4 ? args[4] : "uniform";
+
+        if( ! (mode.equals("shoe") || mode.equals("csm") || mode.equals("both"))
+                || ! (shuffle.equals("uniform") || shuffle.equals("casino")) )
+        {
+            System.out.println("Usage: java bj_horn.sim.Simulator [rounds] [tables] [seed] [shoe | csm | both] [uniform | casino]");
+            return;
+        }
+
+        Simulator simulator = new Simulator(new BasicStrategy(), tables, seed);
+        if(shuffle.equals("casino"))
+            simulator.setShuffleStrategy(ShuffleSequence.casino());
+        System.out.println("Seed:            " + seed);
+        System.out.println("Shuffle:         " + simulator.shuffleStrategy);
+
+        RoundStatistics shoe = null, csm = null;
+        if( ! mode.equals("csm") )
+            shoe = run(simulator, rounds, false);
+        if( ! mode.equals("shoe") )
+            csm = run(simulator, rounds, true);
+
+        if(shoe != null && csm != null)
+        {
+            double difference = csm.getExpectedValue() - shoe.getExpectedValue();
+            double error = Math.sqrt(csm.getStandardError() * csm.getStandardError()
+                    + shoe.getStandardError() * shoe.getStandardError());
+            System.out.println(String.format("CSM - shoe EV:   %+.5f (+/- %.5f)", difference, error));
+        }
+    }
+
+    private static RoundStatistics run(Simulator simulator, long rounds, boolean continuousShuffle)
+    {
+        simulator.setContinuousShuffle(continuousShuffle);
+        System.out.println(continuousShuffle ? "Continuous shuffling machine:" : "Shoe:");
+
+        long start = System.nanoTime();
+        RoundStatistics stats = simulator.run(rounds);
+        long nanos = System.nanoTime() - start;
+
+        System.out.print(report(stats, nanos));
+        return stats;
+    }
+}
@@ -0,0 +1,118 @@
+package bj_horn.strategy;
+
+import bj_horn.Action;
+import bj_horn.Blackjack;
+import bj_horn.PlayerStrategy;
+
+/**
+ * Plays every decision from a StrategyTable. The default table is
+ * multi-deck basic strategy for the bj_horn rules (dealer stands on soft 17,
+ * double after split allowed, no surrender).
+ */
+public class BasicStrategy implements PlayerStrategy
+{
+    private static final String[] HARD = {
+        //2345678910A
+        "HHHHHHHHHH", // 4
+        "HHHHHHHHHH", // 5
+        "HHHHHHHHHH", // 6
+        "HHHHHHHHHH", // 7
+        "HHHHHHHHHH", // 8
+        "HDDDDHHHHH", // 9
+        "DDDDDDDDHH", // 10
+        "DDDDDDDDDH", // 11
+        "HHSSSHHHHH", // 12
+        "SSSSSHHHHH", // 13
+        "SSSSSHHHHH", // 14
+        "SSSSSHHHHH", // 15
+        "SSSSSHHHHH", // 16
+        "SSSSSSSSSS", // 17
+        "SSSSSSSSSS", // 18
+        "SSSSSSSSSS", // 19
+        "SSSSSSSSSS", // 20
+        "SSSSSSSSSS", // 21
+    };
+
+    private static final String[] SOFT = {
+        //2345678910A
+        "HHHHHHHHHH", // A,A
+        "HHHDDHHHHH", // A,2
+        "HHHDDHHHHH", // A,3
+        "HHDDDHHHHH", // A,4
+        "HHDDDHHHHH", // A,5
+        "HDDDDHHHHH", // A,6
+        "SBBBBSSHHH", // A,7
+        "SSSSSSSSSS", // A,8
+        "SSSSSSSSSS", // A,9
+        "SSSSSSSSSS", // A,10
+    };
+
+    private static final String[] PAIRS = {
+        //2345678910A
+        "PPPPPPPPPP", // A,A
+        "PPPPPP----", // 2,2
+        "PPPPPP----", // 3,3
+        "---PP-----", // 4,4
+        "----------", // 5,5
+        "PPPPP-----", // 6,6
+        "PPPPPP----", // 7,7
+        "PPPPPPPPPP", // 8,8
+        "PPPPP-PP--", // 9,9
+        "----------", // 10,10
+    };
+
+    private final StrategyTable table;
+
+    /**
+     * Constructs a strategy that plays the default basic strategy chart
+     */
+    public BasicStrategy()
+    {
+        this(defaultTable());
+    }
+
+    /**
+     * Constructs a strategy that plays the specified table.
+     * The table must not be changed while this strategy is in use.
+     * @param table the table to play
+     */
+    public BasicStrategy(StrategyTable table)
+    {
+        this.table = table;
+    }
+
+    /**
+     * Returns a new copy of the default basic strategy chart
+     * @return the default basic strategy chart
+     */
+    public static StrategyTable defaultTable()
+    {
+        return new StrategyTable(HARD, SOFT, PAIRS);
+    }
+
+    /**
+     * Returns the table played by this strategy
+     * @return the table played by this strategy
+     */
+    public StrategyTable getTable()
+    {
+        return table;
+    }
+
+    public Action chooseAction(Blackjack game)
+    {
+        int hand = game.getCurrentHand();
+        int value = game.getPlayersHandValue(hand);
+        boolean soft = game.isPlayersHandSoft(hand);
+
+        int pairValue = 0;
+        if(game.canSplit())
+            pairValue = soft ? 1 : value / 2;
+
+        int upcard = Math.min(game.getDealersUpCard().getValue(), 10);
+
+        boolean canHit = game.canHit();
+        return table.decision(StrategyTable.index(value, soft, pairValue, upcard,
+                canHit, canHit && game.canDoubleDown()));
+    }
+}
@@ -0,0 +1,48 @@
+package bj_horn.strategy;
+
+import bj_horn.BetPolicy;
+import bj_horn.Blackjack;
+
+/**
+ * Bets by the true count: one unit at a true count of 1 or less and one
+ * unit per true count above that, up to maxUnits units. A spread with
+ * maxUnits of 1 is flat betting.
+ */
+public class BetSpread implements BetPolicy
+{
+    private final double unit;
+    private final int maxUnits;
+
+    /**
+     * Constructs a bet spread
+     * @param unit the smallest bet
+     * @param maxUnits the largest bet in units
+     *
+     * Precondition: unit > 0 && maxUnits >= 1
+     */
+    public BetSpread(double unit, int maxUnits)
+    {
+        if( ! (unit > 0) )
+            throw new IllegalArgumentException("unit must be > 0");
+
+        if(maxUnits < 1)
+            throw new IllegalArgumentException("maxUnits must be >= 1");
+
+        this.unit = unit;
+        this.maxUnits = maxUnits;
+    }
+
+    public double nextBet(Blackjack game)
+    {
+        double trueCount = game.getTrueCount();
+        if(trueCount < 2)
+            return unit;
+
+        return unit * Math.min(maxUnits, (int) trueCount);
+    }
+
+    public String toString()
+    {
+        return maxUnits == 1 ? "flat " + unit : "1-" + maxUnits + " spread of " + unit;
+    }
+}
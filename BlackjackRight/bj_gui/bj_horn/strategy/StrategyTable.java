@@ -0,0 +1,301 @@
+package bj_horn.strategy;
+
+import bj_horn.Action;
+
+/**
+ * A basic strategy chart compiled into a flat lookup table.
+ *
+ * The chart is stored as one code per cell (player total or pair and
+ * dealer upcard). Whenever a code changes, every cell is compiled into the
+ * action to take for each combination of allowed actions, so a decision
+ * is a single array read. Cells are indexed by index(...).
+ *
+ * Chart codes:
+ * H hit, S stand, D double (hit if not allowed), B double (stand if not allowed),
+ * P split, - do not split (use the hard or soft total instead)
+ */
+public class StrategyTable
+{
+    public static final char HIT = 'H', STAND = 'S',
+            DOUBLE_OR_HIT = 'D', DOUBLE_OR_STAND = 'B',
+            SPLIT = 'P', NO_SPLIT = '-';
+
+    private static final int UPCARDS = 10;
+
+    // rows 0 - 21 are hard totals, 22 - 31 soft 12 - 21, 32 - 41 pairs of Ace - 10
+    private static final int SOFT_ROW = 10, PAIR_ROW = 31, ROWS = 42;
+
+    // the allowed actions: stand only, hit, hit and double
+    private static final int FLAGS = 3;
+
+    private char[] codes;
+    private Action[] decisions;
+
+    /**
+     * Constructs a table that stands on every hand and never splits
+     */
+    public StrategyTable()
+    {
+        codes = new char[ROWS * UPCARDS];
+        for(int row = 0; row < ROWS; row++)
+            for(int column = 0; column < UPCARDS; column++)
+                codes[row * UPCARDS + column] = row < PAIR_ROW + 1 ? STAND : NO_SPLIT;
+
+        decisions = new Action[ROWS * UPCARDS * FLAGS];
+        compile();
+    }
+
+    /**
+     * Constructs a table that is a duplicate of the specified table
+     * @param other the table to duplicate
+     */
+    public StrategyTable(StrategyTable other)
+    {
+        codes = other.codes.clone();
+        decisions = other.decisions.clone();
+    }
+
+    /**
+     * Constructs a table from a chart. Each row of each chart contains one code
+     * per dealer upcard in the order 2, 3, 4, 5, 6, 7, 8, 9, 10, A.
+     * @param hard rows for hard totals 4 - 21
+     * @param soft rows for soft totals 12 - 21
+     * @param pairs rows for pairs of A, 2, 3, ... 10
+     */
+    public StrategyTable(String[] hard, String[] soft, String[] pairs)
+    {
+        this();
+
+        if(hard.length != 18 || soft.length != 10 || pairs.length != 10)
+            throw new IllegalArgumentException("chart must have 18 hard, 10 soft and 10 pair rows");
+
+        for(int i = 0; i < hard.length; i++)
+            setRow(i + 4, hard[i], "HSDB");
+        for(int i = 0; i < soft.length; i++)
+            setRow(SOFT_ROW + 12 + i, soft[i], "HSDB");
+        for(int i = 0; i < pairs.length; i++)
+            setRow(PAIR_ROW + 1 + i, pairs[i], "P-");
+
+        compile();
+    }
+
+    private void setRow(int row, String chartRow, String allowedCodes)
+    {
+        if(chartRow.length() != UPCARDS)
+            throw new IllegalArgumentException("chart row must have " + UPCARDS + " codes: " + chartRow);
+
+        for(int i = 0; i < UPCARDS; i++)
+        {
+            char code = chartRow.charAt(i);
+            if(allowedCodes.indexOf(code) < 0)
+                throw new IllegalArgumentException("invalid code '" + code + "' in chart row: " + chartRow);
+
+            // chart columns are 2 - 10 then A, table columns are A - 10
+            int upcard = i == UPCARDS - 1 ? 1 : i + 2;
+            codes[row * UPCARDS + upcard - 1] = code;
+        }
+    }
+
+    /**
+     * Returns the index of the decision for the specified situation
+     * @param value the value of the player's hand
+     * @param soft true if the player's hand is soft
+     * @param pairValue the value (1 - 10) of the cards in the player's hand
+     *        if the hand can be split, otherwise 0
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @param canHit true if the player can hit
+     * @param canDoubleDown true if the player can double down
+     * @return the index of the decision
+     */
+    public static int index(int value, boolean soft, int pairValue, int upcard,
+            boolean canHit, boolean canDoubleDown)
+    {
+        int row;
+        if(pairValue > 0)
+            row = PAIR_ROW + pairValue;
+        else if(soft)
+            row = SOFT_ROW + value;
+        else
+            row = value;
+
+        int flags = canHit ? (canDoubleDown ? 2 : 1) : 0;
+        return (row * UPCARDS + upcard - 1) * FLAGS + flags;
+    }
+
+    /**
+     * Returns the decision at the specified index
+     * @param index an index returned by index(...)
+     * @return the decision
+     */
+    public Action decision(int index)
+    {
+        return decisions[index];
+    }
+
+    /**
+     * Returns the chart code for the specified hard total
+     * @param total the hard total (4 - 21)
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @return the chart code
+     */
+    public char getHard(int total, int upcard)
+    {
+        return codes[cell(total, 4, 21, 0, upcard)];
+    }
+
+    /**
+     * Returns the chart code for the specified soft total
+     * @param total the soft total (12 - 21)
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @return the chart code
+     */
+    public char getSoft(int total, int upcard)
+    {
+        return codes[cell(total, 12, 21, SOFT_ROW, upcard)];
+    }
+
+    /**
+     * Returns the chart code for the specified pair
+     * @param pairValue the value (1 - 10) of the cards in the pair
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @return SPLIT or NO_SPLIT
+     */
+    public char getPair(int pairValue, int upcard)
+    {
+        return codes[cell(pairValue, 1, 10, PAIR_ROW, upcard)];
+    }
+
+    /**
+     * Sets the chart code for the specified hard total
+     * @param total the hard total (4 - 21)
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @param code HIT, STAND, DOUBLE_OR_HIT or DOUBLE_OR_STAND
+     */
+    public void setHard(int total, int upcard, char code)
+    {
+        setCode(cell(total, 4, 21, 0, upcard), code, "HSDB");
+    }
+
+    /**
+     * Sets the chart code for the specified soft total
+     * @param total the soft total (12 - 21)
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @param code HIT, STAND, DOUBLE_OR_HIT or DOUBLE_OR_STAND
+     */
+    public void setSoft(int total, int upcard, char code)
+    {
+        setCode(cell(total, 12, 21, SOFT_ROW, upcard), code, "HSDB");
+    }
+
+    /**
+     * Sets the chart code for the specified pair
+     * @param pairValue the value (1 - 10) of the cards in the pair
+     * @param upcard the value (1 - 10) of the dealer's face up card
+     * @param code SPLIT or NO_SPLIT
+     */
+    public void setPair(int pairValue, int upcard, char code)
+    {
+        setCode(cell(pairValue, 1, 10, PAIR_ROW, upcard), code, "P-");
+    }
+
+    private static int cell(int total, int min, int max, int firstRow, int upcard)
+    {
+        if( ! (min <= total && total <= max) )
+            throw new IllegalArgumentException("total must be " + min + " - " + max);
+
+        if( ! (1 <= upcard && upcard <= 10) )
+            throw new IllegalArgumentException("upcard must be 1 - 10");
+
+        return (firstRow + total) * UPCARDS + upcard - 1;
+    }
+
+    private void setCode(int cell, char code, String allowedCodes)
+    {
+        if(allowedCodes.indexOf(code) < 0)
+            throw new IllegalArgumentException("code must be one of " + allowedCodes);
+
+        codes[cell] = code;
+        compile();
+    }
+
+    /**
+     * Compiles every cell's code into the decision for each combination of allowed actions
+     */
+    private void compile()
+    {
+        for(int row = 0; row < ROWS; row++)
+        {
+            for(int column = 0; column < UPCARDS; column++)
+            {
+                int cell = row * UPCARDS + column;
+                char code = codes[cell];
+
+                if(row > PAIR_ROW)
+                {
+                    if(code == SPLIT)
+                    {
+                        for(int flags = 0; flags < FLAGS; flags++)
+                            decisions[cell * FLAGS + flags] = Action.SPLIT;
+                        continue;
+                    }
+
+                    // a pair that is not split is played as its total (A,A is soft 12)
+                    int pairValue = row - PAIR_ROW;
+                    int totalRow = pairValue == 1 ? SOFT_ROW + 12 : 2 * pairValue;
+                    code = codes[totalRow * UPCARDS + column];
+                }
+
+                decisions[cell * FLAGS] = Action.STAND;
+                decisions[cell * FLAGS + 1] = compile(code, false);
+                decisions[cell * FLAGS + 2] = compile(code, true);
+            }
+        }
+    }
+
+    private static Action compile(char code, boolean canDoubleDown)
+    {
+        switch(code)
+        {
+            case HIT:
+                return Action.HIT;
+
+            case DOUBLE_OR_HIT:
+                return canDoubleDown ? Action.DOUBLE_DOWN : Action.HIT;
+
+            case DOUBLE_OR_STAND:
+                return canDoubleDown ? Action.DOUBLE_DOWN : Action.STAND;
+
+            default:
+                return Action.STAND;
+        }
+    }
+
+    /**
+     * Returns the chart with one row per line and a heading for each section.
+     * Columns are dealer upcards 2 - 9, T (10) and A.
+     */
+    public String toString()
+    {
+        StringBuilder result = new StringBuilder("Hard  23456789TA\n");
+        for(int total = 4; total <= 21; total++)
+            appendRow(result, "" + total, total);
+
+        result.append("Soft\n");
+        for(int total = 12; total <= 21; total++)
+            appendRow(result, "" + total, SOFT_ROW + total);
+
+        result.append("Pairs\n");
+        for(int pairValue = 1; pairValue <= 10; pairValue++)
+            appendRow(result, pairValue == 1 ? "AA" : pairValue + "s", PAIR_ROW + pairValue);
+
+        return result.toString();
+    }
+
+    private void appendRow(StringBuilder result, String label, int row)
+    {
+        result.append(String.format("%-6s", label));
+        for(int upcard = 2; upcard <= 10; upcard++)
+            result.append(codes[row * UPCARDS + upcard - 1]);
+        result.append(codes[row * UPCARDS]).append('\n');
+    }
+}
@@ -0,0 +1,186 @@
+package bj_horn.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the requests per second a WebServer sustains. Each client creates
+ * a session and plays rounds (bet, stand on every hand, play the dealer's
+ * hand, resolve) over a keep-alive connection until the time is up.
+ */
+public class LoadGenerator
+{
+    private static final Pattern ID = Pattern.compile("\"id\":\"(\\d+)\"");
+    private static final String[] ROUND = {"/bet?amount=1", "/stand", "/dealer", "/resolve"};
+    private static final Pattern CURRENT_HAND = Pattern.compile("\"currentHand\":(-?\\d+)");
+
+    private final String baseUrl;
+    private final int clients;
+
+    /**
+     * Constructs a load generator
+     * @param baseUrl the server's URL (for example http://127.0.0.1:8080)
+     * @param clients the number of concurrent clients
+     *
+     * Precondition: clients > 0
+     */
+    public LoadGenerator(String baseUrl, int clients)
+    {
+        if(clients <= 0)
+            throw new IllegalArgumentException("clients must be > 0");
+
+        this.baseUrl = baseUrl;
+        this.clients = clients;
+
+        // HttpURLConnection keeps only 5 idle connections per server by default
+        if(System.getProperty("http.maxConnections") == null)
+            System.setProperty("http.maxConnections", String.valueOf(clients));
+    }
+
+    /**
+     * Runs every client for the specified time
+     * @param nanos how long to run
+     * @return a multi-line report of throughput and latency
+     */
+    public String run(final long nanos) throws InterruptedException
+    {
+        ExecutorService executor = WebServer.newVirtualThreadExecutor();
+        if(executor == null)
+            executor = Executors.newFixedThreadPool(clients);
+
+        try
+        {
+            final long end = System.nanoTime() + nanos;
+            ArrayList<Future<long[]>> results = new ArrayList<Future<long[]>>();
+            for(int i = 0; i < clients; i++)
+                results.add(executor.submit(new Callable<long[]>()
+                {
+                    public long[] call() throws IOException
+                    {
+                        return play(end);
+                    }
+                }));
+
+            long[] latencies = new long[0];
+            for(Future<long[]> result : results)
+            {
+                long[] client = result.get();
+                int start = latencies.length;
+                latencies = Arrays.copyOf(latencies, start + client.length);
+                System.arraycopy(client, 0, latencies, start, client.length);
+            }
+            Arrays.sort(latencies);
+
+            return report(latencies, nanos);
+        }
+        catch(ExecutionException e)
+        {
+            throw new IllegalStateException("load generation failed", e.getCause());
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String report(long[] latencies, long nanos)
+    {
+        double seconds = nanos / 1e9;
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Requests:          %,d%n", latencies.length));
+        report.append(String.format("Requests / second: %,.0f%n", latencies.length / seconds));
+        if(latencies.length > 0)
+        {
+            report.append(String.format("p50:               %.2f ms%n", percentile(latencies, 50) / 1e6));
+            report.append(String.format("p99:               %.2f ms%n", percentile(latencies, 99) / 1e6));
+            report.append(String.format("max:               %.2f ms%n", latencies[latencies.length - 1] / 1e6));
+        }
+        return report.toString();
+    }
+
+    private static long percentile(long[] sorted, double percentile)
+    {
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    /**
+     * Plays rounds on a new session until the specified time
+     * @return the latency of every request
+     */
+    private long[] play(long end) throws IOException
+    {
+        long[] latencies = new long[1024];
+        int requests = 0;
+
+        String state = post("/sessions");
+        Matcher id = ID.matcher(state);
+        if( ! id.find() )
+            throw new IllegalStateException("no session id in " + state);
+        String session = "/sessions/" + id.group(1);
+
+        while(System.nanoTime() < end)
+        {
+            for(int step = 0; step < ROUND.length; step++)
+            {
+                if(requests == latencies.length)
+                    latencies = Arrays.copyOf(latencies, 2 * requests);
+
+                long start = System.nanoTime();
+                state = post(session + ROUND[step]);
+                latencies[requests++] = System.nanoTime() - start;
+
+                // stand until every hand has been played
+                if(step == 1 && currentHand(state) >= 0)
+                    step--;
+                else if(step == 0 && currentHand(state) < 0)
+                    step++;
+            }
+        }
+
+        return Arrays.copyOf(latencies, requests);
+    }
+
+    private static int currentHand(String state)
+    {
+        Matcher matcher = CURRENT_HAND.matcher(state);
+        return matcher.find() ? Integer.parseInt(matcher.group(1)) : -1;
+    }
+
+    private String post(String path) throws IOException
+    {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod("POST");
+
+        int status = connection.getResponseCode();
+        InputStream in = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+
+        // reading the whole body returns the connection to the keep-alive cache
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while((read = in.read(buffer)) > 0)
+            body.write(buffer, 0, read);
+        in.close();
+
+        String response = new String(body.toByteArray(), StandardCharsets.UTF_8);
+        if(status >= 400)
+            throw new IllegalStateException(path + " returned " + status + ": " + response);
+
+        return response;
+    }
+}
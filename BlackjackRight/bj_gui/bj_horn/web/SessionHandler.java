@@ -0,0 +1,323 @@
+package bj_horn.web;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import bj_horn.Blackjack;
+import bj_horn.ReadOnlyHand;
+import bj_horn.metrics.GameMetrics;
+import bj_horn.metrics.TableMetrics;
+
+/**
+ * Handles the /sessions API. Every response is a JSON object, either the
+ * session's state or {"error": message}. Parameters are passed in the query
+ * string.
+ *
+ *   POST   /sessions?money=1000             create a session
+ *   GET    /sessions/{id}                   state
+ *   DELETE /sessions/{id}                   end the session
+ *   POST   /sessions/{id}/bet?amount=10     placeInitialBetAndDealCards
+ *   POST   /sessions/{id}/hit               hit
+ *   POST   /sessions/{id}/stand             stand
+ *   POST   /sessions/{id}/split             split
+ *   POST   /sessions/{id}/double?amount=10  doubleDown
+ *   POST   /sessions/{id}/dealer            playDealersHand
+ *   POST   /sessions/{id}/resolve           resolveBetsAndReset
+ *
+ * Rule violations (IllegalStateException) are returned as 409 and invalid
+ * arguments (IllegalArgumentException) as 400.
+ */
+class SessionHandler implements HttpHandler
+{
+    static final String PATH = "/sessions";
+
+    private final SessionStore sessions;
+    private final double defaultMoney;
+    private final GameMetrics metrics;
+
+    /**
+     * Constructs a handler for the specified sessions
+     * @param sessions the sessions
+     * @param defaultMoney the starting money of a session created without a money parameter
+     * @param metrics the metrics updated by every session's game; if they are
+     *        registered, each session's own metrics are registered beside them
+     */
+    SessionHandler(SessionStore sessions, double defaultMoney, GameMetrics metrics)
+    {
+        this.sessions = sessions;
+        this.defaultMoney = defaultMoney;
+        this.metrics = metrics;
+    }
+
+    public void handle(HttpExchange exchange) throws IOException
+    {
+        try
+        {
+            String method = exchange.getRequestMethod();
+            String[] path = exchange.getRequestURI().getPath().substring(PATH.length()).split("/");
+            String query = exchange.getRequestURI().getRawQuery();
+
+            // path is {""} for /sessions, {"", id} or {"", id, operation}
+            if(path.length > 0 && ! path[0].isEmpty())
+                throw new NotFoundException();
+
+            if(path.length <= 1)
+            {
+                requireMethod(method, "POST");
+                Blackjack game = new Blackjack(parameter(query, "money", defaultMoney));
+                game.setMetrics(metrics);
+                game.setTableMetrics(new TableMetrics());
+                long id = sessions.add(game);
+
+                String server = metrics.getName();
+                if(server != null)
+                    game.getTableMetrics().register(server, String.valueOf(id));
+
+                String json;
+                synchronized(game)
+                {
+                    json = state(id, game);
+                }
+                send(exchange, 201, json);
+                return;
+            }
+
+            long id = parseId(path[1]);
+            if(path.length == 2 && method.equals("DELETE"))
+            {
+                Blackjack removed = sessions.remove(id);
+                if(removed == null)
+                    throw new NotFoundException();
+                removed.getTableMetrics().unregister();
+                send(exchange, 204, null);
+                return;
+            }
+
+            Blackjack game = sessions.get(id);
+            if(game == null || path.length > 3)
+                throw new NotFoundException();
+
+            // the response is written after the game's lock is released so a
+            // slow client does not hold its session (or pin a virtual thread)
+            String json;
+            synchronized(game)
+            {
+                if(path.length == 2)
+                    requireMethod(method, "GET");
+                else
+                {
+                    requireMethod(method, "POST");
+                    apply(game, path[2], query);
+                }
+
+                json = state(id, game);
+            }
+            send(exchange, 200, json);
+        }
+        catch(NotFoundException e)
+        {
+            send(exchange, 404, error("not found"));
+        }
+        catch(MethodNotAllowedException e)
+        {
+            send(exchange, 405, error(e.getMessage()));
+        }
+        catch(IllegalStateException e)
+        {
+            send(exchange, 409, error(e.getMessage()));
+        }
+        catch(IllegalArgumentException e)
+        {
+            send(exchange, 400, error(e.getMessage()));
+        }
+        finally
+        {
+            exchange.close();
+        }
+    }
+
+    private void apply(Blackjack game, String operation, String query)
+    {
+        if(operation.equals("bet"))
+            game.placeInitialBetAndDealCards(parameter(query, "amount", Double.NaN));
+        else if(operation.equals("hit"))
+            game.hit();
+        else if(operation.equals("stand"))
+            game.stand();
+        else if(operation.equals("split"))
+            game.split();
+        else if(operation.equals("double"))
+            game.doubleDown(parameter(query, "amount", Double.NaN));
+        else if(operation.equals("dealer"))
+            game.playDealersHand();
+        else if(operation.equals("resolve"))
+            game.resolveBetsAndReset();
+        else
+            throw new NotFoundException();
+    }
+
+    /**
+     * Returns the JSON state of a session. The dealer's whole hand and the
+     * result of each hand are included once the dealer has played.
+     */
+    static String state(long id, Blackjack game)
+    {
+        StringBuilder json = new StringBuilder(256);
+        json.append("{\"id\":\"").append(id).append('"');
+        json.append(",\"money\":").append(game.getPlayersMoney());
+
+        int numHands = game.getNumHands();
+        json.append(",\"numHands\":").append(numHands);
+        if(numHands == 0)
+            return json.append('}').toString();
+
+        int currentHand = game.getCurrentHand();
+        json.append(",\"currentHand\":").append(currentHand);
+        if(currentHand >= 0)
+        {
+            json.append(",\"canHit\":").append(game.canHit());
+            json.append(",\"canDoubleDown\":").append(game.canDoubleDown());
+            json.append(",\"canSplit\":").append(game.canSplit());
+        }
+
+        ReadOnlyHand dealer = game.getFaceUpDealersHandView();
+        boolean dealerPlayed = currentHand < 0 && dealer.getNumCards() > 1;
+        json.append(",\"dealerPlayed\":").append(dealerPlayed);
+        json.append(",\"dealer\":");
+        hand(json, dealer);
+
+        json.append(",\"hands\":[");
+        for(int i = 0; i < numHands; i++)
+        {
+            if(i > 0)
+                json.append(',');
+
+            hand(json, game.getPlayersHandView(i));
+            json.setLength(json.length() - 1);
+            json.append(",\"totalBet\":").append(game.getTotalBet(i));
+            if(dealerPlayed)
+            {
+                String result = game.isPush(i) ? "push" : game.isPlayerWin(i) ? "win" : "loss";
+                json.append(",\"result\":\"").append(result).append('"');
+            }
+            json.append('}');
+        }
+        return json.append("]}").toString();
+    }
+
+    private static void hand(StringBuilder json, ReadOnlyHand hand)
+    {
+        json.append("{\"cards\":[");
+        for(int i = 0; i < hand.getNumCards(); i++)
+        {
+            if(i > 0)
+                json.append(',');
+            json.append('"').append(hand.getCard(i)).append('"');
+        }
+        json.append("],\"value\":").append(hand.getValue()).append('}');
+    }
+
+    private static String error(String message)
+    {
+        StringBuilder json = new StringBuilder("{\"error\":\"");
+        for(char c : String.valueOf(message).toCharArray())
+        {
+            if(c == '"' || c == '\\')
+                json.append('\\').append(c);
+            else if(c < ' ')
+                json.append(String.format("\\u%04x", (int) c));
+            else
+                json.append(c);
+        }
+        return json.append("\"}").toString();
+    }
+
+    private static void send(HttpExchange exchange, int status, String json) throws IOException
+    {
+        if(json == null)
+        {
+            exchange.sendResponseHeaders(status, -1);
+            return;
+        }
+
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(body);
+        out.close();
+    }
+
+    private static void requireMethod(String method, String required)
+    {
+        if( ! method.equals(required) )
+            throw new MethodNotAllowedException(required + " required");
+    }
+
+    private static long parseId(String id)
+    {
+        try
+        {
+            return Long.parseLong(id);
+        }
+        catch(NumberFormatException e)
+        {
+            throw new NotFoundException();
+        }
+    }
+
+    /**
+     * Returns the value of the specified numeric query parameter
+     * or defaultValue if it is not present
+     */
+    private static double parameter(String query, String name, double defaultValue)
+    {
+        if(query != null)
+        {
+            for(String pair : query.split("&"))
+            {
+                int equals = pair.indexOf('=');
+                if(equals > 0 && pair.substring(0, equals).equals(name))
+                {
+                    double value;
+                    try
+                    {
+                        value = Double.parseDouble(pair.substring(equals + 1));
+                    }
+                    catch(NumberFormatException e)
+                    {
+                        throw new IllegalArgumentException(name + " must be a number");
+                    }
+
+                    if(Double.isNaN(value) || Double.isInfinite(value))
+                        throw new IllegalArgumentException(name + " must be a finite number");
+                    return value;
+                }
+            }
+        }
+
+        if(Double.isNaN(defaultValue))
+            throw new IllegalArgumentException(name + " is required");
+
+        return defaultValue;
+    }
+
+    private static class NotFoundException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+    }
+
+    private static class MethodNotAllowedException extends RuntimeException
+    {
+        private static final long serialVersionUID = 1L;
+
+        MethodNotAllowedException(String message)
+        {
+            super(message);
+        }
+    }
+}
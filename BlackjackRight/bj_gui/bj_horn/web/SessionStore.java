@@ -0,0 +1,138 @@
+package bj_horn.web;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import bj_horn.Blackjack;
+
+/**
+ * The Blackjack games of all sessions, keyed by session id. The ids are
+ * spread over a fixed number of stripes, each a map with its own lock, so
+ * requests for different sessions rarely contend for the same lock.
+ *
+ * A Blackjack game is not thread safe; callers synchronize on the game
+ * returned by get while using it.
+ */
+class SessionStore
+{
+    private final Stripe[] stripes;
+    private final int mask;
+
+    /**
+     * Constructs a store with at least the specified number of stripes
+     * (rounded up to a power of 2)
+     * @param stripes the minimum number of stripes
+     *
+     * Precondition: 1 <= stripes && stripes <= 1 << 16
+     */
+    SessionStore(int stripes)
+    {
+        if( ! (1 <= stripes && stripes <= 1 << 16) )
+            throw new IllegalArgumentException("stripes must be 1 - 65536");
+
+        int size = Integer.highestOneBit(stripes);
+        if(size < stripes)
+            size <<= 1;
+
+        this.stripes = new Stripe[size];
+        for(int i = 0; i < size; i++)
+            this.stripes[i] = new Stripe();
+        mask = size - 1;
+    }
+
+    private Stripe stripe(long id)
+    {
+        // ids are random, so the low bits are already well distributed
+        return stripes[(int) id & mask];
+    }
+
+    /**
+     * Adds a game under a new random id
+     * @param game the game
+     * @return the session's id (never negative)
+     */
+    long add(Blackjack game)
+    {
+        while(true)
+        {
+            long id = ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE;
+            Stripe stripe = stripe(id);
+            synchronized(stripe)
+            {
+                if( ! stripe.games.containsKey(id) )
+                {
+                    stripe.games.put(id, game);
+                    return id;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the game of the specified session or null if there is no such session
+     * @param id the session's id
+     * @return the game or null
+     */
+    Blackjack get(long id)
+    {
+        Stripe stripe = stripe(id);
+        synchronized(stripe)
+        {
+            return stripe.games.get(id);
+        }
+    }
+
+    /**
+     * Removes the specified session
+     * @param id the session's id
+     * @return the removed game or null if there was no such session
+     */
+    Blackjack remove(long id)
+    {
+        Stripe stripe = stripe(id);
+        synchronized(stripe)
+        {
+            return stripe.games.remove(id);
+        }
+    }
+
+    /**
+     * Removes every session
+     * @return the removed games
+     */
+    ArrayList<Blackjack> removeAll()
+    {
+        ArrayList<Blackjack> removed = new ArrayList<Blackjack>();
+        for(Stripe stripe : stripes)
+            synchronized(stripe)
+            {
+                removed.addAll(stripe.games.values());
+                stripe.games.clear();
+            }
+        return removed;
+    }
+
+    /**
+     * Returns the number of sessions
+     * @return the number of sessions
+     */
+    int size()
+    {
+        int size = 0;
+        for(Stripe stripe : stripes)
+            synchronized(stripe)
+            {
+                size += stripe.games.size();
+            }
+        return size;
+    }
+
+    /**
+     * The sessions whose ids fall in one stripe, guarded by the stripe's lock
+     */
+    private static class Stripe
+    {
+        private final HashMap<Long, Blackjack> games = new HashMap<Long, Blackjack>();
+    }
+}
@@ -0,0 +1,192 @@
+package bj_horn.web;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpServer;
+
+import bj_horn.Blackjack;
+import bj_horn.metrics.GameMetrics;
+
+/**
+ * A JSON over HTTP API for bj_horn.Blackjack sessions (see SessionHandler),
+ * built on the JDK's HttpServer. Each request runs on its own virtual thread
+ * when the JVM supports them (Java 21 and later) and on a cached thread pool
+ * otherwise.
+ *
+ * Every session's game updates the server's GameMetrics, which main
+ * registers with JMX as bj_horn:type=GameMetrics,name="web-<port>", and
+ * its own TableMetrics, registered beside them as
+ * bj_horn:type=TableMetrics,server="web-<port>",name="<session id>".
+ *
+ * Usage: java bj_horn.web.WebServer [port] [stripes]
+ *        java bj_horn.web.WebServer --load [clients] [seconds]
+ *
+ * --load starts a server on the loopback address and measures it with LoadGenerator.
+ */
+public class WebServer
+{
+    public static final int DEFAULT_PORT = 8080;
+    public static final int DEFAULT_STRIPES = 64;
+    public static final double DEFAULT_MONEY = 1000;
+
+    static
+    {
+        // without TCP_NODELAY a response written as headers then body waits
+        // for the client's delayed ACK (about 40 ms per request)
+        if(System.getProperty("sun.net.httpserver.nodelay") == null)
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean virtualThreads;
+    private final SessionStore sessions;
+    private final GameMetrics metrics = new GameMetrics();
+
+    /**
+     * Constructs a server listening on the specified address
+     * @param address the address to listen on (port 0 for any free port)
+     * @param stripes the number of lock stripes in the session store
+     */
+    public WebServer(InetSocketAddress address, int stripes) throws IOException
+    {
+        sessions = new SessionStore(stripes);
+        ExecutorService virtual = newVirtualThreadExecutor();
+        virtualThreads = virtual != null;
+        executor = virtualThreads ? virtual : Executors.newCachedThreadPool();
+
+        server = HttpServer.create(address, 0);
+        server.createContext(SessionHandler.PATH, new SessionHandler(sessions, DEFAULT_MONEY, metrics));
+        server.setExecutor(executor);
+    }
+
+    /**
+     * Returns an executor that runs each task on a new virtual thread
+     * or null if virtual threads are not available
+     */
+    static ExecutorService newVirtualThreadExecutor()
+    {
+        try
+        {
+            // looked up reflectively so the project still compiles for Java 8
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch(NoSuchMethodException e)
+        {
+            return null;
+        }
+        catch(IllegalAccessException e)
+        {
+            return null;
+        }
+        catch(InvocationTargetException e)
+        {
+            // preview feature not enabled (Java 19 and 20)
+            return null;
+        }
+    }
+
+    /**
+     * Returns true if requests run on virtual threads
+     * @return true if requests run on virtual threads
+     */
+    public boolean usesVirtualThreads()
+    {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns the port this server is listening on
+     * @return the local port
+     */
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Returns the number of sessions
+     * @return the number of sessions
+     */
+    public int getNumSessions()
+    {
+        return sessions.size();
+    }
+
+    /**
+     * Returns the metrics updated by every session's game
+     * @return the server's metrics
+     */
+    public GameMetrics getMetrics()
+    {
+        return metrics;
+    }
+
+    /**
+     * Starts accepting requests
+     */
+    public void start()
+    {
+        server.start();
+    }
+
+    /**
+     * Stops the server, waiting up to the specified time for requests in progress
+     * @param seconds the maximum time to wait
+     */
+    public void stop(int seconds) throws InterruptedException
+    {
+        server.stop(seconds);
+        executor.shutdown();
+        executor.awaitTermination(seconds, TimeUnit.SECONDS);
+
+        for(Blackjack game : sessions.removeAll())
+            game.getTableMetrics().unregister();
+        metrics.unregister();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException
+    {
+        if(args.length > 0 && args[0].equals("--load"))
+        {
+            int clients = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+            int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+            WebServer server = new WebServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+                    DEFAULT_STRIPES);
+            server.start();
+            try
+            {
+                System.out.println("Virtual threads: " + server.usesVirtualThreads());
+                LoadGenerator load = new LoadGenerator("http://127.0.0.1:" + server.getPort(), clients);
+                System.out.print(load.run(seconds * 1000000000L));
+
+                GameMetrics metrics = server.getMetrics();
+                System.out.println(String.format("Rounds: %,d, hold %.4f, action p50 / p99 %,d / %,d ns",
+                        metrics.getRounds(), metrics.getHold(),
+                        metrics.getActionLatencyP50(), metrics.getActionLatencyP99()));
+            }
+            finally
+            {
+                server.stop(0);
+            }
+            return;
+        }
+
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int stripes = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_STRIPES;
+
+        WebServer server = new WebServer(new InetSocketAddress(port), stripes);
+        server.getMetrics().register("web-" + server.getPort());
+        server.start();
+
+        System.out.println("Listening on port " + server.getPort()
+                + (server.usesVirtualThreads() ? " (virtual threads)" : ""));
+    }
+}
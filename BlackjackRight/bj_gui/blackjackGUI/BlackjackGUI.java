@@ -1,9 +1,7 @@
 package blackjackGUI;
 
-
-import java.util.ArrayList;
-
 import bj_horn.*;
+import bj_horn.strategy.BasicStrategy;
 
 import processing.core.PApplet;
 import processing.core.PImage;
@@ -11,24 +9,29 @@ import processing.core.PImage;
 public class BlackjackGUI extends PApplet
 {
 	private Blackjack bj;
+	private CardTextures textures;
+	private PlayerStrategy advisor;
 	private int doubledHand;
 	private boolean hasPlacedBet;
 	
 	public void setup()
 	{
 		size(800, 600);
-		PImage background = loadImage("../../images/bg.png");
-		image(background, 0, 0);
+		textures = new CardTextures(this, "../../images/");
+		image(textures.getBackground(), 0, 0);
 		
 		bj  = new Blackjack(1000);
+		advisor = new BasicStrategy();
 		hasPlacedBet = false;
 		doubledHand = -1;
+		
+		// the table only changes in response to keys, so frames are drawn on demand
+		noLoop();
 	}
 	
 	public void draw()
 	{
-		PImage background = loadImage("../../images/bg.png");
-		image(background, 0, 0);
+		image(textures.getBackground(), 0, 0);
 		
 		if(!hasPlacedBet)
 		{
@@ -38,6 +41,7 @@ public class BlackjackGUI extends PApplet
 
 		textSize(20);
 		text("Bankroll:" + bj.getPlayersMoney(), 15, 30);
+		text("Count: " + bj.getRunningCount() + " (true " + nf((float) bj.getTrueCount(), 1, 1) + ")", 600, 585);
 		
 		for(int x = 0; x < bj.getNumHands(); x ++)
 		{
@@ -70,13 +74,13 @@ public class BlackjackGUI extends PApplet
 				{
 					text("you are playing hand " + (bj.getCurrentHand() + 1), 480, 585);
 				}
+				
+				text("Basic strategy: " + advisor.chooseAction(bj), 480, 30);
 			}
 			
 			
 			if(bj.getCurrentHand() < 0)
 			{
-				bj.playDealersHand();
-				
 				for(int x = 0; x < bj.getNumHands(); x ++)
 				{
 					if (bj.isPush(x))
@@ -144,6 +148,10 @@ public class BlackjackGUI extends PApplet
 			resolveAndReset();
 		}
 		
+		if(hasPlacedBet && bj.getCurrentHand() < 0)
+			bj.playDealersHand();
+		
+		redraw();
 	}
 	
 	
@@ -166,8 +174,7 @@ public class BlackjackGUI extends PApplet
 	 */
 	public void displayCard(Card c, int cardNum, boolean isPlayer)
 	{
-		String str = c.toString();
-		PImage card = loadImage("../../images/" + str + ".png");
+		PImage card = textures.getFace(c);
 		
 		if(isPlayer) //isn't setup to handle splitting
 		{
@@ -186,13 +193,12 @@ public class BlackjackGUI extends PApplet
 			if(cardNum == 0)
 				image(card, 387, 70);
 
-			if(bj.getFaceUpDealersHand().getNumCards() > 1 && cardNum > 0) //dealer has played
+			if(bj.getFaceUpDealersHandView().getNumCards() > 1 && cardNum > 0) //dealer has played
 				image(card, 387 + 40 + (40*(cardNum-1)), 50);
 			
 			else if(cardNum == 0)
 			{
-				PImage blank = loadImage("../../images/back.png");
-				image(blank, 387 + 40, 50); 
+				image(textures.getBack(), 387 + 40, 50); 
 			}
 		}
 
@@ -210,11 +216,11 @@ public class BlackjackGUI extends PApplet
 		}
 		else
 		{
-			ArrayList<Card> cards = bj.getPlayersHand(index).getCards();
+			ReadOnlyHand cards = bj.getPlayersHandView(index);
 			
-			for(int cardNum = 0; cardNum < cards.size(); cardNum++)
+			for(int cardNum = 0; cardNum < cards.getNumCards(); cardNum++)
 			{
-				displayCard(cards.get(cardNum), cardNum, true);
+				displayCard(cards.getCard(cardNum), cardNum, true);
 			}
 		}	
 	}
@@ -224,27 +230,26 @@ public class BlackjackGUI extends PApplet
 	 */
 	public void displayDealersHand()
 	{
-		ArrayList<Card> cards = bj.getFaceUpDealersHand().getCards();
+		ReadOnlyHand cards = bj.getFaceUpDealersHandView();
 		
-		for(int cardNum = 0; cardNum < cards.size(); cardNum++)
+		for(int cardNum = 0; cardNum < cards.getNumCards(); cardNum++)
 		{
-			displayCard(cards.get(cardNum), cardNum, false);
+			displayCard(cards.getCard(cardNum), cardNum, false);
 		}
 	}
 	
 	public void displaySplitHand(int index)
 	{
-		ArrayList<Card> cards = bj.getPlayersHand(index).getCards();
+		ReadOnlyHand cards = bj.getPlayersHandView(index);
 		
-		for(int cardNum = 0; cardNum < cards.size(); cardNum++)
-			displaySplitCard(cards.get(cardNum), cardNum, index);
+		for(int cardNum = 0; cardNum < cards.getNumCards(); cardNum++)
+			displaySplitCard(cards.getCard(cardNum), cardNum, index);
 		
 	}
 	
 	public void displaySplitCard(Card c, int cardNum, int index)
 	{
-		String str = c.toString();
-		PImage card = loadImage("../../images/" + str + ".png");
+		PImage card = textures.getFace(c);
 		
 		if(cardNum == 0)
 			image(card, 200 + (200*index), 430);
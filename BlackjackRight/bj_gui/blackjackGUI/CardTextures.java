@@ -0,0 +1,65 @@
+package blackjackGUI;
+
+import bj_horn.Card;
+
+import processing.core.PApplet;
+import processing.core.PImage;
+
+/**
+ * Loads the table background, the card back and all 52 card faces once
+ * so that drawing a frame never decodes an image from disk.
+ */
+public class CardTextures
+{
+	private PImage background;
+	private PImage back;
+
+	/**
+	 * Card faces indexed by [value][suit index] (see Card.getValue() and Card.getSuitIndex())
+	 */
+	private PImage[][] faces;
+
+	/**
+	 * Loads all images from the specified directory
+	 * @param applet the applet used to load the images
+	 * @param imageDir the directory containing the images, ending in "/"
+	 */
+	public CardTextures(PApplet applet, String imageDir)
+	{
+		background = applet.loadImage(imageDir + "bg.png");
+		back = applet.loadImage(imageDir + "back.png");
+
+		faces = new PImage[14][Card.SUITS.length];
+		for(int value = 1; value <= 13; value++)
+			for(int suit = 0; suit < Card.SUITS.length; suit++)
+				faces[value][suit] = applet.loadImage(imageDir + new Card(Card.SUITS[suit], value) + ".png");
+	}
+
+	/**
+	 * Returns the table background
+	 * @return the table background
+	 */
+	public PImage getBackground()
+	{
+		return background;
+	}
+
+	/**
+	 * Returns the image of a face down card
+	 * @return the image of a face down card
+	 */
+	public PImage getBack()
+	{
+		return back;
+	}
+
+	/**
+	 * Returns the image of the specified card
+	 * @param c the card
+	 * @return the image of the card
+	 */
+	public PImage getFace(Card c)
+	{
+		return faces[c.getValue()][c.getSuitIndex()];
+	}
+}
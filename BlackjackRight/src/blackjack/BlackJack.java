@@ -1,5 +1,7 @@
 package blackjack;
 
+import shuffle.ShuffleStrategy;
+
 public class BlackJack
 {
 	private Hand hand;
@@ -7,6 +9,8 @@ public class BlackJack
 	private Shoe shoe;
 	private double bankroll;
 	private double bet;
+	private RoundResult lastResult;
+	private boolean holeCardRevealed;
 
 	/**
 	 * Constructs a game of blackjack
@@ -14,7 +18,22 @@ public class BlackJack
 	 */
 	public BlackJack(double bankroll)
 	{
-		shoe = new Shoe(6);
+		this(bankroll, new Shoe(6));
+	}
+	
+	/**
+	 * Constructs a game of blackjack whose shoe is shuffled from seed
+	 * @param bankroll
+	 * @param seed the seed for the shoe's random number generator
+	 */
+	public BlackJack(double bankroll, long seed)
+	{
+		this(bankroll, new Shoe(6, Shoe.DEFAULT_CUT_CARD, seed));
+	}
+	
+	private BlackJack(double bankroll, Shoe shoe)
+	{
+		this.shoe = shoe;
 		shoe.shuffle();
 		hand = new Hand(shoe);
 		dealer = new Dealer(shoe);
@@ -22,17 +41,79 @@ public class BlackJack
 		
 	}
 	
+	/**
+	 * Returns the running count of the cards the player has seen; the
+	 * dealer's face down card is not counted until the dealer's hand is revealed
+	 * @return the running count of the cards dealt from the shoe
+	 */
+	public int getRunningCount()
+	{
+		if(! isHoleCardHidden())
+			return shoe.getRunningCount();
+
+		return shoe.getRunningCount() - shoe.getCountingSystem().tag(dealer.getCard(1));
+	}
+	
+	/**
+	 * Returns the running count divided by the number of decks left in the
+	 * shoe, counting the dealer's face down card as left while it is hidden
+	 * @return the running count divided by the number of decks left in the shoe
+	 */
+	public double getTrueCount()
+	{
+		if(! isHoleCardHidden())
+			return shoe.getTrueCount();
+
+		return getRunningCount() * 52.0 / (shoe.cardsLeft() + 1);
+	}
+	
+	/**
+	 * @return true if the dealer's face down card has been dealt and not revealed
+	 */
+	private boolean isHoleCardHidden()
+	{
+		return dealer.getNumCards() > 1 && ! holeCardRevealed;
+	}
+	
+	/**
+	 * @return the number of cards left in the shoe
+	 */
+	int cardsLeft()
+	{
+		return shoe.cardsLeft();
+	}
+	
+	/**
+	 * Changes the strategy used to shuffle the shoe when the cut card is reached
+	 * @param shuffleStrategy the shuffle strategy
+	 */
+	public void setShuffleStrategy(ShuffleStrategy shuffleStrategy)
+	{
+		shoe.setShuffleStrategy(shuffleStrategy);
+	}
+	
+	/**
+	 * @return the seed used to shuffle the shoe
+	 */
+	public long getSeed()
+	{
+		return shoe.getSeed();
+	}
+	
 	/**
 	 * Takes a bet and subtracts it from bankroll
-	 * Deals cards to player and dealer
+	 * Shuffles the shoe if the cut card has been reached, then
+	 * deals cards to player and dealer
 	 * @param bet
 	 */
 	public void bet(double bet)
 	{
 		this.bet = bet;
 		bankroll -= bet;
+		shoe.shuffleIfCutCardReached();
 		hand.changeCards();
-		dealer.changeCards();	
+		dealer.changeCards();
+		holeCardRevealed = false;	
 	}
 	
 	/**
@@ -49,16 +130,19 @@ public class BlackJack
 	}
 	
 	/**
+	 * Reveals the dealer's hand
 	 * Returns immediately if player has blackjack
 	 * If the dealer's hand is <17, the dealer takes another card
 	 * Prints out both hands
 	 */
 	public void updateDealerCards()
 	{
+		holeCardRevealed = true;
+		
 		if(hand.isBlackJack())
 			return;
 		
-		if(hand.checkHand().equals("Bust"))
+		if(hand.isBust())
 			return;
 		
 		while( dealer.sumCards() < 17) 
@@ -66,8 +150,13 @@ public class BlackJack
 		
 	}
 	
+	/**
+	 * Reveals the dealer's hand
+	 * @return dealer hand with every card shown
+	 */
 	public String showAllDealersHand()
 	{
+		holeCardRevealed = true;
 		return dealer.toString(true);
 	}
 
@@ -79,87 +168,81 @@ public class BlackJack
 	 */
 	public boolean canHit()
 	{
-		if(hand.checkHand().equals("Blackjack") || 
-		   dealer.checkHand().equals("Blackjack"))
-			return false;
-		else if(hand.checkHand().equals("Bust") ||
-				dealer.checkHand().equals("Bust"))
+		if(hand.isBlackJack() || dealer.isBlackJack())
 			return false;
 		
-		else if(hand.sumCards() == 21)
+		if(dealer.isBust())
 			return false;
 
-		return true;
+		return hand.sumCards() < 21;
 	}
 	
+	/**
+	 * Evaluates the player and dealer hands without settling the bet
+	 * @return the outcome of the round with both totals
+	 */
+	public RoundResult evaluate()
+	{
+		int playerTotal = hand.sumCards();
+		int dealerTotal = dealer.sumCards();
 
+		return new RoundResult(outcome(playerTotal, dealerTotal), playerTotal, dealerTotal, bet);
+	}
+	
+	private Outcome outcome(int playerTotal, int dealerTotal)
+	{
+		boolean playerBlackjack = hand.isBlackJack();
+		boolean dealerBlackjack = dealer.isBlackJack();
+		
+		if(playerBlackjack && dealerBlackjack)
+			return Outcome.PUSH;
+		if(playerBlackjack)
+			return Outcome.BLACKJACK;
+		if(dealerBlackjack)
+			return Outcome.DEALER_BLACKJACK;
+		if(playerTotal > 21)
+			return Outcome.BUST;
+		if(dealerTotal > 21)
+			return Outcome.DEALER_BUST;
+		if(playerTotal > dealerTotal)
+			return Outcome.WIN;
+		if(playerTotal == dealerTotal)
+			return Outcome.PUSH;
+		return Outcome.LOSE;
+	}
 	
 	/**
 	 * Compares the player and dealer hands, printing out a message appropriate to the outcome
 	 * Updates bankroll accordingly
+	 * @return the result of the round
 	 */
-	public void compareCards() //called after standing
+	public RoundResult compareCards() //called after standing
 	{
-		if(hand.checkHand().equals("Blackjack") && dealer.checkHand().equals("Blackjack"))
-		{
-			updateBankRoll(resolve("tie"));
-			System.out.println("You tie");
-		}
-		
-		else if(hand.checkHand().equals("Blackjack"))
-		{
-			updateBankRoll(resolve("Blackjack"));
-			System.out.println("You got blackjack");
-		}
-		
-		else if(dealer.checkHand().equals("Blackjack"))
-		{
-			updateBankRoll(resolve("Lose"));
-			System.out.println("dealer got blackjack");
-		}
-	
-		else if(hand.checkHand().equals("Bust"))
-		{
-			updateBankRoll(resolve("Lose"));
-			System.out.println("You lose");
-		}
-		
-		else if(dealer.checkHand().equals("Bust") || hand.sumCards() > dealer.sumCards())
-		{
-			updateBankRoll(resolve("Win"));
-			System.out.println("You win");
-		}
+		holeCardRevealed = true;
+		RoundResult result = evaluate();
 		
-		else if(hand.sumCards() == dealer.sumCards())
-		{
-			updateBankRoll(resolve("tie"));
-			System.out.println("You tie");
-		}
+		updateBankRoll(result.getPayout());
+		System.out.println(result.getOutcome().getMessage());
 		
-		else
-		{
-			updateBankRoll(resolve("Lose"));
-			System.out.println("You lose");
-		}
+		lastResult = result;
+		return result;
 	}
 	
 	/**
-	 * Possible values of result:
-	 * Blackjack -- get bet back and 1.5 times bet
-	 * Win -- get bet back doubled
-	 * Loss -- don't get anything back
-	 * @param result the result of that round
+	 * @param outcome the outcome of that round
 	 * @return how the bankroll should be adjusted
 	 */
-	public double resolve(String result) {
-		if (result.equals("Blackjack"))
-			return bet + 1.5*bet;
-		else if (result.equals("Win"))
-			return bet*2;
-		else if(result.equals("tie"))
-			return bet;
-		else
-			return 0;
+	public double resolve(Outcome outcome)
+	{
+		return outcome.payout(bet);
+	}
+	
+	/**
+	 * @return the result of the last round compared, or null if no round has been compared
+	 */
+	public RoundResult getLastResult()
+	{
+		return lastResult;
 	}
 	
 	/**
@@ -0,0 +1,80 @@
+package blackjack;
+
+/**
+ * Static helpers for cards encoded in a single byte.
+ * The rank (1 - 13 for Ace, 2 - 10, Jack, Queen, King) is stored
+ * in the upper bits and the suit (0 - 3 for S, H, C, D) in the lowest 2 bits.
+ */
+public final class Cards
+{
+	private static final String[] RANKS = {"", "A", "2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K"};
+	private static final String[] SUITS = {"S", "H", "C", "D"};
+
+	/**
+	 * Display names indexed by encoded card, built once so toString does not allocate
+	 */
+	private static final String[] NAMES = new String[14 << 2];
+
+	static
+	{
+		for(int rank = 1; rank <= 13; rank ++)
+			for(int suit = 0; suit < 4; suit ++)
+				NAMES[encode(rank, suit)] = RANKS[rank] + SUITS[suit];
+	}
+
+	private Cards()
+	{
+	}
+
+	/**
+	 * Encodes a card
+	 * @param rank 1 - 13 corresponding to Ace, 2 - 10, Jack, Queen, King
+	 * @param suit 0 - 3 corresponding to S, H, C, D
+	 * @return the encoded card
+	 */
+	public static byte encode(int rank, int suit)
+	{
+		return (byte) (rank << 2 | suit);
+	}
+
+	/**
+	 * Returns the rank of an encoded card (1 - 13)
+	 * @param card the encoded card
+	 * @return the rank of the card
+	 */
+	public static int rank(int card)
+	{
+		return card >> 2;
+	}
+
+	/**
+	 * Returns the suit of an encoded card (0 - 3 corresponding to S, H, C, D)
+	 * @param card the encoded card
+	 * @return the suit of the card
+	 */
+	public static int suit(int card)
+	{
+		return card & 3;
+	}
+
+	/**
+	 * Returns the blackjack value of an encoded card
+	 * (1 for an Ace, 10 for a 10, Jack, Queen or King)
+	 * @param card the encoded card
+	 * @return the value of the card
+	 */
+	public static int value(int card)
+	{
+		return Math.min(rank(card), 10);
+	}
+
+	/**
+	 * Returns the display name of an encoded card (ex: AS, 10H, QD)
+	 * @param card the encoded card
+	 * @return the display name of the card
+	 */
+	public static String toString(int card)
+	{
+		return NAMES[card];
+	}
+}
@@ -0,0 +1,54 @@
+package blackjack;
+
+/**
+ * a card counting system: the tag added to the running count
+ * when each card is dealt
+ */
+public enum CountingSystem
+{
+	//     A   2  3  4  5  6  7  8  9  10 J  Q  K
+	HI_LO(-1,  1, 1, 1, 1, 1, 0, 0, 0, -1,-1,-1,-1),
+	KO(   -1,  1, 1, 1, 1, 1, 1, 0, 0, -1,-1,-1,-1),
+	OMEGA_II(0, 1, 1, 2, 2, 2, 1, 0,-1, -2,-2,-2,-2);
+
+	/**
+	 * tags indexed by encoded card (see Cards) so dealing a card needs one array read
+	 */
+	private final int[] tags;
+	private final int deckTotal;
+
+	private CountingSystem(int... rankTags)
+	{
+		tags = new int[14 << 2];
+
+		int total = 0;
+		for(int rank = 1; rank <= 13; rank ++)
+		{
+			for(int suit = 0; suit < 4; suit ++)
+				tags[Cards.encode(rank, suit)] = rankTags[rank - 1];
+			total += 4 * rankTags[rank - 1];
+		}
+		deckTotal = total;
+	}
+
+	/**
+	 * Returns the tag for an encoded card
+	 * @param card the encoded card
+	 * @return the tag for the card
+	 */
+	public int tag(int card)
+	{
+		return tags[card];
+	}
+
+	/**
+	 * Returns the running count at the start of a shoe
+	 * (0 for balanced systems, 4 - 4 * decks for KO)
+	 * @param numDecks the number of decks in the shoe
+	 * @return the initial running count
+	 */
+	public int initialRunningCount(int numDecks)
+	{
+		return deckTotal - deckTotal * numDecks;
+	}
+}
@@ -1,36 +1,38 @@
 package blackjack;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 public class Hand 
 {
-	private ArrayList<String> cards;
+	private int[] cards;
+	private int numCards;
 	private Shoe shoe;
+
+	/**
+	 * sum of the cards counting every ace as 1, updated as each card is added
+	 */
+	private int hardSum;
+	private boolean ace;
 	
 	public Hand(Shoe shoe)
 	{
-		cards = new ArrayList<String>();
+		cards = new int[12];
 		this.shoe = shoe;
 
 	}
 	
 	/**
-	 *  Deals cards and maintains a
-	 *  suitable number of cards in shoe
-	 *  if cards <= 10 it shuffles
+	 *  Deals a new hand of two cards.
+	 *  The shoe is not shuffled here; the game shuffles it,
+	 *  if the cut card has been reached, before any hand of a round is dealt.
 	 */
 	public void changeCards()
 	{
+		numCards = 0;
+		hardSum = 0;
+		ace = false;
 		
-		if(shoe.getCards().size() <= 10)
-		{
-			shoe = new Shoe(6);
-			shoe.shuffle();
-		}
-		
-		cards = new ArrayList<String>();
-		
-		cards.add(shoe.getNext());
-		cards.add(shoe.getNext());
+		add(shoe.nextCard());
+		add(shoe.nextCard());
 	}
 	
 	/**
@@ -38,7 +40,46 @@ public class Hand
 	 */
 	public void addCard()
 	{
-		cards.add(shoe.getNext());
+		add(shoe.nextCard());
+	}
+
+	/**
+	 * adds the encoded card to the hand and updates the sum
+	 * @param card the encoded card
+	 */
+	private void add(int card)
+	{
+		if(numCards == cards.length)
+			cards = Arrays.copyOf(cards, cards.length * 2);
+
+		cards[numCards ++] = card;
+
+		int value = Cards.value(card);
+		hardSum += value;
+		if(value == 1)
+			ace = true;
+	}
+
+	/**
+	 * Returns the number of cards in the hand
+	 * @return the number of cards in the hand
+	 */
+	public int getNumCards()
+	{
+		return numCards;
+	}
+
+	/**
+	 * Returns the encoded card at the specified position (see Cards)
+	 * @param index the position of the card
+	 * @return the encoded card
+	 */
+	public int getCard(int index)
+	{
+		if(index < 0 || index >= numCards)
+			throw new IndexOutOfBoundsException("index must be >= 0 and < getNumCards()");
+
+		return cards[index];
 	}
 	
 	/**
@@ -46,52 +87,67 @@ public class Hand
 	 */
 	public String toString()
 	{
-		return cards.toString();
+		StringBuilder result = new StringBuilder("[");
+		for(int x = 0; x < numCards; x ++)
+		{
+			if(x > 0)
+				result.append(", ");
+			result.append(Cards.toString(cards[x]));
+		}
+		return result.append("]").toString();
 	}
 	
 	/**
-	 * checks if hand has blackjack
+	 * checks if hand has blackjack (21 with only 2 cards)
 	 * @return true if hand had blackjack and false if not
 	 */
 	public boolean isBlackJack()
 	{
-		String card1 = cards.get(0);
-		String card2 = cards.get(1);
-		
-		if(card1.substring(0,1).equals("A"))
-		{
-			if(card2.substring(0,1).equals("1") || card2.substring(0,1).equals("J") || card2.substring(0,1).equals("Q") || card2.substring(0,1).equals("K"))
-				return true;
-		}
-		
-		if(card2.substring(0,1).equals("A"))
-		{
-			if(card1.substring(0,1).equals("1") || card1.substring(0,1).equals("J") || card1.substring(0,1).equals("Q") || card1.substring(0,1).equals("K"))
-				return true;
-		}
+		if(numCards != 2)
+			return false;
+
+		int value1 = Cards.value(cards[0]);
+		int value2 = Cards.value(cards[1]);
 		
-		return false;
-			
+		return value1 + value2 == 11 && (value1 == 1 || value2 == 1);
+
+	}
+	
+	/**
+	 * checks if an ace in the hand is being counted as 11
+	 * @return true if the hand is soft and false if not
+	 */
+	public boolean isSoft()
+	{
+		return ace && hardSum + 10 <= 21;
 	}
 	
+	/**
+	 * checks if the hand is over 21
+	 * @return true if the holder busts and false if not
+	 */
+	public boolean isBust()
+	{
+		return hardSum > 21;
+	}
+
 	/**
 	 * Possible return values:
 	 * Bust -- over 21 and holder busts
 	 * Blackjack -- Is 21 with only 2 cards, holder wins
 	 * Numerical value -- the sum of the values in the hand
+	 * BlackJack uses isBlackJack, isBust and sumCards instead, which build no Strings
 	 * @return the result of checking the hand
 	 */
 	public String checkHand() 
 	{
-		if (cards.size() == 2 && isBlackJack())
+		if (isBlackJack())
 			return "Blackjack";
 		
-		int sum = sumCards();
-		
-		if (sum <= 21)
-			return ""+sum;
-		else
+		if (isBust())
 			return "Bust";
+		
+		return ""+sumCards();
 	}
 	
 	/**
@@ -100,23 +156,10 @@ public class Hand
 	 */
 	public int sumCards() 
 	{
-		int sum = 0;
-		boolean ace = false;
-		for (String card : cards) {
-			if (card.substring(0,1).equals("J") || card.substring(0,1).equals("Q") || card.substring(0,1).equals("K") || card.substring(0,1).equals("1"))
-				sum += 10;
-			else if (card.substring(0,1).equals("A")) {
-				sum += 1;
-				ace = true;
-			}
-			else
-				sum +=  Integer.parseInt(card.substring(0,1));
-		}
-		
-		if (ace && sum + 10 <= 21)
-			sum += 10;
+		if (isSoft())
+			return hardSum + 10;
 		
-		return sum;
+		return hardSum;
 	}
 	
 	
@@ -0,0 +1,64 @@
+package blackjack;
+
+/**
+ * the outcome of a round from the player's point of view
+ */
+public enum Outcome
+{
+	BLACKJACK(2.5, "You got blackjack"),
+	WIN(2, "You win"),
+	DEALER_BUST(2, "You win"),
+	PUSH(1, "You tie"),
+	LOSE(0, "You lose"),
+	BUST(0, "You lose"),
+	DEALER_BLACKJACK(0, "dealer got blackjack");
+
+	/**
+	 * the amount returned to the player per unit bet, including the bet
+	 */
+	private final double payoutPerBet;
+	private final String message;
+
+	private Outcome(double payoutPerBet, String message)
+	{
+		this.payoutPerBet = payoutPerBet;
+		this.message = message;
+	}
+
+	/**
+	 * Blackjack -- get bet back and 1.5 times bet
+	 * Win -- get bet back doubled
+	 * Push -- get bet back
+	 * Loss -- don't get anything back
+	 * @param bet the amount bet
+	 * @return how the bankroll should be adjusted
+	 */
+	public double payout(double bet)
+	{
+		return bet * payoutPerBet;
+	}
+
+	/**
+	 * @return true if the player is paid more than the bet
+	 */
+	public boolean isWin()
+	{
+		return payoutPerBet > 1;
+	}
+
+	/**
+	 * @return true if the player loses the bet
+	 */
+	public boolean isLoss()
+	{
+		return payoutPerBet == 0;
+	}
+
+	/**
+	 * @return the message shown to the player
+	 */
+	public String getMessage()
+	{
+		return message;
+	}
+}
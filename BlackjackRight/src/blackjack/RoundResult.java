@@ -0,0 +1,80 @@
+package blackjack;
+
+/**
+ * the evaluated result of a round: its outcome, both totals and the payout
+ */
+public class RoundResult
+{
+	private final Outcome outcome;
+	private final int playerTotal;
+	private final int dealerTotal;
+	private final double bet;
+
+	/**
+	 * Constructs the result of a round
+	 * @param outcome the outcome for the player
+	 * @param playerTotal the sum of the player's cards
+	 * @param dealerTotal the sum of the dealer's cards
+	 * @param bet the amount bet
+	 */
+	public RoundResult(Outcome outcome, int playerTotal, int dealerTotal, double bet)
+	{
+		this.outcome = outcome;
+		this.playerTotal = playerTotal;
+		this.dealerTotal = dealerTotal;
+		this.bet = bet;
+	}
+
+	/**
+	 * @return the outcome for the player
+	 */
+	public Outcome getOutcome()
+	{
+		return outcome;
+	}
+
+	/**
+	 * @return the sum of the player's cards
+	 */
+	public int getPlayerTotal()
+	{
+		return playerTotal;
+	}
+
+	/**
+	 * @return the sum of the dealer's cards
+	 */
+	public int getDealerTotal()
+	{
+		return dealerTotal;
+	}
+
+	/**
+	 * @return the amount bet
+	 */
+	public double getBet()
+	{
+		return bet;
+	}
+
+	/**
+	 * @return the amount returned to the player, including the bet
+	 */
+	public double getPayout()
+	{
+		return outcome.payout(bet);
+	}
+
+	/**
+	 * @return the change in the bankroll over the round
+	 */
+	public double getNet()
+	{
+		return getPayout() - bet;
+	}
+
+	public String toString()
+	{
+		return outcome + " " + playerTotal + " vs " + dealerTotal + " (" + getNet() + ")";
+	}
+}
@@ -1,11 +1,30 @@
 package blackjack;
 
 import java.util.ArrayList;
+import java.util.SplittableRandom;
+
+import shuffle.FisherYatesShuffle;
+import shuffle.ShuffleStrategy;
 
 public class Shoe
 {
+	/**
+	 * The default number of cards left in the shoe when the cut card is reached
+	 */
+	public static final int DEFAULT_CUT_CARD = 10;
+
+	/**
+	 * the encoded cards (see Cards), kept as ints so they can be shuffled by a ShuffleStrategy
+	 */
+	private int[] cards;
+	private int next;
+	private int cutCard;
+	private long seed;
+	private SplittableRandom random;
+	private ShuffleStrategy shuffleStrategy = new FisherYatesShuffle();
 
-	private ArrayList<String> cards;
+	private CountingSystem countingSystem = CountingSystem.HI_LO;
+	private int runningCount;
 	
 	/**
 	 * Constructs a new Shoe by combining numDecks number of 52 card decks
@@ -13,86 +32,196 @@ public class Shoe
 	 */
 	public Shoe(int numDecks)
 	{
-		cards = new ArrayList<String>();
-		
-		int num = 1;
-		
-		String[] temp = new String[52];
-		
-		for(int x = 0; x < temp.length; x ++)
-		{
-			if(x % 4 == 0)
-				temp[x] = "S";	
-			else if(x % 4 == 1)
-				temp[x] = "H";	
-			else if(x % 4 == 2)
-				temp[x] = "C";		
-			else
-				temp[x] = "D";
-			
-			if(num == 11)
-				temp[x] = "J" + temp[x];
-				
-			else if(num == 12)
-				temp[x] =  "Q" + temp[x];
-				
-			else if(num == 13)
-				temp[x] = "K" + temp[x];
-				
-			else if(num == 1)
-				temp[x] = "A"  + temp[x];
-				
-			else
-				temp[x] = num + temp[x];
-				
-			if(x % 4 == 3)
-				num ++;
-		}
+		this(numDecks, DEFAULT_CUT_CARD);
+	}
+
+	/**
+	 * Constructs a new Shoe by combining numDecks number of 52 card decks
+	 * @param numDecks the number of 52 card decks in the shoe
+	 * @param cutCard the number of cards left in the shoe when the cut card is reached
+	 */
+	public Shoe(int numDecks, int cutCard)
+	{
+		this(numDecks, cutCard, new SplittableRandom().nextLong());
+	}
+
+	/**
+	 * Constructs a new Shoe by combining numDecks number of 52 card decks.
+	 * Shoes constructed with the same arguments are shuffled into the same orders.
+	 * @param numDecks the number of 52 card decks in the shoe
+	 * @param cutCard the number of cards left in the shoe when the cut card is reached
+	 * @param seed the seed for the shoe's random number generator
+	 */
+	public Shoe(int numDecks, int cutCard, long seed)
+	{
+		if(cutCard < 0 || cutCard >= numDecks * 52)
+			throw new IllegalArgumentException("cutCard must be >= 0 and < numDecks * 52");
+
+		this.cutCard = cutCard;
+		this.seed = seed;
+		random = new SplittableRandom(seed);
+		cards = new int[numDecks * 52];
+		runningCount = countingSystem.initialRunningCount(numDecks);
 		
 		for(int x = 0; x < numDecks; x ++)
 		{
 			for(int y= 0; y < 52; y ++)
 			{
-				cards.add(temp[y]);
+				cards[x * 52 + y] = Cards.encode(y / 4 + 1, y % 4);
 			}
 			
 		}
-		
-		
 	}
 	
 	/**
-	 * Shuffles the shoe into a random order
+	 * Returns the seed used to create this shoe's random number generator
+	 * @return the seed of this shoe
+	 */
+	public long getSeed()
+	{
+		return seed;
+	}
+
+	/**
+	 * Returns the strategy used to shuffle this shoe (a uniform Fisher-Yates shuffle by default)
+	 * @return the shuffle strategy
+	 */
+	public ShuffleStrategy getShuffleStrategy()
+	{
+		return shuffleStrategy;
+	}
+
+	/**
+	 * Changes the strategy used to shuffle this shoe, starting with the next
+	 * shuffle; the cards being dealt are not reshuffled. The strategy receives
+	 * the cards in the order they were dealt, followed by the cards that
+	 * were not dealt.
+	 * @param shuffleStrategy the shuffle strategy
+	 */
+	public void setShuffleStrategy(ShuffleStrategy shuffleStrategy)
+	{
+		if(shuffleStrategy == null)
+			throw new IllegalArgumentException("shuffleStrategy must not be null");
+
+		this.shuffleStrategy = shuffleStrategy;
+	}
+
+	/**
+	 * Returns all dealt cards to the shoe and shuffles it with the shuffle strategy
 	 */
 	public void shuffle()
 	{
-		for(int x = 0; x < cards.size() -1; x ++)
-		{
-			int index = (int) (Math.random() * (cards.size()-1 -x) + x+1);
-		        	
-			String temp = cards.get(x);
-			cards.set(x, cards.get(index));
-			cards.set(index, temp);
-		   }
+		next = 0;
+		runningCount = countingSystem.initialRunningCount(cards.length / 52);
+
+		shuffleStrategy.shuffle(cards, random);
 	}
 	
 	/**
-	 * Returns the next card of the shoe
+	 * Returns the next card of the shoe encoded as described in Cards
 	 * @return the next card of the shoe
 	 */
-	public String getNext()
+	public byte nextCard()
 	{
+		if(next == cards.length)
+			throw new IllegalStateException("no cards left in the shoe");
 
-		return cards.remove(0);
+		int card = cards[next++];
+		runningCount += countingSystem.tag(card);
+		return (byte) card;
+	}
 		
+	/**
+	 * Returns the display name of the next card of the shoe
+	 * @return the next card of the shoe
+	 */
+	public String getNext()
+	{
+		return Cards.toString(nextCard());
 	}
 	
 	/**
-	 * Returns an ArrayList containing the contents of the shoe
+	 * Returns the number of cards that have not been dealt
+	 * @return the number of cards left in the shoe
+	 */
+	public int cardsLeft()
+	{
+		return cards.length - next;
+	}
+
+	/**
+	 * Returns the counting system used for the running count (HI_LO by default)
+	 * @return the counting system
+	 */
+	public CountingSystem getCountingSystem()
+	{
+		return countingSystem;
+	}
+
+	/**
+	 * Changes the counting system and recalculates the running count
+	 * for the cards dealt since the last shuffle
+	 * @param countingSystem the new counting system
+	 */
+	public void setCountingSystem(CountingSystem countingSystem)
+	{
+		this.countingSystem = countingSystem;
+
+		runningCount = countingSystem.initialRunningCount(cards.length / 52);
+		for(int x = 0; x < next; x ++)
+			runningCount += countingSystem.tag(cards[x]);
+	}
+
+	/**
+	 * Returns the running count of the cards dealt since the last shuffle
+	 * @return the running count
+	 */
+	public int getRunningCount()
+	{
+		return runningCount;
+	}
+
+	/**
+	 * Returns the running count divided by the number of decks left in the shoe
+	 * @return the true count (the running count if no cards are left)
+	 */
+	public double getTrueCount()
+	{
+		if(cardsLeft() == 0)
+			return runningCount;
+
+		return runningCount * 52.0 / cardsLeft();
+	}
+
+	/**
+	 * Returns true if the cut card has been reached and the shoe should be
+	 * shuffled before the next round, false otherwise
+	 * @return true if the cut card has been reached
+	 */
+	public boolean isCutCardReached()
+	{
+		return cardsLeft() <= cutCard;
+	}
+
+	/**
+	 * Shuffles the shoe if the cut card has been reached
+	 */
+	public void shuffleIfCutCardReached()
+	{
+		if(isCutCardReached())
+			shuffle();
+	}
+
+	/**
+	 * Returns an ArrayList containing the cards left in the shoe
 	 * @return an ArrayList containing the contents of the shoe
 	 */
 	public ArrayList<String> getCards()
 	{
-		return cards;
+		ArrayList<String> left = new ArrayList<String>(cardsLeft());
+		for(int x = next; x < cards.length; x ++)
+			left.add(Cards.toString(cards[x]));
+
+		return left;
 	}
 }
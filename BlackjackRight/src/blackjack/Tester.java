@@ -1,6 +1,7 @@
 package blackjack;
 
 import java.util.ArrayList;
+import java.util.SplittableRandom;
 
 public class Tester
 {
@@ -9,6 +10,7 @@ public class Tester
 	{
 		//testShoe();
 		testHandCards();
+		testShuffleBeforeDeal(42, 200000);
 	}
 	
 	public static void testHandCards()
@@ -26,6 +28,40 @@ public class Tester
 		
 	}
 
+	/**
+	 * Plays seeded rounds and checks that the shoe is only ever shuffled
+	 * before a round is dealt, never between the player's and the dealer's cards
+	 * @param seed the seed for the shoe and the player's decisions
+	 * @param rounds the number of rounds to play
+	 */
+	public static void testShuffleBeforeDeal(long seed, int rounds)
+	{
+		BlackJack game = new BlackJack(0, seed);
+		SplittableRandom random = new SplittableRandom(seed);
+		int fullShoe = game.cardsLeft();
+		int shuffles = 0;
+		
+		for(int x = 0; x < rounds; x ++)
+		{
+			int before = game.cardsLeft();
+			boolean shuffle = before <= Shoe.DEFAULT_CUT_CARD;
+			if(shuffle)
+				shuffles ++;
+			
+			game.bet(1);
+			int expected = (shuffle ? fullShoe : before) - 4;
+			if(game.cardsLeft() != expected)
+				throw new IllegalStateException("round " + x + ": " + game.cardsLeft()
+						+ " cards left after the deal, expected " + expected);
+			
+			while(game.canHit() && random.nextBoolean())
+				game.playerAction("H");
+			game.updateDealerCards();
+		}
+		
+		System.out.println(rounds + " rounds, " + shuffles + " shuffles, none between the deals");
+	}
+
 	public void testShoe()
 	{
 		Shoe shoe = new Shoe(6);
@@ -0,0 +1,56 @@
+package shuffle;
+
+import java.util.SplittableRandom;
+
+/**
+ * A box shuffle: the shoe is cut into a few roughly equal blocks whose order
+ * is then reversed (the blocks are placed in a box pattern). Cards keep their
+ * order within each block.
+ */
+public class BoxShuffle implements ShuffleStrategy
+{
+	private final int blocks;
+
+	/**
+	 * Constructs a box shuffle
+	 * @param blocks the number of blocks
+	 *
+	 * Precondition: blocks > 1
+	 */
+	public BoxShuffle(int blocks)
+	{
+		if(blocks <= 1)
+			throw new IllegalArgumentException("blocks must be > 1");
+
+		this.blocks = blocks;
+	}
+
+	public void shuffle(int[] cards, SplittableRandom random)
+	{
+		int[] boxed = new int[cards.length];
+
+		// each cut lands within a tenth of the shoe of where an even cut would
+		int[] cuts = new int[blocks + 1];
+		int jitter = Math.max(1, cards.length / (10 * blocks));
+		for(int x = 1; x < blocks; x ++)
+		{
+			int cut = x * cards.length / blocks + random.nextInt(2 * jitter + 1) - jitter;
+			cuts[x] = Math.max(cuts[x - 1], Math.min(cards.length, cut));
+		}
+		cuts[blocks] = cards.length;
+
+		int out = 0;
+		for(int x = blocks - 1; x >= 0; x --)
+		{
+			System.arraycopy(cards, cuts[x], boxed, out, cuts[x + 1] - cuts[x]);
+			out += cuts[x + 1] - cuts[x];
+		}
+
+		System.arraycopy(boxed, 0, cards, 0, cards.length);
+	}
+
+	public String toString()
+	{
+		return "box (" + blocks + " blocks)";
+	}
+}
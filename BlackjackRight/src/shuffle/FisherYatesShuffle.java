@@ -0,0 +1,53 @@
+package shuffle;
+
+import java.util.SplittableRandom;
+
+/**
+ * A uniform shuffle: every permutation of the cards is equally likely.
+ * Each position, from the last down, is swapped with a position chosen
+ * from itself and the positions before it (choosing only the positions
+ * before it would be Sattolo's algorithm, which produces only single cycle
+ * permutations). Makes one call to the generator per card and allocates nothing.
+ */
+public class FisherYatesShuffle implements ShuffleStrategy
+{
+	public void shuffle(int[] cards, SplittableRandom random)
+	{
+		for(int x = cards.length - 1; x > 0; x --)
+		{
+			int index = random.nextInt(x + 1);
+
+			int temp = cards[x];
+			cards[x] = cards[index];
+			cards[index] = temp;
+		}
+	}
+
+	/**
+	 * Moves each card from cards[from] on to a uniformly random position
+	 * among itself and the cards before it (the steps of an inside-out
+	 * Fisher-Yates shuffle). If the cards before cards[from] are in a
+	 * uniformly random order, all the cards are afterwards. Returns dealt
+	 * cards to a shoe the way a continuous shuffling machine does, in time
+	 * proportional to the number of cards returned.
+	 * @param cards the cards left followed by the cards to return
+	 * @param from the index of the first card to return
+	 * @param random the generator to draw from
+	 */
+	public static void insert(int[] cards, int from, SplittableRandom random)
+	{
+		for(int x = from; x < cards.length; x ++)
+		{
+			int index = random.nextInt(x + 1);
+
+			int temp = cards[x];
+			cards[x] = cards[index];
+			cards[index] = temp;
+		}
+	}
+
+	public String toString()
+	{
+		return "Fisher-Yates";
+	}
+}
@@ -0,0 +1,88 @@
+package shuffle;
+
+import java.util.SplittableRandom;
+
+/**
+ * A riffle shuffle as done at a casino table: the shoe is split into two
+ * halves and a grab from each half is riffled together at a time, each
+ * riffled grab going onto a new pile.
+ *
+ * Each riffle follows the Gilbert-Shannon-Reeds model: the cards held are
+ * cut where a binomial cut would fall and cards drop from each side with
+ * probability proportional to the number of cards left on that side. A
+ * single riffle leaves long runs of cards in their original order, which
+ * is what shuffle trackers follow.
+ */
+public class RiffleShuffle implements ShuffleStrategy
+{
+	private final int grab;
+
+	/**
+	 * Constructs a riffle shuffle of the whole shoe at once
+	 */
+	public RiffleShuffle()
+	{
+		this(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Constructs a riffle shuffle that takes grab cards from each half at a time
+	 * @param grab the number of cards taken from each half per riffle
+	 *
+	 * Precondition: grab > 0
+	 */
+	public RiffleShuffle(int grab)
+	{
+		if(grab <= 0)
+			throw new IllegalArgumentException("grab must be > 0");
+
+		this.grab = grab;
+	}
+
+	public void shuffle(int[] cards, SplittableRandom random)
+	{
+		int[] shuffled = new int[cards.length];
+
+		// the left half is cut near the middle like the two sides of a riffle
+		int left = 0;
+		int leftEnd = binomialHalf(cards.length, random);
+		int right = leftEnd;
+		int out = 0;
+
+		while(left < leftEnd || right < cards.length)
+		{
+			int leftCount = Math.min(grab, leftEnd - left);
+			int rightCount = Math.min(grab, cards.length - right);
+
+			int leftStop = left + leftCount, rightStop = right + rightCount;
+			while(left < leftStop || right < rightStop)
+			{
+				int leftLeft = leftStop - left, rightLeft = rightStop - right;
+				if(random.nextInt(leftLeft + rightLeft) < leftLeft)
+					shuffled[out ++] = cards[left ++];
+				else
+					shuffled[out ++] = cards[right ++];
+			}
+		}
+
+		System.arraycopy(shuffled, 0, cards, 0, cards.length);
+	}
+
+	/**
+	 * Returns the number of heads in n fair coin flips
+	 */
+	static int binomialHalf(int n, SplittableRandom random)
+	{
+		int heads = 0;
+		for(; n >= 64; n -= 64)
+			heads += Long.bitCount(random.nextLong());
+		if(n > 0)
+			heads += Long.bitCount(random.nextLong() >>> (64 - n));
+		return heads;
+	}
+
+	public String toString()
+	{
+		return grab == Integer.MAX_VALUE ? "riffle" : "riffle (grabs of " + grab + ")";
+	}
+}
@@ -0,0 +1,65 @@
+package shuffle;
+
+import java.util.SplittableRandom;
+
+/**
+ * A shuffle procedure made of several shuffles done one after another,
+ * such as a casino's riffle, strip, riffle, box sequence
+ */
+public class ShuffleSequence implements ShuffleStrategy
+{
+	private final String name;
+	private final ShuffleStrategy[] steps;
+
+	/**
+	 * Constructs a procedure that performs the specified shuffles in order
+	 * @param steps the shuffles
+	 */
+	public ShuffleSequence(ShuffleStrategy... steps)
+	{
+		this(null, steps);
+	}
+
+	/**
+	 * Constructs a named procedure that performs the specified shuffles in order
+	 * @param name the name of the procedure or null to name it after its steps
+	 * @param steps the shuffles
+	 */
+	public ShuffleSequence(String name, ShuffleStrategy... steps)
+	{
+		this.name = name;
+		this.steps = steps.clone();
+	}
+
+	/**
+	 * Returns a typical casino procedure for a multi-deck shoe: riffle in grabs
+	 * of a deck, strip, riffle again, box into 4 blocks and a final riffle
+	 * @return the casino procedure
+	 */
+	public static ShuffleSequence casino()
+	{
+		RiffleShuffle riffle = new RiffleShuffle(52);
+		return new ShuffleSequence("casino", riffle, new StripShuffle(6), riffle, new BoxShuffle(4), riffle);
+	}
+
+	public void shuffle(int[] cards, SplittableRandom random)
+	{
+		for(ShuffleStrategy step : steps)
+			step.shuffle(cards, random);
+	}
+
+	public String toString()
+	{
+		if(name != null)
+			return name;
+
+		StringBuilder result = new StringBuilder();
+		for(ShuffleStrategy step : steps)
+		{
+			if(result.length() > 0)
+				result.append(", ");
+			result.append(step);
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,22 @@
+package shuffle;
+
+import java.util.SplittableRandom;
+
+/**
+ * A way of shuffling a shoe. Both blackjack.Shoe and bj_horn.Shoe keep their
+ * cards as an int array in shoe order and shuffle it in place, so a strategy
+ * sees the cards in the order they were in before the shuffle (the discards
+ * followed by any cards left behind the cut card), as a dealer would.
+ *
+ * Strategies keep no state between shuffles, so one strategy can be shared
+ * by many shoes and threads; all randomness comes from the shoe's generator.
+ */
+public interface ShuffleStrategy
+{
+	/**
+	 * Rearranges the cards in place
+	 * @param cards the cards in shoe order
+	 * @param random the generator to draw from
+	 */
+	void shuffle(int[] cards, SplittableRandom random);
+}
@@ -0,0 +1,182 @@
+package shuffle;
+
+import java.util.SplittableRandom;
+
+/**
+ * Measures how close shuffle strategies come to a uniform shuffle.
+ *
+ * Each trial shuffles a deck that starts in the same order, so the tests
+ * see the distribution of a single shuffle:
+ *   position    -- chi-square of the counts of each card at each position
+ *                  of a 52 card deck, (52 - 1)^2 degrees of freedom
+ *   permutation -- chi-square of the counts of each of the 120 permutations
+ *                  of a 5 card deck, 119 degrees of freedom
+ *
+ * Each chi-square is reported with its z score (Wilson-Hilferty); a z score
+ * above 4 means the shuffle is almost certainly not uniform.
+ *
+ * Usage: java shuffle.ShuffleTester [shuffles] [seed]
+ */
+public class ShuffleTester
+{
+	public static final int POSITION_CARDS = 52;
+	public static final int PERMUTATION_CARDS = 5;
+	public static final double MAX_UNIFORM_Z = 4;
+
+	private final ShuffleStrategy strategy;
+	private final SplittableRandom random;
+
+	/**
+	 * Constructs a tester of the specified strategy
+	 * @param strategy the strategy to test
+	 * @param seed the seed for the generator passed to the strategy
+	 */
+	public ShuffleTester(ShuffleStrategy strategy, long seed)
+	{
+		this.strategy = strategy;
+		this.random = new SplittableRandom(seed);
+	}
+
+	/**
+	 * Returns the chi-square statistic of the positions of every card
+	 * after each of the specified number of shuffles of a POSITION_CARDS deck
+	 * @param shuffles the number of shuffles
+	 * @return the chi-square statistic with (POSITION_CARDS - 1)^2 degrees of freedom
+	 */
+	public double positionChiSquare(long shuffles)
+	{
+		int n = POSITION_CARDS;
+		long[] counts = new long[n * n];
+		int[] deck = new int[n];
+
+		for(long s = 0; s < shuffles; s ++)
+		{
+			for(int x = 0; x < n; x ++)
+				deck[x] = x;
+
+			strategy.shuffle(deck, random);
+
+			for(int position = 0; position < n; position ++)
+				counts[deck[position] * n + position] ++;
+		}
+
+		return chiSquare(counts, (double) shuffles / n);
+	}
+
+	/**
+	 * Returns the chi-square statistic of the permutations produced by
+	 * the specified number of shuffles of a PERMUTATION_CARDS deck
+	 * @param shuffles the number of shuffles
+	 * @return the chi-square statistic with PERMUTATION_CARDS! - 1 degrees of freedom
+	 */
+	public double permutationChiSquare(long shuffles)
+	{
+		int n = PERMUTATION_CARDS;
+		long[] counts = new long[factorial(n)];
+		int[] deck = new int[n];
+
+		for(long s = 0; s < shuffles; s ++)
+		{
+			for(int x = 0; x < n; x ++)
+				deck[x] = x;
+
+			strategy.shuffle(deck, random);
+			counts[rank(deck)] ++;
+		}
+
+		return chiSquare(counts, (double) shuffles / counts.length);
+	}
+
+	private static double chiSquare(long[] counts, double expected)
+	{
+		double chiSquare = 0;
+		for(long count : counts)
+		{
+			double difference = count - expected;
+			chiSquare += difference * difference / expected;
+		}
+		return chiSquare;
+	}
+
+	/**
+	 * Returns the index of a permutation of 0 to n - 1 in lexicographic order (its Lehmer code)
+	 * @param permutation the permutation
+	 * @return the permutation's index (0 to n! - 1)
+	 */
+	static int rank(int[] permutation)
+	{
+		int rank = 0;
+		for(int x = 0; x < permutation.length; x ++)
+		{
+			int smaller = 0;
+			for(int y = x + 1; y < permutation.length; y ++)
+				if(permutation[y] < permutation[x])
+					smaller ++;
+
+			rank = rank * (permutation.length - x) + smaller;
+		}
+		return rank;
+	}
+
+	private static int factorial(int n)
+	{
+		int result = 1;
+		for(int x = 2; x <= n; x ++)
+			result *= x;
+		return result;
+	}
+
+	/**
+	 * Returns the number of standard deviations by which a chi-square statistic
+	 * exceeds its expected value, using the Wilson-Hilferty approximation
+	 * @param chiSquare the statistic
+	 * @param degreesOfFreedom its degrees of freedom
+	 * @return the z score
+	 */
+	public static double zScore(double chiSquare, int degreesOfFreedom)
+	{
+		double k = degreesOfFreedom;
+		double variance = 2 / (9 * k);
+		return (Math.cbrt(chiSquare / k) - (1 - variance)) / Math.sqrt(variance);
+	}
+
+	public static void main(String[] args)
+	{
+		long shuffles = args.length > 0 ? Long.parseLong(args[0]) : 1000000L;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : new SplittableRandom().nextLong();
+
+		RiffleShuffle riffle = new RiffleShuffle();
+		ShuffleStrategy[] strategies = {
+			new FisherYatesShuffle(),
+			riffle,
+			new ShuffleSequence("7 riffles", riffle, riffle, riffle, riffle, riffle, riffle, riffle),
+			new StripShuffle(6),
+			new BoxShuffle(4),
+			ShuffleSequence.casino()
+		};
+
+		int positionDf = (POSITION_CARDS - 1) * (POSITION_CARDS - 1);
+		int permutationDf = factorial(PERMUTATION_CARDS) - 1;
+
+		System.out.println("Seed: " + seed + ", " + shuffles + " shuffles per test");
+		System.out.println(String.format("%-24s %12s %8s %12s %8s %14s",
+				"strategy", "position", "z", "permutation", "z", "shuffles / s"));
+
+		for(ShuffleStrategy strategy : strategies)
+		{
+			ShuffleTester tester = new ShuffleTester(strategy, seed);
+
+			long start = System.nanoTime();
+			double position = tester.positionChiSquare(shuffles);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			double permutation = tester.permutationChiSquare(shuffles);
+
+			double positionZ = zScore(position, positionDf);
+			double permutationZ = zScore(permutation, permutationDf);
+
+			System.out.println(String.format("%-24s %12.1f %8.1f %12.1f %8.1f %,14.0f%s",
+					strategy, position, positionZ, permutation, permutationZ, shuffles / seconds,
+					positionZ > MAX_UNIFORM_Z || permutationZ > MAX_UNIFORM_Z ? "  NOT UNIFORM" : ""));
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package shuffle;
+
+import java.util.SplittableRandom;
+
+/**
+ * A strip shuffle: packets are pulled off the top of the shoe one at a time
+ * and dropped onto a new pile, which reverses the order of the packets but
+ * not of the cards within them. Packet sizes vary uniformly around the mean.
+ */
+public class StripShuffle implements ShuffleStrategy
+{
+	private final int packets;
+
+	/**
+	 * Constructs a strip shuffle
+	 * @param packets the mean number of packets the shoe is stripped into
+	 *
+	 * Precondition: packets > 0
+	 */
+	public StripShuffle(int packets)
+	{
+		if(packets <= 0)
+			throw new IllegalArgumentException("packets must be > 0");
+
+		this.packets = packets;
+	}
+
+	public void shuffle(int[] cards, SplittableRandom random)
+	{
+		int[] stripped = new int[cards.length];
+		int mean = Math.max(1, cards.length / packets);
+
+		// the top of the shoe is the end of the array
+		int top = cards.length;
+		int out = 0;
+		while(top > 0)
+		{
+			int size = Math.min(top, mean / 2 + 1 + random.nextInt(mean));
+			int start = top - size;
+
+			// the packet lands on the pile as a block, so the first packet ends up at the bottom
+			System.arraycopy(cards, start, stripped, out, size);
+			out += size;
+			top = start;
+		}
+
+		System.arraycopy(stripped, 0, cards, 0, cards.length);
+	}
+
+	public String toString()
+	{
+		return "strip (" + packets + " packets)";
+	}
+}